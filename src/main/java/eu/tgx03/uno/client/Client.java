@@ -4,23 +4,36 @@ import eu.tgx03.uno.game.Player;
 import eu.tgx03.uno.game.cards.Card;
 import eu.tgx03.uno.game.cards.Color;
 import eu.tgx03.uno.messaging.Command;
+import eu.tgx03.uno.messaging.CommandResult;
 import eu.tgx03.uno.messaging.Update;
+import eu.tgx03.uno.messaging.UpdateDelta;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A class representing a generic client for UNO, which provides the necessary functions to communicate with the server.
  */
 public abstract class Client implements Runnable {
 
+	/**
+	 * How often clients tell the host that they are still there.
+	 */
+	public static final Duration HEARTBEAT = Duration.ofSeconds(5);
+
 	/**
 	 * All the receivers that wish to be updated once the host sends an update.
 	 */
 	private final List<ClientUpdate> receivers = new ArrayList<>(1);
+	/**
+	 * The ID of the next command sent.
+	 */
+	private final AtomicInteger nextId = new AtomicInteger(1);
 
 	/**
 	 * The player object of this client.
@@ -37,6 +50,10 @@ public abstract class Client implements Runnable {
 	 * Once set to true, the client thread shuts down.
 	 */
 	protected boolean ended = false;
+	/**
+	 * The last full state received from the host, deltas get applied to it.
+	 */
+	private Update lastUpdate;
 
 	/**
 	 * Returns the player object of this client
@@ -103,6 +120,7 @@ public abstract class Client implements Runnable {
 		synchronized (this) {
 			player = update.player;
 			topCard = update.topCard;
+			lastUpdate = update;
 		}
 		synchronized (this.receivers) {
 			for (ClientUpdate receiver : receivers) {
@@ -111,50 +129,88 @@ public abstract class Client implements Runnable {
 		}
 	}
 
+	/**
+	 * Applies a delta received from the host to the last known state and informs the receivers of the result.
+	 * When the delta doesn't fit the known state, a full update gets requested from the host instead.
+	 *
+	 * @param delta The received delta.
+	 * @return The rebuilt full update or null if a full update had to be requested.
+	 */
+	@Nullable
+	protected final Update update(@NotNull UpdateDelta delta) {
+		Update update;
+		synchronized (this) {
+			update = lastUpdate == null ? null : delta.apply(lastUpdate);
+		}
+		if (update == null) {
+			try {
+				sendCommand(new Command(Command.CommandType.RESYNC, -1));
+			} catch (IOException e) {
+				handleException(e);
+			}
+		} else this.update(update);
+		return update;
+	}
+
+	/**
+	 * Informs the receivers whether a command has been executed.
+	 *
+	 * @param result The result received from the host.
+	 */
+	protected final void result(@NotNull CommandResult result) {
+		synchronized (this.receivers) {
+			for (ClientUpdate receiver : receivers) {
+				receiver.result(result);
+			}
+		}
+	}
+
 	public void kill() {
 		ended = true;
 	}
 
 	/**
 	 * Play the selected card normally.
-	 * There is no response, whether the operation has actually succeeded
-	 * must be determined with the update.
+	 * Whether the operation has succeeded gets reported through {@link ClientUpdate#result(CommandResult)}.
 	 *
 	 * @param cardNumber The card to place.
+	 * @return The ID of the sent command.
 	 * @throws IOException When an error occurs during transmission.
 	 */
-	public final void play(int cardNumber) throws IOException {
-		sendCommand(new Command(Command.CommandType.NORMAL, cardNumber));
+	public final int play(int cardNumber) throws IOException {
+		return send(new Command(Command.CommandType.NORMAL, cardNumber));
 	}
 
 	/**
 	 * Throws in the selected card no matter whose turn it is
-	 * There is no response, whether the operation has actually succeeded
-	 * must be determined with the update.
+	 * Whether the operation has succeeded gets reported through {@link ClientUpdate#result(CommandResult)}.
 	 *
 	 * @param cardNumber The card to throw.
+	 * @return The ID of the sent command.
 	 * @throws IOException When an error occurs during transmission.
 	 */
-	public final void jump(int cardNumber) throws IOException {
-		sendCommand(new Command(Command.CommandType.JUMP, cardNumber));
+	public final int jump(int cardNumber) throws IOException {
+		return send(new Command(Command.CommandType.JUMP, cardNumber));
 	}
 
 	/**
 	 * Informs the host that the penalty cards get accepted by this client.
 	 *
+	 * @return The ID of the sent command.
 	 * @throws IOException When an error occurs during transmission.
 	 */
-	public final void acceptCards() throws IOException {
-		sendCommand(new Command(Command.CommandType.ACCEPT, -1));
+	public final int acceptCards() throws IOException {
+		return send(new Command(Command.CommandType.ACCEPT, -1));
 	}
 
 	/**
 	 * Requests the host to create a new card and add it to this player.
 	 *
+	 * @return The ID of the sent command.
 	 * @throws IOException When an error occurs during transmission.
 	 */
-	public final void takeCard() throws IOException {
-		sendCommand(new Command());
+	public final int takeCard() throws IOException {
+		return send(new Command());
 	}
 
 	/**
@@ -162,10 +218,24 @@ public abstract class Client implements Runnable {
 	 *
 	 * @param cardNumber The number of the card to set.
 	 * @param color      The desired color.
+	 * @return The ID of the sent command.
+	 * @throws IOException When an error occurs during transmission.
+	 */
+	public final int selectColor(int cardNumber, @NotNull Color color) throws IOException {
+		return send(new Command(color, cardNumber));
+	}
+
+	/**
+	 * Gives a command a new ID and sends it.
+	 *
+	 * @param command The command to send.
+	 * @return The ID of the command.
 	 * @throws IOException When an error occurs during transmission.
 	 */
-	public final void selectColor(int cardNumber, @NotNull Color color) throws IOException {
-		sendCommand(new Command(color, cardNumber));
+	private int send(@NotNull Command command) throws IOException {
+		int id = nextId.getAndUpdate(i -> i == Integer.MAX_VALUE ? 1 : i + 1);
+		sendCommand(command.withId(id));
+		return id;
 	}
 
 	/**
@@ -1,6 +1,7 @@
 package eu.tgx03.uno.client;
 
 import eu.tgx03.ExceptionHandler;
+import eu.tgx03.uno.messaging.CommandResult;
 import eu.tgx03.uno.messaging.Update;
 import org.jetbrains.annotations.NotNull;
 
@@ -15,4 +16,13 @@ public interface ClientUpdate extends ExceptionHandler {
 	 * @param update The update sent by the server.
 	 */
 	void update(@NotNull Update update);
+
+	/**
+	 * Informs the implementing class whether a command of the client has been executed.
+	 * The ID of the result is the one returned when the command was sent.
+	 *
+	 * @param result The result sent by the server.
+	 */
+	default void result(@NotNull CommandResult result) {
+	}
 }
@@ -1,31 +1,74 @@
 package eu.tgx03.uno.client;
 
+import eu.tgx03.uno.logging.Level;
+import eu.tgx03.uno.logging.Logger;
 import eu.tgx03.uno.messaging.Command;
+import eu.tgx03.uno.messaging.CommandResult;
 import eu.tgx03.uno.messaging.Update;
+import eu.tgx03.uno.messaging.UpdateDelta;
+import eu.tgx03.uno.messaging.WireFormat;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.UncheckedIOException;
 import java.net.Socket;
 import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * The client of a UNO-Game. It only holds information of its assigned player
  * and handles communication with the host.
+ * When connected to a single game server, a broken connection gets reestablished
+ * using the session token received when joining.
  */
 public class SocketClient extends Client {
 
+	/**
+	 * How often to try reconnecting after the connection broke.
+	 */
+	private static final int RECONNECT_ATTEMPTS = 5;
+	/**
+	 * How long to wait between attempts to reconnect, in milliseconds.
+	 */
+	private static final long RECONNECT_DELAY = 500;
+	/**
+	 * The logger of the clients.
+	 */
+	private static final Logger LOG = Logger.get(SocketClient.class);
+
+	/**
+	 * The hostname of the server.
+	 */
+	private final String host;
+	/**
+	 * The port of the server.
+	 */
+	private final int hostPort;
+	/**
+	 * The format the server uses.
+	 */
+	private final WireFormat format;
+	/**
+	 * The token identifying the seat of this client, 0 when joined through a room.
+	 */
+	private final long token;
 	/**
 	 * The input from the host were game updates are received.
 	 */
-	private final ObjectInputStream input;
+	private volatile WireFormat.Reader input;
 	/**
 	 * The output to the host where requests are sent through.
 	 */
-	private final ObjectOutputStream output;
+	private volatile WireFormat.Writer output;
+	/**
+	 * Serializes sending commands and replacing the connection.
+	 * Not a monitor, as blocking in a monitor would pin the carrier of the virtual heartbeat thread.
+	 */
+	private final Lock connectionLock = new ReentrantLock();
 
 
 	/**
@@ -36,12 +79,69 @@ public class SocketClient extends Client {
 	 * @throws IOException If an error occurred when trying to establish the connection.
 	 */
 	public SocketClient(@NotNull String host, int hostPort) throws IOException {
+		this(host, hostPort, null, WireFormat.JAVA);
+	}
+
+	/**
+	 * Creates a new client that is connected to the host and exchanges messages in the given format.
+	 *
+	 * @param host     The hostname of the server.
+	 * @param hostPort The port to connect to.
+	 * @param format   The format the server uses.
+	 * @throws IOException If an error occurred when trying to establish the connection.
+	 */
+	public SocketClient(@NotNull String host, int hostPort, @NotNull WireFormat format) throws IOException {
+		this(host, hostPort, null, format);
+	}
+
+	/**
+	 * Creates a new client that joins a room of a {@link eu.tgx03.uno.server.GameHost}.
+	 *
+	 * @param host     The hostname of the server.
+	 * @param hostPort The port to connect to.
+	 * @param room     The ID of the room to join.
+	 * @throws IOException If an error occurred when trying to establish the connection.
+	 */
+	public SocketClient(@NotNull String host, int hostPort, int room) throws IOException {
+		this(host, hostPort, room, WireFormat.JAVA);
+	}
+
+	/**
+	 * Creates a new client and joins the given room if one is provided.
+	 *
+	 * @param host     The hostname of the server.
+	 * @param hostPort The port to connect to.
+	 * @param room     The ID of the room to join or null when connecting to a single game server.
+	 * @param format   The format the server uses.
+	 * @throws IOException If an error occurred when trying to establish the connection.
+	 */
+	private SocketClient(@NotNull String host, int hostPort, @Nullable Integer room, @NotNull WireFormat format) throws IOException {
+		this.host = host;
+		this.hostPort = hostPort;
+		this.format = format;
 		@SuppressWarnings("resource") Socket socket = new Socket(host, hostPort);
-		output = new ObjectOutputStream(socket.getOutputStream());
-		input = new ObjectInputStream(socket.getInputStream());
+		socket.setTcpNoDelay(true);
+		if (room != null) {
+			new DataOutputStream(socket.getOutputStream()).writeInt(room);
+			token = 0;
+		} else token = handshake(socket, 0);
+		output = format.writer(socket.getOutputStream());
+		input = format.reader(socket.getInputStream());
 		Thread thread = new Thread(this, "Client-Receiver");
 		thread.setDaemon(true);
 		thread.start();
+
+		// Tell the host now and then that this client is still there
+		Thread.ofVirtual().name("Client-Heartbeat").start(() -> {
+			Command ping = new Command(Command.CommandType.PING, -1);
+			while (!ended) {
+				try {
+					Thread.sleep(HEARTBEAT);
+					if (!ended) sendCommand(ping);
+				} catch (IOException | InterruptedException ignored) {   // The receiver deals with broken connections
+				}
+			}
+		});
 	}
 
 	/**
@@ -49,19 +149,109 @@ public class SocketClient extends Client {
 	 * The client actually only shuts down when either a new update is received
 	 * or an error occurs during last transmission.
 	 */
-	public synchronized void kill() {
-		super.kill();
+	public void kill() {
+		connectionLock.lock();
 		try {
+			super.kill();
 			input.close();
 		} catch (IOException e) {
 			throw new UncheckedIOException(e);
+		} finally {
+			connectionLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the token identifying the seat of this client.
+	 *
+	 * @return The session token or 0 if this client joined through a room.
+	 */
+	public long getSessionToken() {
+		return token;
+	}
+
+	/**
+	 * Replaces the connection to the host by a new one, reclaiming the seat of this client.
+	 * The host answers with a full update of the current state.
+	 *
+	 * @throws IOException           If the new connection couldn't be established or the host rejected the token.
+	 * @throws IllegalStateException If this client joined through a room and therefore has no session token.
+	 */
+	public void reconnect() throws IOException {
+		if (token == 0) throw new IllegalStateException("No session to resume");
+		connectionLock.lock();
+		@SuppressWarnings("resource") Socket socket = null;
+		try {
+			socket = new Socket(host, hostPort);
+			socket.setTcpNoDelay(true);
+			handshake(socket, token);
+			WireFormat.Writer output = format.writer(socket.getOutputStream());
+			WireFormat.Reader input = format.reader(socket.getInputStream());
+			WireFormat.Reader previous = this.input;
+			this.output.close();
+			this.output = output;
+			this.input = input;
+			previous.close();
+		} catch (IOException e) {
+			if (socket != null) socket.close();
+			throw e;
+		} finally {
+			connectionLock.unlock();
 		}
 	}
 
+	/**
+	 * Exchanges the session token with a single game server.
+	 *
+	 * @param socket The new connection.
+	 * @param token  The token of the seat to reclaim or 0 to join.
+	 * @return The token of the seat.
+	 * @throws IOException If the host rejected the connection.
+	 */
+	private static long handshake(@NotNull Socket socket, long token) throws IOException {
+		DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+		out.writeLong(token);
+		out.flush();
+		long answer = new DataInputStream(socket.getInputStream()).readLong();
+		if (answer == 0) {
+			socket.close();
+			throw new IOException(token == 0 ? "The game has already started" : "Unknown session");
+		}
+		return answer;
+	}
+
+	/**
+	 * Tries to reestablish a broken connection a few times.
+	 *
+	 * @param broken The reader of the broken connection.
+	 * @return Whether a working connection exists again.
+	 */
+	private boolean recover(@NotNull WireFormat.Reader broken) {
+		if (token == 0) return false;
+		for (int attempt = 0; attempt < RECONNECT_ATTEMPTS && !ended; attempt++) {
+			if (input != broken) return true;  // Someone else already reconnected
+			try {
+				reconnect();
+				return true;
+			} catch (IOException e) {
+				try {
+					Thread.sleep(RECONNECT_DELAY);
+				} catch (InterruptedException ignored) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
 	@Override
 	protected void sendCommand(@NotNull Command command) throws IOException {
-		output.reset();
-		output.writeObject(command);
+		connectionLock.lock();
+		try {
+			output.write(command);   // Commands also get sent by the heartbeat and the receiver
+		} finally {
+			connectionLock.unlock();
+		}
 	}
 
 	/**
@@ -70,17 +260,27 @@ public class SocketClient extends Client {
 	@Override
 	public void run() {
 		do {
+			WireFormat.Reader input = this.input;
 			try {
-				Update update = (Update) input.readObject();
-				this.update(update);
-				if (update.ended) {
+				Object message = input.read();
+				Update update;
+				if (message instanceof CommandResult result) {
+					this.result(result);
+					continue;
+				} else if (message instanceof UpdateDelta delta) update = this.update(delta);
+				else this.update(update = (Update) message);
+				if (update != null && update.ended) {
 					ended = true;
 				}
-			} catch (IOException | ClassCastException | ClassNotFoundException e) {
+			} catch (IOException e) {
+				if (ended) break;
+				handleException(e);
+				if (!recover(input)) break;
+			} catch (ClassCastException | ClassNotFoundException e) {
 				if (!ended) handleException(e);
 			}
 		} while (!ended);
-		System.out.println("Shutting down client thread");
+		LOG.log(Level.DEBUG, "Shutting down client thread");
 	}
 
 	@Override
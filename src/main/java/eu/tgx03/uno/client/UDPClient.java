@@ -1,19 +1,31 @@
 package eu.tgx03.uno.client;
 
+import eu.tgx03.uno.messaging.BinaryCodec;
 import eu.tgx03.uno.messaging.Command;
+import eu.tgx03.uno.messaging.CommandResult;
+import eu.tgx03.uno.messaging.DatagramProtocol;
 import eu.tgx03.uno.messaging.Update;
+import eu.tgx03.uno.messaging.WireFormat;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.*;
+import java.io.IOException;
 import java.net.DatagramPacket;
 import java.net.DatagramSocket;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Queue;
 
 /**
  * An implementation of a Client for UNO using UDP datagrams.
+ * Lost datagrams get handled as described in {@link DatagramProtocol}.
+ * If the server stays silent while commands are pending, the client resumes its session,
+ * in case its address changed on the way.
  */
 public class UDPClient extends Client {
 
@@ -25,11 +37,24 @@ public class UDPClient extends Client {
 	 * How long to sleep between keep-alive packets.
 	 */
 	private static final int NAT_SLEEP_MILLISECONDS = 1000; // TODO: Hasn't been tested
+	/**
+	 * How often to try registering with the server before giving up.
+	 */
+	private static final int REGISTER_ATTEMPTS = 10;
+	/**
+	 * How long to wait until acknowledgements get sent on their own
+	 * when no command was sent they could have been attached to.
+	 */
+	private static final int ACK_DELAY_MILLISECONDS = 20;
+	/**
+	 * How long the server may stay silent while commands are pending before the session gets resumed.
+	 */
+	private static final long RESUME_NANOS = 1_000_000_000L;
 
 	/**
 	 * The socket used to communicate with the server.
 	 */
-	private final DatagramSocket socket;
+	private volatile DatagramSocket socket;
 	/**
 	 * The address of the game server.
 	 */
@@ -38,6 +63,58 @@ public class UDPClient extends Client {
 	 * The ID assigned to this client.
 	 */
 	private final short id;
+	/**
+	 * The token needed to resume the session.
+	 */
+	private final long token;
+	/**
+	 * The format commands and updates get encoded in.
+	 */
+	private final WireFormat format;
+	/**
+	 * The buffer outgoing datagrams get assembled in.
+	 * Guarded by this client.
+	 */
+	private final ByteBuffer sendBuffer = ByteBuffer.allocate(1 << 16);
+	/**
+	 * Collects the fragments of the updates.
+	 * Guarded by this client.
+	 */
+	private final DatagramProtocol.Reassembler reassembler = new DatagramProtocol.Reassembler();
+	/**
+	 * The commands the server hasn't acknowledged yet.
+	 * Guarded by this client.
+	 */
+	private final Queue<PendingCommand> unacknowledged = new ArrayDeque<>();
+	/**
+	 * The sequence number of the next command.
+	 * Guarded by this client.
+	 */
+	private int nextCommand = 0;
+	/**
+	 * The sequence number of the newest update given to the receivers.
+	 */
+	private int applied = -1;
+	/**
+	 * Whether fragments have been received which haven't been acknowledged yet.
+	 * Guarded by this client.
+	 */
+	private boolean ackPending = false;
+	/**
+	 * When the last datagram from the server arrived or the session has last been resumed.
+	 * Guarded by this client.
+	 */
+	private long lastHeard = System.nanoTime();
+	/**
+	 * Whether the session has been resumed and the server hasn't answered yet.
+	 * Guarded by this client.
+	 */
+	private boolean resuming = false;
+	/**
+	 * When the last datagram has been sent to the server.
+	 * Guarded by this client.
+	 */
+	private long lastSent = System.nanoTime();
 
 	/**
 	 * Creates a new UDP client and directly registers it with the server.
@@ -48,15 +125,37 @@ public class UDPClient extends Client {
 	 * @throws IOException Gets thrown when communication with the server could not be established.
 	 */
 	public UDPClient(@NotNull String hostname, int port, boolean nat) throws IOException {
+		this(hostname, port, nat, WireFormat.JAVA);
+	}
+
+	/**
+	 * Creates a new UDP client exchanging messages in the given format and directly registers it with the server.
+	 *
+	 * @param hostname The hostname of the game server.
+	 * @param port     The port to contact the server on.
+	 * @param nat      Whether NAT is in place and shall be dealt with.
+	 * @param format   The format the server uses.
+	 * @throws IOException Gets thrown when communication with the server could not be established.
+	 */
+	public UDPClient(@NotNull String hostname, int port, boolean nat, @NotNull WireFormat format) throws IOException {
+		this.format = format;
 		socket = new DatagramSocket();
 		remoteAddress = new InetSocketAddress(hostname, port);
 		socket.connect(remoteAddress);
-		DatagramPacket request = new DatagramPacket(REGISTER, REGISTER.length, remoteAddress);
-		socket.send(request);
-		byte[] buffer = new byte[2];
-		DatagramPacket reply = new DatagramPacket(buffer, 2);
-		socket.receive(reply);
-		id = ByteBuffer.wrap(buffer).getShort();
+		ByteBuffer registration = register();
+		id = registration.getShort();
+		token = registration.getLong();
+
+		// Repeat lost commands and acknowledge updates no command was sent for
+		Thread.ofVirtual().name("UDPClient-Retransmit").start(() -> {
+			while (!ended) {
+				try {
+					Thread.sleep(ACK_DELAY_MILLISECONDS);
+					retransmit();
+				} catch (IOException | InterruptedException ignored) {
+				}
+			}
+		});
 
 		// Create the UDP hole puncher
 		if (nat) {
@@ -65,7 +164,7 @@ public class UDPClient extends Client {
 				while (!ended) {
 					try {
 						Thread.sleep(NAT_SLEEP_MILLISECONDS);
-						socket.send(packet);
+						this.socket.send(packet);
 					} catch (IOException | InterruptedException ignored) {
 					}
 				}
@@ -73,34 +172,227 @@ public class UDPClient extends Client {
 		}
 	}
 
+	/**
+	 * Requests an ID and session token from the server, repeating the request if no answer arrives.
+	 *
+	 * @return The assigned ID followed by the session token.
+	 * @throws IOException When the server didn't answer.
+	 */
+	@NotNull
+	private ByteBuffer register() throws IOException {
+		DatagramPacket request = new DatagramPacket(REGISTER, REGISTER.length, remoteAddress);
+		byte[] buffer = new byte[2 + 8];
+		DatagramPacket reply = new DatagramPacket(buffer, buffer.length);
+		socket.setSoTimeout((int) (DatagramProtocol.RETRANSMIT_NANOS / 1_000_000) * 5);
+		try {
+			for (int attempt = 1; ; attempt++) {
+				socket.send(request);
+				try {
+					socket.receive(reply);
+					if (reply.getLength() == buffer.length) return ByteBuffer.wrap(buffer);
+				} catch (SocketTimeoutException e) {
+					if (attempt == REGISTER_ATTEMPTS) throw e;
+				}
+			}
+		} finally {
+			socket.setSoTimeout(0);
+		}
+	}
+
 	@Override
 	public void kill() {
 		super.kill();
 		socket.close();
 	}
 
+	/**
+	 * Continues the session through a new socket, for example after the network changed.
+	 * The server rebinds the session to the new address and repeats the latest update.
+	 *
+	 * @throws IOException When the new socket couldn't be set up.
+	 */
+	public void reconnect() throws IOException {
+		DatagramSocket socket = new DatagramSocket();
+		socket.connect(remoteAddress);
+		DatagramSocket previous;
+		synchronized (this) {
+			previous = this.socket;
+			this.socket = socket;
+			resume();
+		}
+		previous.close();
+	}
+
+	/**
+	 * Returns the token needed to resume the session of this client.
+	 *
+	 * @return The session token.
+	 */
+	public long getSessionToken() {
+		return token;
+	}
+
+	/**
+	 * Asks the server to continue the session from the current address.
+	 *
+	 * @throws IOException When sending failed.
+	 */
+	private void resume() throws IOException {
+		writeHeader(DatagramProtocol.RESUME).putLong(token);
+		send();
+		lastHeard = System.nanoTime();
+		resuming = true;
+	}
+
 	@Override
-	protected void sendCommand(@NotNull Command command) throws IOException {
-		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-		ObjectOutputStream out = new ObjectOutputStream(bytes);
-		out.writeShort(id);
-		out.writeObject(command);
-		DatagramPacket packet = new DatagramPacket(bytes.toByteArray(), bytes.size(), remoteAddress);
-		socket.send(packet);
+	protected synchronized void sendCommand(@NotNull Command command) throws IOException {
+		ByteBuffer message = format.encode(command, BinaryCodec.POOL);
+		byte[] bytes = new byte[message.remaining()];
+		message.get(bytes);
+		BinaryCodec.POOL.release(message);
+		PendingCommand pending = new PendingCommand(nextCommand++, bytes);
+		unacknowledged.add(pending);
+		transmit(pending);
+	}
+
+	/**
+	 * Sends a command together with the acknowledgement of the latest update.
+	 *
+	 * @param command The command to send.
+	 * @throws IOException When sending failed.
+	 */
+	private void transmit(@NotNull PendingCommand command) throws IOException {
+		writeHeader(DatagramProtocol.COMMAND).putInt(command.sequence).put(command.message);
+		send();
+		command.sentAt = System.nanoTime();
+	}
+
+	/**
+	 * Repeats the commands which haven't been acknowledged in time
+	 * and sends the acknowledgement of the latest update, if no command took it along.
+	 *
+	 * @throws IOException When sending failed.
+	 */
+	private synchronized void retransmit() throws IOException {
+		long now = System.nanoTime();
+		PendingCommand first = unacknowledged.peek();
+		if ((first != null && now - lastHeard >= RESUME_NANOS) || (resuming && now - lastHeard >= DatagramProtocol.RETRANSMIT_NANOS)) {
+			resume();
+		}
+		if (first != null && now - first.sentAt >= DatagramProtocol.RETRANSMIT_NANOS) {
+			for (PendingCommand command : unacknowledged) transmit(command);
+		}
+		if (ackPending || now - lastSent >= HEARTBEAT.toNanos()) {   // Also tells the server this client is still there
+			writeHeader(DatagramProtocol.ACK);
+			send();
+		}
+	}
+
+	/**
+	 * Starts a new datagram in the send buffer.
+	 * Every datagram acknowledges the received fragments of the latest update.
+	 *
+	 * @param kind The kind of datagram.
+	 * @return The send buffer.
+	 */
+	@NotNull
+	private ByteBuffer writeHeader(byte kind) {
+		ackPending = false;
+		return sendBuffer.clear().putShort(id).put(kind).putInt(reassembler.sequence()).putLong(reassembler.received());
+	}
+
+	/**
+	 * Sends the datagram assembled in the send buffer.
+	 *
+	 * @throws IOException When sending failed.
+	 */
+	private void send() throws IOException {
+		socket.send(new DatagramPacket(sendBuffer.array(), sendBuffer.position(), remoteAddress));
+		lastSent = System.nanoTime();
 	}
 
 	@Override
 	public void run() {
+		byte[] buf = new byte[1 << 16];
+		DatagramPacket packet = new DatagramPacket(buf, buf.length);
 		while (!ended) {
-			byte[] buf = new byte[1 << 16];
-			DatagramPacket packet = new DatagramPacket(buf, 1 << 16);
+			packet.setLength(buf.length);
 			try {
-				socket.receive(packet);
-				ByteArrayInputStream in = new ByteArrayInputStream(packet.getData(), 0, packet.getLength());
-				Update update = (Update) new ObjectInputStream(in).readObject();
-				super.update(update);
-			} catch (IOException | ClassNotFoundException | ClassCastException ignored) {
+				socket.receive(packet);    // Picks up the new socket after a reconnect
+				Object message = receive(ByteBuffer.wrap(buf, 0, packet.getLength()));
+				if (message instanceof CommandResult result) super.result(result);
+				else if (message instanceof Update update) {
+					super.update(update);
+					if (update.ended) {
+						synchronized (this) {
+							writeHeader(DatagramProtocol.ACK);
+							send();
+						}
+						ended = true;
+					}
+				}
+			} catch (IOException | ClassNotFoundException | ClassCastException | BufferUnderflowException ignored) {
 			}
 		}
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Processes a received datagram.
+	 *
+	 * @param datagram The content of the datagram.
+	 * @return The newest update, if the datagram completed one, or the result of a command.
+	 * @throws IOException            When the update couldn't be decoded.
+	 * @throws ClassNotFoundException When a serialized class is unknown.
+	 */
+	@Nullable
+	private synchronized Object receive(@NotNull ByteBuffer datagram) throws IOException, ClassNotFoundException {
+		lastHeard = System.nanoTime();
+		resuming = false;
+		byte kind = datagram.get();
+		int acknowledged = datagram.getInt();
+		while (!unacknowledged.isEmpty() && unacknowledged.peek().sequence <= acknowledged) {
+			unacknowledged.poll();
+		}
+		if (kind == DatagramProtocol.RESULT) return format.decode(datagram);
+		if (kind != DatagramProtocol.UPDATE) return null;
+
+		int sequence = datagram.getInt();
+		int index = datagram.get();
+		int fragments = datagram.get();
+		ByteBuffer message = reassembler.accept(sequence, index, fragments, datagram);
+		ackPending = true;
+		if (message == null || sequence <= applied) return null;
+		applied = sequence;
+		return format.decode(message);
+	}
+
+	/**
+	 * A command waiting to be acknowledged.
+	 */
+	private static class PendingCommand {
+
+		/**
+		 * The sequence number of the command.
+		 */
+		private final int sequence;
+		/**
+		 * The encoded command.
+		 */
+		private final byte[] message;
+		/**
+		 * When the command has last been sent.
+		 */
+		private long sentAt;
+
+		/**
+		 * Creates a new pending command.
+		 *
+		 * @param sequence The sequence number of the command.
+		 * @param message  The encoded command.
+		 */
+		private PendingCommand(int sequence, byte @NotNull [] message) {
+			this.sequence = sequence;
+			this.message = message;
+		}
+	}
+}
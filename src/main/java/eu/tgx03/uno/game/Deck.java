@@ -0,0 +1,132 @@
+package eu.tgx03.uno.game;
+
+import eu.tgx03.uno.game.cards.Card;
+import eu.tgx03.uno.game.cards.ChooseColor;
+import eu.tgx03.uno.game.cards.Color;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.SplittableRandom;
+
+/**
+ * The deck of a single game, consisting of the draw pile and the discard pile.
+ * Cards are stored as their codes, so drawing and discarding doesn't allocate.
+ * Once the draw pile runs out, the discard pile gets shuffled and becomes the new draw pile.
+ * This class is not thread safe, it's expected to be guarded by the game it belongs to.
+ */
+public class Deck {
+
+	/**
+	 * The number generator of this deck.
+	 */
+	private final SplittableRandom random;
+	/**
+	 * The codes of the cards in the draw pile. The top of the pile is at the end.
+	 */
+	private byte[] drawPile;
+	/**
+	 * How many cards are left in the draw pile.
+	 */
+	private int drawCount;
+	/**
+	 * The codes of the cards in the discard pile.
+	 */
+	private byte[] discardPile;
+	/**
+	 * How many cards are in the discard pile.
+	 */
+	private int discardCount = 0;
+
+	/**
+	 * Creates a new shuffled deck.
+	 *
+	 * @param seed The seed for shuffling this deck.
+	 */
+	public Deck(long seed) {
+		this.random = new SplittableRandom(seed);
+		this.drawPile = Card.deckCodes();
+		this.drawCount = drawPile.length;
+		this.discardPile = new byte[drawPile.length];
+		shuffle(drawPile, drawCount);
+	}
+
+	/**
+	 * Takes the card on top of the draw pile.
+	 * If the draw pile is empty, the discard pile gets shuffled into it first.
+	 * If all cards are in the hands of the players, another deck gets added.
+	 *
+	 * @return The drawn card.
+	 */
+	@NotNull
+	public Card draw() {
+		if (drawCount == 0) refill();
+		return Card.byCode(drawPile[--drawCount]);
+	}
+
+	/**
+	 * Puts a card on the discard pile.
+	 * Wildcards lose their selected color.
+	 *
+	 * @param card The card to discard.
+	 */
+	public void discard(@NotNull Card card) {
+		if (card instanceof ChooseColor cc) card = cc.withColor(Color.BLACK);
+		if (discardCount == discardPile.length) {
+			byte[] grown = new byte[discardPile.length + Card.DECK_SIZE];
+			System.arraycopy(discardPile, 0, grown, 0, discardCount);
+			discardPile = grown;
+		}
+		discardPile[discardCount++] = (byte) card.code();
+	}
+
+	/**
+	 * How many cards are left in the draw pile.
+	 *
+	 * @return The size of the draw pile.
+	 */
+	public int remaining() {
+		return drawCount;
+	}
+
+	/**
+	 * Returns a random number from the generator of this deck.
+	 *
+	 * @param bound The exclusive upper bound.
+	 * @return A number between 0 and the bound.
+	 */
+	int nextInt(int bound) {
+		return random.nextInt(bound);
+	}
+
+	/**
+	 * Turns the discard pile into the new draw pile.
+	 * When the discard pile is empty as well, a new deck gets used.
+	 */
+	private void refill() {
+		if (discardCount == 0) {
+			drawPile = Card.deckCodes();
+			drawCount = drawPile.length;
+		} else {
+			byte[] oldDraw = drawPile;
+			drawPile = discardPile;
+			drawCount = discardCount;
+			discardPile = oldDraw.length >= drawPile.length ? oldDraw : new byte[drawPile.length];
+			discardCount = 0;
+		}
+		shuffle(drawPile, drawCount);
+	}
+
+	/**
+	 * Shuffles the first elements of an array using Fisher-Yates.
+	 *
+	 * @param cards The array to shuffle.
+	 * @param count How many elements to shuffle.
+	 */
+	private void shuffle(byte @NotNull [] cards, int count) {
+		for (int i = count - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			byte swap = cards[i];
+			cards[i] = cards[j];
+			cards[j] = swap;
+		}
+	}
+}
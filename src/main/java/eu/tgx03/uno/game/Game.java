@@ -8,9 +8,12 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Arrays;
 import java.util.Objects;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 /**
  * A class representing a game of Uno.
@@ -20,15 +23,41 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class Game {
 
+	/**
+	 * How many moves {@link #legalMoves(int, int[])} may return at most.
+	 * One for every distinct card, one jump, accepting and taking a card.
+	 */
+	public static final int MAX_MOVES = Card.CARD_TYPES + 3;
+
 	/**
 	 * How many cards each player gets at the start of a round.
 	 */
 	private static final int INITIAL_CARDS = 7;
+	/**
+	 * The mask of all the wildcards that don't have a color yet.
+	 */
+	private static final long UNCOLORED;
+
+	static {
+		long uncolored = 0;
+		for (int code = 0; code < Card.CARD_TYPES; code++) {
+			Card card = Card.byCode(code);
+			if (card.color() == Color.BLACK) uncolored |= card.bit();
+		}
+		UNCOLORED = uncolored;
+	}
 
 	/**
 	 * This lock can be used to synchronize on a game externally, as synchronized blocks are avoided for virtual threads.
+	 * Once the game is driven by a {@link GameActor}, commands no longer take this lock.
 	 */
 	public final Lock gameLock = new ReentrantLock(true);
+	/**
+	 * The lock every command is executed under.
+	 * This is the game lock, possibly timed through a {@link LockListener},
+	 * unless the game is driven by an actor, in which case it only checks the calling thread.
+	 */
+	private volatile Lock commandLock = gameLock;
 
 	/**
 	 * ALl the players in this game.
@@ -38,6 +67,10 @@ public class Game {
 	 * The rules that apply to this game
 	 */
 	private final Rules rules;
+	/**
+	 * The draw and discard pile of this game.
+	 */
+	private final Deck deck;
 	/**
 	 * The card currently on top of the pile.
 	 */
@@ -54,6 +87,14 @@ public class Game {
 	 * How many cards are currently to be picked up once a player accepts a penalty.
 	 */
 	private int stack = 0;
+	/**
+	 * The state of this game after the last successful command.
+	 */
+	private volatile GameSnapshot snapshot;
+	/**
+	 * The modification counts of the hands in the current snapshot.
+	 */
+	private final int[] snapshotModifications;
 
 	/**
 	 * Creates a new game of UNO.
@@ -63,26 +104,45 @@ public class Game {
 	 * @param rules       The selected rules this game should be played with.
 	 */
 	public Game(int playerCount, @Nullable Rules rules) {
+		this(playerCount, rules, ThreadLocalRandom.current().nextLong());
+	}
+
+	/**
+	 * Creates a new game of UNO with a deck shuffled from the given seed.
+	 * If null rules are supplied, everything is disabled.
+	 *
+	 * @param playerCount The number of players in this game.
+	 * @param rules       The selected rules this game should be played with.
+	 * @param seed        The seed for shuffling the deck of this game.
+	 */
+	public Game(int playerCount, @Nullable Rules rules, long seed) {
 
 		// Store the rules
 		if (rules != null) this.rules = rules;
 		else this.rules = new Rules();
 
-		top = Card.generateCard();
+		deck = new Deck(seed);
+		top = deck.draw();
 		if (top.color() == Color.BLACK) {   // If the top card is a color chooser, randomly select a color.
-			byte colorValue = (byte) (new Random().nextInt(4) + 1);
-			((ChooseColor) this.top).setColor(Color.getByValue(colorValue));
+			byte colorValue = (byte) (deck.nextInt(4) + 1);
+			top = ((ChooseColor) this.top).withColor(Color.getByValue(colorValue));
 		}
 
 		// Initialize the players with their cards
 		players = new Player[playerCount];
 		for (int i = 0; i < playerCount; i++) {
-			players[i] = new Player(INITIAL_CARDS);
+			players[i] = new Player();
+			for (int j = 0; j < INITIAL_CARDS; j++) {
+				players[i].giveCard(deck.draw());
+			}
 			players[i].updateTop(top);
 		}
 
 		// Test for the various penalties that will apply to the first player
 		applyPenalties();
+
+		snapshotModifications = new int[playerCount];
+		publish();
 	}
 
 	/**
@@ -93,13 +153,15 @@ public class Game {
 	 * @return Whether the current player did play this card.
 	 */
 	public boolean playCard(int playerNumber, int cardNumber) {
-		gameLock.lock();
+		Lock lock = commandLock;
+		lock.lock();
 		try {
 			if (currentPlayer != playerNumber) return false;
-			if (stack > 0) return mustStack(cardNumber);
-			else return normalPlay(cardNumber);
+			boolean result = stack > 0 ? mustStack(cardNumber) : normalPlay(cardNumber);
+			if (result) publish();
+			return result;
 		} finally {
-			gameLock.unlock();
+			lock.unlock();
 		}
 	}
 
@@ -112,7 +174,8 @@ public class Game {
 	 * @return Whether the move was executed.
 	 */
 	public boolean jump(int player, int cardNumber) {
-		gameLock.lock();
+		Lock lock = commandLock;
+		lock.lock();
 		try {
 			// Directly return if jumping is forbidden
 			if (!rules.jumping) return false;
@@ -121,15 +184,16 @@ public class Game {
 			Card played = players[player].jumpCard(cardNumber);
 			if (played == null) return false;
 			currentPlayer = player;
-			top = played;
+			placeOnTop(played);
 
 			// Update
 			updateTop();
 			applyPenalties();
 			nextPlayer();
+			publish();
 			return true;
 		} finally {
-			gameLock.unlock();
+			lock.unlock();
 		}
 	}
 
@@ -140,7 +204,8 @@ public class Game {
 	 */
 	public boolean acceptCards(int playerNumber) {
 
-		gameLock.lock();
+		Lock lock = commandLock;
+		lock.lock();
 
 		try {
 			// Directly return if there currently is no penalty
@@ -148,15 +213,16 @@ public class Game {
 
 			// Pick up the cards
 			for (int i = 0; i < stack; i++) {
-				players[currentPlayer].drawCard();
+				players[currentPlayer].giveCard(deck.draw());
 			}
 
 			// Update
 			nextPlayer();
 			stack = 0;
+			publish();
 			return true;
 		} finally {
-			gameLock.unlock();
+			lock.unlock();
 		}
 	}
 
@@ -164,25 +230,132 @@ public class Game {
 	 * The current player picks up a card.
 	 */
 	public boolean takeCard(int playerNumber) {
-		gameLock.lock();
+		Lock lock = commandLock;
+		lock.lock();
 		try {
 			if (playerNumber != currentPlayer) return false;
-			players[currentPlayer].drawCard();
+			players[currentPlayer].giveCard(deck.draw());
 			if (!rules.forceContinue) {
 				nextPlayer();
 			}
+			publish();
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * The current player ends their turn without playing a card, for example when the turn took too long.
+	 * Not possible while a penalty is stacked, as it has to be accepted instead.
+	 *
+	 * @param playerNumber The player giving up their turn.
+	 * @return Whether the turn went on to the next player.
+	 */
+	public boolean forfeitTurn(int playerNumber) {
+		Lock lock = commandLock;
+		lock.lock();
+		try {
+			if (stack > 0 || currentPlayer != playerNumber) return false;
+			nextPlayer();
+			publish();
 			return true;
 		} finally {
-			gameLock.unlock();
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Executes a move encoded as described in {@link Move}.
+	 *
+	 * @param player The player making the move.
+	 * @param move   The encoded move.
+	 * @return Whether the move was executed.
+	 */
+	public boolean apply(int player, int move) {
+		return switch (Move.kind(move)) {
+			case Move.NORMAL, Move.STACK -> playCard(player, Move.cardNumber(move));
+			case Move.JUMP -> jump(player, Move.cardNumber(move));
+			case Move.ACCEPT -> acceptCards(player);
+			case Move.TAKE -> takeCard(player);
+			default -> false;
+		};
+	}
+
+	/**
+	 * Executes several encoded moves of a player one after another, see {@link #batch(Function)}.
+	 *
+	 * @param player The player making the moves.
+	 * @param moves  The encoded moves, in the order to execute them.
+	 * @return Whether each of the moves was executed.
+	 */
+	public boolean @NotNull [] apply(int player, int @NotNull ... moves) {
+		return batch(game -> {
+			boolean[] results = new boolean[moves.length];
+			for (int i = 0; i < moves.length; i++) {
+				results[i] = game.apply(player, moves[i]);
+			}
+			return results;
+		});
+	}
+
+	/**
+	 * Executes several commands as a single one.
+	 * The lock is only taken once, so no commands of other threads can get in between,
+	 * for example between selecting the color of a wildcard and playing it.
+	 * When driven by an actor this must run during a single turn of it, see {@link GameActor#submit(Function)}.
+	 *
+	 * @param commands Executes the commands on this game.
+	 * @param <T>      The type of the result.
+	 * @return The result of the commands.
+	 */
+	public <T> T batch(@NotNull Function<Game, T> commands) {
+		Lock lock = commandLock;
+		lock.lock();
+		try {
+			return commands.apply(this);
+		} finally {
+			lock.unlock();
 		}
 	}
 
+	/**
+	 * Selects the color a wildcard of a player shall represent.
+	 *
+	 * @param playerNumber The player holding the card.
+	 * @param cardNumber   The number of the wildcard.
+	 * @param color        The selected color.
+	 * @return Whether the color was selected.
+	 */
+	public boolean selectColor(int playerNumber, int cardNumber, @NotNull Color color) {
+		Lock lock = commandLock;
+		lock.lock();
+		try {
+			boolean result = players[playerNumber].selectColor(cardNumber, color);
+			if (result) publish();
+			return result;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the state of this game after the last successful command.
+	 * Can be read without holding any lock.
+	 *
+	 * @return The latest snapshot of this game.
+	 */
+	@NotNull
+	public GameSnapshot getSnapshot() {
+		return snapshot;
+	}
+
 	/**
 	 * How many cards are currently on the penalty stack.
 	 * @return How many cards are currently on the penalty stack.
 	 */
 	public int getStackSize() {
-		return this.stack;
+		return snapshot.getStackSize();
 	}
 
 	/**
@@ -191,7 +364,7 @@ public class Game {
 	 * @return The number of the current player.
 	 */
 	public int getCurrentPlayer() {
-		return this.currentPlayer;
+		return snapshot.getCurrentPlayer();
 	}
 
 	/**
@@ -205,19 +378,106 @@ public class Game {
 		return players[id];
 	}
 
+	/**
+	 * Returns all the different cards the given player could currently play the normal way.
+	 * Bit n of the mask is set when the card with code n is playable, see {@link Card#byCode(int)}.
+	 * While the game is driven by an actor, other threads get answered from the latest snapshot.
+	 *
+	 * @param id The number of the requested player.
+	 * @return The mask of playable cards.
+	 */
+	public long playableCards(int id) {
+		Lock lock = commandLock;
+		if (isForeign(lock)) {
+			GameSnapshot snapshot = this.snapshot;
+			return snapshot.getPlayer(id).heldCards() & Card.placeMask(snapshot.getTopCard());
+		}
+		lock.lock();
+		try {
+			return players[id].playableCards();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Writes all the moves the given player could currently make into the provided buffer.
+	 * The moves are encoded as described in {@link Move}.
+	 * Wildcards without a color are included if they would be legal once a color has been selected,
+	 * which can be checked with {@link Move#needsColor(int)}.
+	 * Neither allocates nor changes the state of the game.
+	 * While the game is driven by an actor, other threads get answered from the latest snapshot, which allocates a copy of the hand.
+	 *
+	 * @param player The number of the requested player.
+	 * @param out    The buffer to write the moves into, should have room for {@link #MAX_MOVES} moves.
+	 * @return How many moves were written.
+	 */
+	public int legalMoves(int player, int @NotNull [] out) {
+		Lock lock = commandLock;
+		if (isForeign(lock)) {
+			GameSnapshot snapshot = this.snapshot;
+			Player hand = snapshot.getPlayer(player);
+			hand.updateTop(snapshot.getTopCard());
+			return legalMoves(hand, player == snapshot.getCurrentPlayer(), snapshot.getStackSize(), snapshot.getTopCard(), out);
+		}
+		lock.lock();
+		try {
+			return legalMoves(players[player], player == currentPlayer, stack, top, out);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Writes all the moves a player could make in the given state into a buffer.
+	 *
+	 * @param hand    The player, knowing the card on top.
+	 * @param current Whether it's the turn of the player.
+	 * @param stack   How many cards are on the penalty stack.
+	 * @param top     The card on top of the pile.
+	 * @param out     The buffer to write the moves into.
+	 * @return How many moves were written.
+	 */
+	private int legalMoves(@NotNull Player hand, boolean current, int stack, @NotNull Card top, int @NotNull [] out) {
+		int count = 0;
+
+		// Throwing in is allowed for anyone
+		if (rules.jumping) {
+			count = addMoves(hand, hand.jumpableCards(), Move.JUMP, out, count);
+		}
+
+		if (current) {
+			if (stack > 0) {
+				if (rules.stacking) {
+					count = addMoves(hand, withWildcards(hand, Card.stackMask(top)), Move.STACK, out, count);
+				}
+				out[count++] = Move.encode(Move.ACCEPT);
+			} else {
+				count = addMoves(hand, withWildcards(hand, Card.placeMask(top)), Move.NORMAL, out, count);
+			}
+			out[count++] = Move.encode(Move.TAKE);
+		}
+		return count;
+	}
+
+	/**
+	 * Whether the game is driven by an actor running on another thread,
+	 * so the calling thread may only read the latest snapshot.
+	 *
+	 * @param lock The current command lock.
+	 * @return Whether the caller isn't the actor driving the game.
+	 */
+	private static boolean isForeign(@NotNull Lock lock) {
+		return lock instanceof OwnerLock owner && owner.owner() != Thread.currentThread();
+	}
+
 	/**
 	 * Get how many cards each player has.
 	 *
 	 * @return The card count of each player.
 	 */
 	public short @NotNull [] getCardCount() {
-		short[] count = new short[players.length];
-		gameLock.lock();
-		for (int i = 0; i < players.length; i++) {
-			count[i] = (short) players[i].cardCount();
-		}
-		gameLock.unlock();
-		return count;
+		return snapshot.getCardCount();
 	}
 
 	/**
@@ -225,15 +485,24 @@ public class Game {
 	 */
 	@NotNull
 	public Card getTopCard() {
-		return top;
+		return snapshot.getTopCard();
 	}
 
 	/**
-	 * Determines whether this game has finished by checking if any player still has some cards left.
+	 * Determines whether this game has finished because no player still has some cards left.
 	 *
 	 * @return If the game has finished.
 	 */
 	public boolean hasEnded() {
+		return snapshot.hasEnded();
+	}
+
+	/**
+	 * Determines whether all players have finished by checking if any player still has some cards left.
+	 *
+	 * @return Whether all players have finished.
+	 */
+	private boolean allFinished() {
 		for (Player player : players) {
 			if (!player.finished()) {
 				return false;
@@ -251,6 +520,84 @@ public class Game {
 		return players.length;
 	}
 
+	/**
+	 * Hands this game over to an actor.
+	 * Afterwards commands are only accepted from the thread of the actor and don't take the game lock anymore.
+	 *
+	 * @param owner The thread of the actor.
+	 * @throws IllegalStateException When the game is already driven by an actor.
+	 */
+	synchronized void attach(@NotNull Thread owner) {
+		if (commandLock instanceof OwnerLock) throw new IllegalStateException("Game is already driven by an actor");
+		commandLock = new OwnerLock(owner, commandLock);
+	}
+
+	/**
+	 * Takes this game back from an actor, so commands take the game lock again.
+	 * Does nothing if the game isn't driven by the given actor.
+	 *
+	 * @param owner The thread of the actor.
+	 */
+	synchronized void detach(@NotNull Thread owner) {
+		if (commandLock instanceof OwnerLock(Thread current, Lock previous) && current == owner) commandLock = previous;
+	}
+
+	/**
+	 * Reports how long commands wait for and hold the game lock.
+	 * Listeners can only be added before the game is driven by an actor, as actors don't take the game lock.
+	 *
+	 * @param listener The listener to report to, in addition to the ones already added.
+	 * @throws IllegalStateException When the game is driven by an actor.
+	 */
+	public synchronized void listen(@NotNull LockListener listener) {
+		switch (commandLock) {
+			case TimedLock timed -> timed.listener = timed.listener.andThen(listener);
+			case OwnerLock ignored -> throw new IllegalStateException("Game is driven by an actor");
+			default -> commandLock = new TimedLock(gameLock, listener);
+		}
+	}
+
+	/**
+	 * Restricts a mask of legal cards to the cards of a player and adds the wildcards without color
+	 * which would be legal once their color is selected.
+	 *
+	 * @param hand  The player whose cards shall be used.
+	 * @param legal The mask of all legal cards.
+	 * @return The legal cards of the player.
+	 */
+	private static long withWildcards(@NotNull Player hand, long legal) {
+		long held = hand.heldCards();
+		long result = held & legal;
+		long uncolored = held & UNCOLORED;
+		while (uncolored != 0) {
+			long bit = Long.lowestOneBit(uncolored);
+			uncolored ^= bit;
+			if ((((ChooseColor) Card.byCode(Long.numberOfTrailingZeros(bit))).coloredMask() & legal) != 0) result |= bit;
+		}
+		return result;
+	}
+
+	/**
+	 * Writes one move for each card in a mask into a buffer.
+	 *
+	 * @param hand  The player the cards belong to.
+	 * @param cards The mask of the cards to create moves for.
+	 * @param kind  The kind of the moves.
+	 * @param out   The buffer to write to.
+	 * @param count How many moves are already in the buffer.
+	 * @return How many moves are in the buffer afterwards.
+	 */
+	private static int addMoves(@NotNull Player hand, long cards, int kind, int @NotNull [] out, int count) {
+		int cardNumber = 0;
+		int end = Long.SIZE - Long.numberOfLeadingZeros(cards);
+		for (int code = 0; code < end; code++) {
+			Card card = Card.byCode(code);
+			if ((cards & card.bit()) != 0) out[count++] = Move.encode(kind, code, cardNumber);
+			cardNumber += hand.count(card);
+		}
+		return count;
+	}
+
 	/**
 	 * Plays a card the normal way without any penalties in the game.
 	 *
@@ -258,26 +605,20 @@ public class Game {
 	 * @return Whether the card was played.
 	 */
 	private boolean normalPlay(int cardNumber) {
-		gameLock.lock();
-		try {
-			// Play the cards
-			Card played = players[currentPlayer].playCard(cardNumber);
-			if (played == null) return false;
-			// Check whether a black card got played by accident and return it if so
-			if (played.color() == Color.BLACK) {
-				players[currentPlayer].giveCard(cardNumber, played);
-				return false;
-			}
-			top = played;
+		// Check whether a black card got played by accident
+		Card card = players[currentPlayer].getCard(cardNumber);
+		if (card == null || card.color() == Color.BLACK) return false;
 
-			// Update
-			updateTop();
-			applyPenalties();
-			nextPlayer();
-			return true;
-		} finally {
-			gameLock.unlock();
-		}
+		// Play the cards
+		Card played = players[currentPlayer].playCard(cardNumber);
+		if (played == null) return false;
+		placeOnTop(played);
+
+		// Update
+		updateTop();
+		applyPenalties();
+		nextPlayer();
+		return true;
 	}
 
 	/**
@@ -287,75 +628,75 @@ public class Game {
 	 * @return Whether it was successful.
 	 */
 	private boolean mustStack(int cardNumber) {
-		gameLock.lock();
-		try {
-			// Already return false if stacking is forbidden
-			if (!rules.stacking) {
-				return false;
-			}
-
-			// Try to play card and check whether it's the correct type of card to stack
-			Card played = players[currentPlayer].playCard(cardNumber);
-			if (played == null) return false;
-			if (played.penalty() != 0 && top.penalty() == played.penalty()) {
-				top = played;
-				updateTop();
-				applyPenalties();
-				nextPlayer();
-				return true;
-			} else {
-				players[currentPlayer].giveCard(cardNumber, played);
-				return false;
-			}
-		} finally {
-			gameLock.unlock();
+		// Already return false if stacking is forbidden
+		if (!rules.stacking) {
+			return false;
 		}
+
+		// Check whether it's the correct type of card to stack and try to play it
+		Card card = players[currentPlayer].getCard(cardNumber);
+		if (card == null || card.penalty() == 0 || top.penalty() != card.penalty()) return false;
+		Card played = players[currentPlayer].playCard(cardNumber);
+		if (played == null) return false;
+		placeOnTop(played);
+		updateTop();
+		applyPenalties();
+		nextPlayer();
+		return true;
 	}
 
 	/**
 	 * Go to the next player.
 	 */
 	private void nextPlayer() {
-		gameLock.lock();
-		try {
-			if (!this.hasEnded()) {
-				if (reversed) {
-					do {
-						currentPlayer--;
-						if (currentPlayer < 0) currentPlayer = players.length - 1;
-					} while (players[currentPlayer].finished());
-				} else {
-					do {
-						currentPlayer++;
-						if (currentPlayer >= players.length) currentPlayer = 0;
-					} while (players[currentPlayer].finished());
-				}
+		if (!this.allFinished()) {
+			if (reversed) {
+				do {
+					currentPlayer--;
+					if (currentPlayer < 0) currentPlayer = players.length - 1;
+				} while (players[currentPlayer].finished());
+			} else {
+				do {
+					currentPlayer++;
+					if (currentPlayer >= players.length) currentPlayer = 0;
+				} while (players[currentPlayer].finished());
 			}
-		} finally {
-			gameLock.unlock();
 		}
 	}
 
 	/**
 	 * Apply the penalties in accordance with the card currently lying on top.
 	 */
-	private synchronized void applyPenalties() {
-		gameLock.lock();
+	private void applyPenalties() {
 		stack = stack + top.penalty();
 		reversed = top.changesDirection() != reversed;  // This was a simplification provided by IntelliJ, hope it works
 		if (top.skipNextPlayer()) nextPlayer();
-		gameLock.unlock();
+	}
+
+	/**
+	 * Publishes the current state of this game as a new snapshot.
+	 */
+	private void publish() {
+		snapshot = GameSnapshot.next(snapshot, snapshotModifications, players, top, currentPlayer, stack, allFinished());
+	}
+
+	/**
+	 * Puts a card on top of the pile and moves the previous one to the discard pile.
+	 *
+	 * @param card The new top card.
+	 */
+	private void placeOnTop(@NotNull Card card) {
+		deck.discard(top);
+		top = card;
 	}
 
 	/**
 	 * Give the new top card to all the players.
 	 */
 	private void updateTop() {
-		gameLock.lock();
 		for (Player player : players) {
 			player.updateTop(top);
 		}
-		gameLock.unlock();
 	}
 
 	@Override
@@ -375,4 +716,137 @@ public class Game {
 		result = 31 * result + Arrays.hashCode(players);
 		return result;
 	}
+
+	/**
+	 * The lock used while a game is driven by an actor.
+	 * As only the thread of the actor may execute commands, it never blocks and only checks the calling thread.
+	 *
+	 * @param owner    The thread of the actor.
+	 * @param previous The lock used before the actor took over, restored once it's done.
+	 */
+	private record OwnerLock(@NotNull Thread owner, @NotNull Lock previous) implements Lock {
+
+		@Override
+		public void lock() {
+			if (Thread.currentThread() != owner) {
+				throw new IllegalStateException("Game is driven by an actor, commands must be submitted to it");
+			}
+		}
+
+		@Override
+		public void lockInterruptibly() {
+			lock();
+		}
+
+		@Override
+		public boolean tryLock() {
+			return Thread.currentThread() == owner;
+		}
+
+		@Override
+		public boolean tryLock(long time, @NotNull TimeUnit unit) {
+			return tryLock();
+		}
+
+		@Override
+		public void unlock() {
+		}
+
+		@Override
+		@NotNull
+		public Condition newCondition() {
+			throw new UnsupportedOperationException("Games driven by an actor have no conditions to wait for");
+		}
+	}
+
+	/**
+	 * Wraps the game lock to report how long it was waited for and held.
+	 * Only the outermost acquisition and release of a thread get reported.
+	 */
+	private static final class TimedLock implements Lock {
+
+		/**
+		 * The lock that gets actually taken.
+		 */
+		private final Lock lock;
+		/**
+		 * Where to report the times to.
+		 * Only changed while holding the game.
+		 */
+		private volatile LockListener listener;
+		/**
+		 * How often the owning thread currently holds the lock.
+		 * Guarded by the lock.
+		 */
+		private int depth;
+		/**
+		 * When the owning thread acquired the lock, from {@link System#nanoTime()}.
+		 * Guarded by the lock.
+		 */
+		private long acquiredAt;
+
+		/**
+		 * Creates a new timed lock.
+		 *
+		 * @param lock     The lock to wrap.
+		 * @param listener Where to report the times to.
+		 */
+		private TimedLock(@NotNull Lock lock, @NotNull LockListener listener) {
+			this.lock = lock;
+			this.listener = listener;
+		}
+
+		@Override
+		public void lock() {
+			long start = System.nanoTime();
+			lock.lock();
+			acquired(start);
+		}
+
+		@Override
+		public void lockInterruptibly() throws InterruptedException {
+			long start = System.nanoTime();
+			lock.lockInterruptibly();
+			acquired(start);
+		}
+
+		@Override
+		public boolean tryLock() {
+			if (!lock.tryLock()) return false;
+			acquired(System.nanoTime());
+			return true;
+		}
+
+		@Override
+		public boolean tryLock(long time, @NotNull TimeUnit unit) throws InterruptedException {
+			long start = System.nanoTime();
+			if (!lock.tryLock(time, unit)) return false;
+			acquired(start);
+			return true;
+		}
+
+		/**
+		 * Reports an acquisition if it is the outermost one.
+		 *
+		 * @param start When the thread started waiting for the lock.
+		 */
+		private void acquired(long start) {
+			if (depth++ == 0) {
+				acquiredAt = System.nanoTime();
+				listener.acquired(acquiredAt - start);
+			}
+		}
+
+		@Override
+		public void unlock() {
+			if (--depth == 0) listener.released(System.nanoTime() - acquiredAt);
+			lock.unlock();
+		}
+
+		@Override
+		@NotNull
+		public Condition newCondition() {
+			return lock.newCondition();
+		}
+	}
 }
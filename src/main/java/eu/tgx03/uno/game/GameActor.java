@@ -0,0 +1,225 @@
+package eu.tgx03.uno.game;
+
+import eu.tgx03.uno.game.cards.Color;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Drives a game as an actor: all commands get queued in a mailbox and executed one after another
+ * by a single virtual thread, so the game logic runs without taking any locks.
+ * Once a game is driven by an actor, commands called directly on the game from other threads get rejected.
+ */
+public class GameActor implements AutoCloseable {
+
+	/**
+	 * The game driven by this actor.
+	 */
+	private final Game game;
+	/**
+	 * The tasks waiting to be executed.
+	 */
+	private final BlockingQueue<Runnable> mailbox = new LinkedBlockingQueue<>();
+	/**
+	 * The thread draining the mailbox.
+	 */
+	private final Thread thread;
+	/**
+	 * Makes checking whether this actor is closed and queueing a task a single step,
+	 * so no task can slip in after the actor stopped draining.
+	 */
+	private final Lock lock = new ReentrantLock();
+	/**
+	 * Whether this actor accepts no further tasks.
+	 * Only changed while holding lock.
+	 */
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates a new actor and hands the game over to it.
+	 *
+	 * @param game The game to drive.
+	 * @throws IllegalStateException When the game is already driven by another actor.
+	 */
+	public GameActor(@NotNull Game game) {
+		this.game = game;
+		this.thread = Thread.ofVirtual().name("Game-Actor").unstarted(this::drain);
+		game.attach(thread);
+		thread.start();
+	}
+
+	/**
+	 * Returns the game driven by this actor.
+	 *
+	 * @return The game of this actor.
+	 */
+	@NotNull
+	public Game getGame() {
+		return game;
+	}
+
+	/**
+	 * Queues playing a card, see {@link Game#playCard(int, int)}.
+	 *
+	 * @param player     The player wishing to play.
+	 * @param cardNumber The number of the card to play.
+	 * @return Whether the card was played, once the command has been executed.
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> playCard(int player, int cardNumber) {
+		return submit(game -> game.playCard(player, cardNumber));
+	}
+
+	/**
+	 * Queues throwing in a card, see {@link Game#jump(int, int)}.
+	 *
+	 * @param player     The player wishing to jump.
+	 * @param cardNumber The number of the card to jump with.
+	 * @return Whether the card was thrown in, once the command has been executed.
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> jump(int player, int cardNumber) {
+		return submit(game -> game.jump(player, cardNumber));
+	}
+
+	/**
+	 * Queues accepting the penalty, see {@link Game#acceptCards(int)}.
+	 *
+	 * @param player The player accepting the penalty.
+	 * @return Whether the penalty was accepted, once the command has been executed.
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> acceptCards(int player) {
+		return submit(game -> game.acceptCards(player));
+	}
+
+	/**
+	 * Queues picking up a card, see {@link Game#takeCard(int)}.
+	 *
+	 * @param player The player picking up a card.
+	 * @return Whether a card was picked up, once the command has been executed.
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> takeCard(int player) {
+		return submit(game -> game.takeCard(player));
+	}
+
+	/**
+	 * Queues selecting the color of a wildcard, see {@link Game#selectColor(int, int, Color)}.
+	 *
+	 * @param player     The player holding the card.
+	 * @param cardNumber The number of the wildcard.
+	 * @param color      The selected color.
+	 * @return Whether the color was selected, once the command has been executed.
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> selectColor(int player, int cardNumber, @NotNull Color color) {
+		return submit(game -> game.selectColor(player, cardNumber, color));
+	}
+
+	/**
+	 * Queues an encoded move, see {@link Game#apply(int, int)}.
+	 *
+	 * @param player The player making the move.
+	 * @param move   The encoded move.
+	 * @return Whether the move was executed, once the command has been executed.
+	 */
+	@NotNull
+	public CompletableFuture<Boolean> apply(int player, int move) {
+		return submit(game -> game.apply(player, move));
+	}
+
+	/**
+	 * Queues several encoded moves of a player, which get executed during a single turn, see {@link Game#apply(int, int...)}.
+	 *
+	 * @param player The player making the moves.
+	 * @param moves  The encoded moves, in the order to execute them.
+	 * @return Whether each of the moves was executed, once they have been executed.
+	 */
+	@NotNull
+	public CompletableFuture<boolean[]> apply(int player, int @NotNull ... moves) {
+		return submit(game -> game.apply(player, moves));
+	}
+
+	/**
+	 * Queues an arbitrary task to be run on the game during a turn of this actor.
+	 *
+	 * @param task The task to run.
+	 * @param <T>  The type of the result.
+	 * @return The result of the task, once it has been executed.
+	 */
+	@NotNull
+	public <T> CompletableFuture<T> submit(@NotNull Function<Game, T> task) {
+		CompletableFuture<T> result = new CompletableFuture<>();
+		lock.lock();
+		try {
+			if (closed) {
+				result.completeExceptionally(new IllegalStateException("Actor has been closed"));
+				return result;
+			}
+			mailbox.add(() -> {
+				try {
+					result.complete(task.apply(game));
+				} catch (Throwable e) {
+					result.completeExceptionally(e);
+				}
+			});
+		} finally {
+			lock.unlock();
+		}
+		return result;
+	}
+
+	/**
+	 * Stops accepting new tasks.
+	 * Tasks that have already been queued still get executed, afterwards the game takes its lock again.
+	 */
+	@Override
+	public void close() {
+		shutdown();
+	}
+
+	/**
+	 * Stops accepting new tasks and wakes up the actor.
+	 * Not overridable, as the actor calls it as well.
+	 */
+	private void shutdown() {
+		lock.lock();
+		try {
+			if (closed) return;
+			closed = true;
+			mailbox.add(() -> {
+			});    // Wake up the actor in case it's waiting
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Executes the queued tasks until this actor gets closed, then hands the game back.
+	 */
+	private void drain() {
+		try {
+			try {
+				while (!closed || !mailbox.isEmpty()) {
+					mailbox.take().run();
+				}
+			} catch (InterruptedException ignored) {
+			}
+
+			// Run whatever got queued while closing, nothing can be added once closed
+			shutdown();
+			Runnable task;
+			while ((task = mailbox.poll()) != null) {
+				task.run();
+			}
+		} finally {
+			game.detach(thread);
+		}
+	}
+}
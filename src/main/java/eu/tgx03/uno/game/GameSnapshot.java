@@ -0,0 +1,155 @@
+package eu.tgx03.uno.game;
+
+import eu.tgx03.uno.game.cards.Card;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An immutable view of the state of a game after a command has been executed.
+ * A game publishes a new snapshot after every successful command,
+ * so it can be read and broadcast to clients without holding the game lock.
+ */
+public final class GameSnapshot {
+
+	/**
+	 * The version of this snapshot, newer snapshots of a game have higher versions.
+	 */
+	private final long version;
+	/**
+	 * The card on top of the pile.
+	 */
+	private final Card top;
+	/**
+	 * The number of the player whose turn it is.
+	 */
+	private final int currentPlayer;
+	/**
+	 * How many cards are on the penalty stack.
+	 */
+	private final int stack;
+	/**
+	 * Whether all players have finished.
+	 */
+	private final boolean ended;
+	/**
+	 * How many cards each player has.
+	 */
+	private final short[] cardCount;
+	/**
+	 * The codes of the cards of each player, in the order of their hands.
+	 * Hands that didn't change get shared between snapshots, so they must never be modified.
+	 */
+	private final byte[][] hands;
+
+	/**
+	 * Creates a new snapshot.
+	 *
+	 * @param version       The version of the snapshot.
+	 * @param top           The card on top of the pile.
+	 * @param currentPlayer The number of the current player.
+	 * @param stack         How many cards are on the penalty stack.
+	 * @param ended         Whether the game has ended.
+	 * @param cardCount     How many cards each player has.
+	 * @param hands         The hands of all players.
+	 */
+	GameSnapshot(long version, @NotNull Card top, int currentPlayer, int stack, boolean ended, short @NotNull [] cardCount, byte @NotNull [] @NotNull [] hands) {
+		this.version = version;
+		this.top = top;
+		this.currentPlayer = currentPlayer;
+		this.stack = stack;
+		this.ended = ended;
+		this.cardCount = cardCount;
+		this.hands = hands;
+	}
+
+	/**
+	 * @return The version of this snapshot.
+	 */
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * @return The card on top of the pile.
+	 */
+	@NotNull
+	public Card getTopCard() {
+		return top;
+	}
+
+	/**
+	 * @return The number of the player whose turn it is.
+	 */
+	public int getCurrentPlayer() {
+		return currentPlayer;
+	}
+
+	/**
+	 * @return How many cards are on the penalty stack.
+	 */
+	public int getStackSize() {
+		return stack;
+	}
+
+	/**
+	 * @return Whether the game has ended.
+	 */
+	public boolean hasEnded() {
+		return ended;
+	}
+
+	/**
+	 * @return How many players are in the game.
+	 */
+	public int playerCount() {
+		return cardCount.length;
+	}
+
+	/**
+	 * Get how many cards each player has.
+	 *
+	 * @return A copy of the card count of each player.
+	 */
+	public short @NotNull [] getCardCount() {
+		return cardCount.clone();
+	}
+
+	/**
+	 * Returns a copy of a player as it was when this snapshot was taken.
+	 *
+	 * @param id The number of the requested player.
+	 * @return A new player object holding the cards of the player.
+	 */
+	@NotNull
+	public Player getPlayer(int id) {
+		return new Player(hands[id]);
+	}
+
+	/**
+	 * Creates the snapshot following a previous one.
+	 * Hands which haven't changed since the previous snapshot get reused.
+	 *
+	 * @param previous      The previous snapshot or null if this is the first one.
+	 * @param modifications The modification counts of the hands in the previous snapshot, gets updated.
+	 * @param players       The players of the game.
+	 * @param top           The card on top of the pile.
+	 * @param currentPlayer The number of the current player.
+	 * @param stack         How many cards are on the penalty stack.
+	 * @param ended         Whether the game has ended.
+	 * @return The new snapshot.
+	 */
+	@NotNull
+	static GameSnapshot next(GameSnapshot previous, int @NotNull [] modifications, @NotNull Player @NotNull [] players, @NotNull Card top, int currentPlayer, int stack, boolean ended) {
+		short[] cardCount = new short[players.length];
+		byte[][] hands = new byte[players.length][];
+		for (int i = 0; i < players.length; i++) {
+			cardCount[i] = (short) players[i].cardCount();
+			if (previous != null && modifications[i] == players[i].modifications()) {
+				hands[i] = previous.hands[i];
+			} else {
+				hands[i] = players[i].copyCodes();
+				modifications[i] = players[i].modifications();
+			}
+		}
+		return new GameSnapshot(previous == null ? 0 : previous.version + 1, top, currentPlayer, stack, ended, cardCount, hands);
+	}
+}
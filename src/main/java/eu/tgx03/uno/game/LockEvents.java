@@ -0,0 +1,68 @@
+package eu.tgx03.uno.game;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Reports the game lock to the flight recorder, see {@link LockListener#FLIGHT_RECORDER}.
+ * The times are only known once the lock has been taken or is about to be released,
+ * so they are carried as fields and the events themselves have no duration.
+ */
+final class LockEvents implements LockListener {
+
+	@Override
+	public void acquired(long waitNanos) {
+		Wait event = new Wait();
+		if (event.shouldCommit()) {
+			event.waited = waitNanos;
+			event.commit();
+		}
+	}
+
+	@Override
+	public void released(long holdNanos) {
+		Hold event = new Hold();
+		if (event.shouldCommit()) {
+			event.held = holdNanos;
+			event.commit();
+		}
+	}
+
+	/**
+	 * A command waited for the lock of a game.
+	 */
+	@Name("eu.tgx03.uno.LockWait")
+	@Label("Game Lock Wait")
+	@Category({"UNO", "Game"})
+	@Description("A command waited for the lock of a game")
+	private static final class Wait extends Event {
+
+		/**
+		 * How long the command waited.
+		 */
+		@Label("Waited")
+		@Timespan(Timespan.NANOSECONDS)
+		private long waited;
+	}
+
+	/**
+	 * A command held the lock of a game.
+	 */
+	@Name("eu.tgx03.uno.LockHold")
+	@Label("Game Lock Hold")
+	@Category({"UNO", "Game"})
+	@Description("A command held the lock of a game")
+	private static final class Hold extends Event {
+
+		/**
+		 * How long the command held the lock.
+		 */
+		@Label("Held")
+		@Timespan(Timespan.NANOSECONDS)
+		private long held;
+	}
+}
@@ -0,0 +1,55 @@
+package eu.tgx03.uno.game;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Gets told how long commands waited for the lock of a game and how long they held it,
+ * see {@link Game#listen(LockListener)}.
+ * Gets called while the lock is held, so implementations must be cheap and must not block.
+ */
+public interface LockListener {
+
+	/**
+	 * Emits the lock wait and lock hold events of the flight recorder.
+	 * Costs next to nothing while no recording has them enabled.
+	 */
+	LockListener FLIGHT_RECORDER = new LockEvents();
+
+	/**
+	 * Gets called after a command acquired the lock of a game.
+	 *
+	 * @param waitNanos How long the command waited for the lock, in nanoseconds.
+	 */
+	void acquired(long waitNanos);
+
+	/**
+	 * Gets called right before a command releases the lock of a game.
+	 *
+	 * @param holdNanos How long the command held the lock, in nanoseconds.
+	 */
+	void released(long holdNanos);
+
+	/**
+	 * Combines this listener with another one.
+	 *
+	 * @param other The listener to report to after this one.
+	 * @return A listener reporting to both.
+	 */
+	@NotNull
+	default LockListener andThen(@NotNull LockListener other) {
+		LockListener first = this;
+		return new LockListener() {
+			@Override
+			public void acquired(long waitNanos) {
+				first.acquired(waitNanos);
+				other.acquired(waitNanos);
+			}
+
+			@Override
+			public void released(long holdNanos) {
+				first.released(holdNanos);
+				other.released(holdNanos);
+			}
+		};
+	}
+}
@@ -0,0 +1,136 @@
+package eu.tgx03.uno.game;
+
+import eu.tgx03.uno.game.cards.Card;
+import eu.tgx03.uno.game.cards.Color;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Helpers for moves encoded as a single int, as produced by {@link Game#legalMoves(int, int[])}.
+ * The kind of the move is stored in bits 24 to 27, the code of the card in bits 16 to 23
+ * and the position of the card in the hand of the player in the lowest 16 bits.
+ * Moves without a card only use the kind.
+ */
+public final class Move {
+
+	/**
+	 * Playing a card the normal way.
+	 */
+	public static final int NORMAL = 0;
+	/**
+	 * Throwing in a card even though it's not this players turn.
+	 */
+	public static final int JUMP = 1;
+	/**
+	 * Putting another penalty card on a pending penalty.
+	 */
+	public static final int STACK = 2;
+	/**
+	 * Accepting the pending penalty.
+	 */
+	public static final int ACCEPT = 3;
+	/**
+	 * Picking up a card.
+	 */
+	public static final int TAKE = 4;
+
+	/**
+	 * Not to be used.
+	 *
+	 * @throws IllegalAccessError No.
+	 */
+	private Move() throws IllegalAccessError {
+		throw new IllegalAccessError("Not instantiable");
+	}
+
+	/**
+	 * Encodes a move with a card.
+	 *
+	 * @param kind       The kind of the move.
+	 * @param code       The code of the card to use.
+	 * @param cardNumber The position of that card in the hand of the player.
+	 * @return The encoded move.
+	 */
+	public static int encode(int kind, int code, int cardNumber) {
+		return kind << 24 | code << 16 | cardNumber & 0xFFFF;
+	}
+
+	/**
+	 * Encodes a move without a card.
+	 *
+	 * @param kind The kind of the move.
+	 * @return The encoded move.
+	 */
+	public static int encode(int kind) {
+		return kind << 24;
+	}
+
+	/**
+	 * Returns the kind of move.
+	 *
+	 * @param move The encoded move.
+	 * @return Which kind of move it is.
+	 */
+	public static int kind(int move) {
+		return move >>> 24 & 0xF;
+	}
+
+	/**
+	 * Returns the card used by a move.
+	 *
+	 * @param move The encoded move.
+	 * @return The card of this move.
+	 */
+	@NotNull
+	public static Card card(int move) {
+		return Card.byCode(move >>> 16 & 0xFF);
+	}
+
+	/**
+	 * Returns the position of the card in the hand of the player.
+	 *
+	 * @param move The encoded move.
+	 * @return The number of the card to use.
+	 */
+	public static int cardNumber(int move) {
+		return move & 0xFFFF;
+	}
+
+	/**
+	 * Whether a move uses a card.
+	 *
+	 * @param move The encoded move.
+	 * @return Whether the move has a card.
+	 */
+	public static boolean hasCard(int move) {
+		int kind = kind(move);
+		return kind == NORMAL || kind == JUMP || kind == STACK;
+	}
+
+	/**
+	 * Whether the card of this move is a wildcard which needs its color selected before it can be played.
+	 *
+	 * @param move The encoded move.
+	 * @return Whether a color needs to be selected first.
+	 */
+	public static boolean needsColor(int move) {
+		return hasCard(move) && card(move).color() == Color.BLACK;
+	}
+
+	/**
+	 * Creates a readable representation of a move.
+	 *
+	 * @param move The encoded move.
+	 * @return The description of the move.
+	 */
+	@NotNull
+	public static String toString(int move) {
+		return switch (kind(move)) {
+			case NORMAL -> "Lay down card number " + cardNumber(move) + " (" + card(move) + ")";
+			case JUMP -> "Jump with card number " + cardNumber(move) + " (" + card(move) + ")";
+			case STACK -> "Stack card number " + cardNumber(move) + " (" + card(move) + ")";
+			case ACCEPT -> "Accept the penalty";
+			case TAKE -> "Pick up a card";
+			default -> "Unknown move";
+		};
+	}
+}
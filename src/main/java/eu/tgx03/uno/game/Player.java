@@ -1,25 +1,66 @@
 package eu.tgx03.uno.game;
 
 import eu.tgx03.uno.game.cards.Card;
+import eu.tgx03.uno.game.cards.ChooseColor;
+import eu.tgx03.uno.game.cards.Color;
+import eu.tgx03.uno.game.cards.TakeFour;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.*;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * A class representing a single Player
  * holding cards.
+ * The hand is stored as how many cards of each code the player holds.
+ * For index based access the cards are ordered by their code,
+ * so the position of a card only changes when cards with a lower code get added or removed.
+ * Wildcards come last, the ones of a kind in the order they have been received,
+ * so selecting the color of a wildcard keeps it at its position.
  */
 public class Player implements Externalizable {
 
 	@Serial
 	private static final long serialVersionUID = -1301404883505022064L;
+	/**
+	 * The lowest code of a wildcard. All cards from here on are wildcards.
+	 */
+	private static final int FIRST_WILD;
+
+	static {
+		int code = 0;
+		while (!(Card.byCode(code) instanceof ChooseColor)) code++;
+		FIRST_WILD = code;
+	}
 
 	/**
-	 * All the cards this player currently has.
+	 * How many cards of each code this player currently has.
+	 */
+	private final short[] counts = new short[Card.CARD_TYPES];
+	/**
+	 * Which cards this player holds at least once.
+	 * Bit n is set if a card with code n is held.
+	 */
+	private long held = 0;
+	/**
+	 * How many cards this player holds in total.
+	 */
+	private int size = 0;
+	/**
+	 * The codes of the held wildcards in the order of the hand.
+	 * First all simple wildcards, then all wildcards making the next player take four.
+	 */
+	private byte[] wilds = new byte[4];
+	/**
+	 * How many wildcards this player holds.
+	 */
+	private int wildCount = 0;
+	/**
+	 * How often the hand of this player has changed.
+	 * Used to find out whether a snapshot of the hand can be reused.
 	 */
-	private final ArrayList<Card> cards;
+	private transient int modifications = 0;
 	/**
 	 * The card currently on top of the pile.
 	 */
@@ -29,7 +70,30 @@ public class Player implements Externalizable {
 	 * Creates a player with no cards to start.
 	 */
 	public Player() {
-		cards = new ArrayList<>(0);
+	}
+
+	/**
+	 * Creates a player holding the given cards.
+	 *
+	 * @param counts How many cards of each code the player holds, indexed by the code.
+	 */
+	public Player(short @NotNull [] counts) {
+		for (int code = 0; code < counts.length; code++) {
+			for (int i = 0; i < counts[code]; i++) {
+				add(Card.byCode(code));
+			}
+		}
+	}
+
+	/**
+	 * Creates a player holding the given cards, keeping the order of the wildcards.
+	 *
+	 * @param codes The codes of the cards, as returned by {@link #copyCodes()}.
+	 */
+	public Player(byte @NotNull [] codes) {
+		for (byte code : codes) {
+			add(Card.byCode(code));
+		}
 	}
 
 	/**
@@ -38,9 +102,8 @@ public class Player implements Externalizable {
 	 * @param cardCount How many cards this player shall start with.
 	 */
 	public Player(int cardCount) {
-		cards = new ArrayList<>(cardCount);
 		for (int i = 0; i < cardCount; i++) {
-			cards.add(Card.generateCard());
+			add(Card.generateCard());
 		}
 	}
 
@@ -54,8 +117,10 @@ public class Player implements Externalizable {
 	 */
 	@Nullable
 	public Card playCard(int cardNumber) {
-		if (cardNumber < cards.size() && cards.get(cardNumber).place(top)) {
-			return cards.remove(cardNumber);
+		Card card = getCard(cardNumber);
+		if (card != null && card.place(top)) {
+			remove(card);
+			return card;
 		} else {
 			return null;
 		}
@@ -71,8 +136,10 @@ public class Player implements Externalizable {
 	 */
 	@Nullable
 	public Card jumpCard(int cardNumber) {
-		if (cardNumber < cards.size() && cards.get(cardNumber).jump(top)) {
-			return cards.remove(cardNumber);
+		Card card = getCard(cardNumber);
+		if (card != null && card.jump(top)) {
+			remove(card);
+			return card;
 		} else {
 			return null;
 		}
@@ -82,7 +149,7 @@ public class Player implements Externalizable {
 	 * Lets this player take another card.
 	 */
 	public void drawCard() {
-		cards.add(Card.generateCard());
+		add(Card.generateCard());
 	}
 
 	/**
@@ -100,7 +167,54 @@ public class Player implements Externalizable {
 	 * @return How many cards this player has.
 	 */
 	public int cardCount() {
-		return cards.size();
+		return size;
+	}
+
+	/**
+	 * Returns how many copies of a card this player is holding.
+	 *
+	 * @param card The requested card.
+	 * @return How many of those cards this player has.
+	 */
+	public int count(@NotNull Card card) {
+		return counts[card.code()];
+	}
+
+	/**
+	 * Whether this player holds at least one copy of a card.
+	 *
+	 * @param card The requested card.
+	 * @return Whether this player has that card.
+	 */
+	public boolean holds(@NotNull Card card) {
+		return (held & card.bit()) != 0;
+	}
+
+	/**
+	 * Returns the mask of all the different cards this player holds.
+	 *
+	 * @return The mask of the held cards.
+	 */
+	public long heldCards() {
+		return held;
+	}
+
+	/**
+	 * Returns the mask of all the cards this player could currently play the normal way.
+	 *
+	 * @return The mask of the playable cards.
+	 */
+	public long playableCards() {
+		return top == null ? 0 : held & Card.placeMask(top);
+	}
+
+	/**
+	 * Returns the mask of all the cards this player could currently throw in.
+	 *
+	 * @return The mask of the cards this player could jump with.
+	 */
+	public long jumpableCards() {
+		return top == null ? 0 : held & Card.jumpMask(top);
 	}
 
 	/**
@@ -109,7 +223,45 @@ public class Player implements Externalizable {
 	 * @return Whether the player has played all his cards.
 	 */
 	public boolean finished() {
-		return cards.isEmpty();
+		return size == 0;
+	}
+
+	/**
+	 * Returns the card at a given position of this players hand.
+	 *
+	 * @param cardNumber The position of the card.
+	 * @return The card at that position or null if there is none.
+	 */
+	@Nullable
+	public Card getCard(int cardNumber) {
+		if (cardNumber < 0 || cardNumber >= size) return null;
+		if (cardNumber >= size - wildCount) return Card.byCode(wilds[cardNumber - size + wildCount]);
+		for (int code = 0; code < FIRST_WILD; code++) {
+			cardNumber -= counts[code];
+			if (cardNumber < 0) return Card.byCode(code);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the position of the first copy of a card in this players hand.
+	 *
+	 * @param card The requested card.
+	 * @return The position of the card or -1 if this player doesn't hold it.
+	 */
+	public int indexOf(@NotNull Card card) {
+		int code = card.code();
+		if (counts[code] == 0) return -1;
+		if (code >= FIRST_WILD) {
+			int index = size - wildCount;
+			while (wilds[index - size + wildCount] != code) index++;
+			return index;
+		}
+		int index = 0;
+		for (int i = 0; i < code; i++) {
+			index += counts[i];
+		}
+		return index;
 	}
 
 	/**
@@ -119,18 +271,122 @@ public class Player implements Externalizable {
 	 */
 	@NotNull
 	public Card @NotNull [] getCards() {
-		return cards.toArray(new Card[0]);
+		Card[] result = new Card[size];
+		int index = 0;
+		for (int code = 0; code < FIRST_WILD; code++) {
+			for (int i = 0; i < counts[code]; i++) {
+				result[index++] = Card.byCode(code);
+			}
+		}
+		for (int i = 0; i < wildCount; i++) {
+			result[index++] = Card.byCode(wilds[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Replaces a wildcard of this player with the instance representing the selected color.
+	 * The card keeps its position, so it can be played with the same number afterwards.
+	 *
+	 * @param cardNumber The number of the wildcard.
+	 * @param color      The color the card should represent.
+	 * @return Whether the card was a wildcard and got replaced.
+	 */
+	public boolean selectColor(int cardNumber, @NotNull Color color) {
+		if (getCard(cardNumber) instanceof ChooseColor cc) {
+			ChooseColor colored = cc.withColor(color);
+			if (--counts[cc.code()] == 0) held &= ~cc.bit();
+			counts[colored.code()]++;
+			held |= colored.bit();
+			wilds[cardNumber - size + wildCount] = (byte) colored.code();
+			modifications++;
+			return true;
+		} else return false;
+	}
+
+	/**
+	 * Gives a card drawn from the deck to this player.
+	 *
+	 * @param card The drawn card.
+	 */
+	protected void giveCard(@NotNull Card card) {
+		add(card);
 	}
 
 	/**
-	 * Gives a specific card to this player.
-	 * Gets used to give back a black card.
+	 * Returns how often the hand of this player has changed.
 	 *
-	 * @param cardNumber Where to place the card.
-	 * @param card       The card to give back.
+	 * @return The modification count of the hand.
 	 */
-	protected void giveCard(int cardNumber, @NotNull Card card) {
-		cards.add(cardNumber, card);
+	int modifications() {
+		return modifications;
+	}
+
+	/**
+	 * Copies how many cards of each code this player holds, indexed by the code.
+	 *
+	 * @return A copy of the hand.
+	 */
+	public short @NotNull [] copyCounts() {
+		return counts.clone();
+	}
+
+	/**
+	 * Copies the codes of the cards of this player, in the order of the hand.
+	 *
+	 * @return The codes of all the cards of this player.
+	 */
+	public byte @NotNull [] copyCodes() {
+		byte[] result = new byte[size];
+		int index = 0;
+		for (int code = 0; code < FIRST_WILD; code++) {
+			for (int i = 0; i < counts[code]; i++) {
+				result[index++] = (byte) code;
+			}
+		}
+		System.arraycopy(wilds, 0, result, index, wildCount);
+		return result;
+	}
+
+	/**
+	 * Adds a card to the hand.
+	 *
+	 * @param card The card to add.
+	 */
+	private void add(@NotNull Card card) {
+		int code = card.code();
+		if (code >= FIRST_WILD) {
+			if (wildCount == wilds.length) wilds = Arrays.copyOf(wilds, wildCount * 2);
+			int at = wildCount;
+			if (!(card instanceof TakeFour)) {    // Simple wildcards go before the ones making the next player take four
+				while (at > 0 && Card.byCode(wilds[at - 1]) instanceof TakeFour) at--;
+				System.arraycopy(wilds, at, wilds, at + 1, wildCount - at);
+			}
+			wilds[at] = (byte) code;
+			wildCount++;
+		}
+		counts[code]++;
+		held |= card.bit();
+		size++;
+		modifications++;
+	}
+
+	/**
+	 * Removes a card from the hand, which must be held by this player.
+	 *
+	 * @param card The card to remove.
+	 */
+	private void remove(@NotNull Card card) {
+		int code = card.code();
+		assert counts[code] > 0;
+		if (code >= FIRST_WILD) {
+			int at = 0;
+			while (wilds[at] != code) at++;
+			System.arraycopy(wilds, at + 1, wilds, at, --wildCount - at);
+		}
+		if (--counts[code] == 0) held &= ~card.bit();
+		size--;
+		modifications++;
 	}
 
 	@Override
@@ -140,30 +396,30 @@ public class Player implements Externalizable {
 
 	@Override
 	public int hashCode() {
-		return cards.hashCode();
+		return Arrays.hashCode(counts);
 	}
 
 	@Override
 	@NotNull
 	public String toString() {
-		return cards.toString();
+		return Arrays.toString(getCards());
 	}
 
 	@Override
 	public void writeExternal(@NotNull ObjectOutput out) throws IOException {
-		out.writeInt(this.cards.size());
-		for (Card card : cards) {
-			out.writeObject(card);
-		}
+		out.writeInt(size);
+		out.write(copyCodes());
 	}
 
 	@Override
-	public void readExternal(@NotNull ObjectInput in) throws IOException, ClassNotFoundException {
+	public void readExternal(@NotNull ObjectInput in) throws IOException {
 		int count = in.readInt();
-		this.cards.clear();
-		this.cards.ensureCapacity(count);
+		Arrays.fill(this.counts, (short) 0);
+		this.held = 0;
+		this.size = 0;
+		this.wildCount = 0;
 		for (int i = 0; i < count; i++) {
-			this.cards.add((Card) in.readObject());
+			add(Card.byCode(in.readUnsignedByte()));
 		}
 	}
 }
@@ -1,50 +1,183 @@
 package eu.tgx03.uno.game.cards;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Externalizable;
+import java.io.ObjectStreamException;
 import java.io.Serial;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * The basic implementation of a game card.
+ * Cards are immutable and interned, every distinct card exists exactly once
+ * and can be looked up through its code using {@link #byCode(int)}.
  */
 public abstract class Card implements Externalizable, Cloneable {
+	/**
+	 * How many distinct cards exist.
+	 * The codes of all cards lie between 0 and this value.
+	 */
+	public static final int CARD_TYPES = 62;
+	/**
+	 * How many cards a full deck of UNO holds.
+	 */
+	public static final int DECK_SIZE = 108;
+
 	@Serial
 	private static final long serialVersionUID = 3828684409287282936L;
 	/**
-	 * The number generator used for generating new cards.
+	 * The canonical instance of each card, indexed by its code.
+	 */
+	private static final Card[] CARDS = new Card[CARD_TYPES];
+	/**
+	 * The codes of all the cards in a full deck.
+	 */
+	private static final byte[] DECK = new byte[DECK_SIZE];
+	/**
+	 * For each card, which cards may be normally placed on top of it.
+	 * Bit n of the entry is set when the card with code n may be placed.
+	 */
+	private static final long[] PLACE = new long[CARD_TYPES];
+	/**
+	 * For each card, which cards may be thrown in on top of it.
+	 * Bit n of the entry is set when the card with code n may be thrown in.
+	 */
+	private static final long[] JUMP = new long[CARD_TYPES];
+	/**
+	 * For each card, which cards may be stacked on top of it while its penalty is pending.
+	 * Bit n of the entry is set when the card with code n may be stacked.
 	 */
-	private static final Random rand = new Random();
+	private static final long[] STACK = new long[CARD_TYPES];
+
+	// Create the canonical instances and the composition of the deck
+	static {
+		for (Color color : new Color[]{Color.BLUE, Color.GREEN, Color.RED, Color.YELLOW}) {
+			for (byte value = 0; value < 10; value++) {
+				intern(new Default(color, value));
+			}
+			intern(new Reverse(color));
+			intern(new Skip(color));
+			intern(new TakeTwo(color));
+		}
+		for (Color color : Color.values()) {
+			intern(new ChooseColor(color));
+			intern(new TakeFour(color));
+		}
+		for (int i = 0; i < DECK_SIZE; i++) {
+			DECK[i] = (byte) deckCard(i).code();
+		}
+		for (Card below : CARDS) {
+			for (Card card : CARDS) {
+				if (card.placeable(below)) PLACE[below.code()] |= card.bit();
+				if (card.jumpable(below)) JUMP[below.code()] |= card.bit();
+				if (card.penalty() != 0 && card.penalty() == below.penalty() && card.placeable(below)) {
+					STACK[below.code()] |= card.bit();
+				}
+			}
+		}
+	}
 
 	/**
 	 * Generates a new card in accordance with a normal uno deck.
 	 * However, as they are newly generated, it's possible for cards
 	 * to exist more often than in a real game.
+	 * Games use their own {@link eu.tgx03.uno.game.Deck} instead.
 	 *
-	 * @return A new card.
+	 * @return A random card.
 	 */
 	@NotNull
 	public static Card generateCard() {
-		int code = rand.nextInt(108);
-		if (code < 19) {
-			return new Default(Color.BLUE, (byte) (code % 10));
-		} else if (code < 38) {
-			return new Default(Color.GREEN, (byte) (code % 10));
-		} else if (code < 57) {
-			return new Default(Color.RED, (byte) (code % 10));
-		} else if (code < 76) {
-			return new Default(Color.YELLOW, (byte) (code % 10));
-		} else if (code < 84) {
-			return new TakeTwo(chooseSpecialColor(code % 8));
-		} else if (code < 92) {
-			return new Reverse(chooseSpecialColor(code % 8));
-		} else if (code < 100) {
-			return new Skip(chooseSpecialColor(code % 8));
-		} else if (code < 104) {
-			return new ChooseColor();
+		return CARDS[DECK[ThreadLocalRandom.current().nextInt(DECK_SIZE)]];
+	}
+
+	/**
+	 * Returns the codes of all the cards in a full, unshuffled deck.
+	 *
+	 * @return A new array holding the codes of a full deck.
+	 */
+	public static byte @NotNull [] deckCodes() {
+		return Arrays.copyOf(DECK, DECK_SIZE);
+	}
+
+	/**
+	 * Returns the card with the given code.
+	 *
+	 * @param code The code of the requested card.
+	 * @return The canonical instance of that card.
+	 */
+	@NotNull
+	public static Card byCode(int code) {
+		return CARDS[code];
+	}
+
+	/**
+	 * Returns all the cards that may be normally placed on top of a card.
+	 *
+	 * @param below The card lying on top of the pile.
+	 * @return A mask holding the bits of all cards that may be placed.
+	 */
+	public static long placeMask(@NotNull Card below) {
+		return PLACE[below.code()];
+	}
+
+	/**
+	 * Returns all the cards that may be thrown in on top of a card.
+	 *
+	 * @param below The card lying on top of the pile.
+	 * @return A mask holding the bits of all cards that may be thrown in.
+	 */
+	public static long jumpMask(@NotNull Card below) {
+		return JUMP[below.code()];
+	}
+
+	/**
+	 * Returns all the cards that may be stacked on top of a penalty card.
+	 *
+	 * @param below The card lying on top of the pile.
+	 * @return A mask holding the bits of all cards that may be stacked.
+	 */
+	public static long stackMask(@NotNull Card below) {
+		return STACK[below.code()];
+	}
+
+	/**
+	 * Stores a card as the canonical instance for its code.
+	 *
+	 * @param card The card to store.
+	 */
+	private static void intern(@NotNull Card card) {
+		assert CARDS[card.code()] == null : "Duplicate card code";
+		CARDS[card.code()] = card;
+	}
+
+	/**
+	 * Returns the card at a given position of a sorted deck.
+	 *
+	 * @param position The position in the deck, must be lower than 108.
+	 * @return The card at that position.
+	 */
+	@NotNull
+	private static Card deckCard(int position) {
+		if (position < 19) {
+			return new Default(Color.BLUE, (byte) (position % 10));
+		} else if (position < 38) {
+			return new Default(Color.GREEN, (byte) (position % 10));
+		} else if (position < 57) {
+			return new Default(Color.RED, (byte) (position % 10));
+		} else if (position < 76) {
+			return new Default(Color.YELLOW, (byte) (position % 10));
+		} else if (position < 84) {
+			return new TakeTwo(chooseSpecialColor(position % 8));
+		} else if (position < 92) {
+			return new Reverse(chooseSpecialColor(position % 8));
+		} else if (position < 100) {
+			return new Skip(chooseSpecialColor(position % 8));
+		} else if (position < 104) {
+			return new ChooseColor(Color.BLACK);
 		} else {
-			return new TakeFour();
+			return new TakeFour(Color.BLACK);
 		}
 	}
 
@@ -80,7 +213,9 @@ public abstract class Card implements Externalizable, Cloneable {
 	 * @param below The card this card shall be put on top of.
 	 * @return Whether it's legal.
 	 */
-	public abstract boolean place(@NotNull Card below);
+	public final boolean place(@NotNull Card below) {
+		return (PLACE[below.code()] & bit()) != 0;
+	}
 
 	/**
 	 * Determines whether a card can be thrown in when it's not the player turn.
@@ -88,8 +223,28 @@ public abstract class Card implements Externalizable, Cloneable {
 	 * @param below The card this card shall be thrown on top of.
 	 * @return Whether it's legal.
 	 */
-	public boolean jump(@NotNull Card below) {
-		return this.equals(below);
+	public final boolean jump(@NotNull Card below) {
+		return (JUMP[below.code()] & bit()) != 0;
+	}
+
+	/**
+	 * The rule whether a card can be normally placed on top of another card.
+	 * Only gets evaluated once for every pair of cards to fill the lookup table used by {@link #place(Card)}.
+	 *
+	 * @param below The card this card shall be put on top of.
+	 * @return Whether it's legal.
+	 */
+	protected abstract boolean placeable(@NotNull Card below);
+
+	/**
+	 * The rule whether a card can be thrown in when it's not the player turn.
+	 * Only gets evaluated once for every pair of cards to fill the lookup table used by {@link #jump(Card)}.
+	 *
+	 * @param below The card this card shall be thrown on top of.
+	 * @return Whether it's legal.
+	 */
+	protected boolean jumpable(@NotNull Card below) {
+		return this == below;
 	}
 
 	/**
@@ -130,7 +285,55 @@ public abstract class Card implements Externalizable, Cloneable {
 	@NotNull
 	public abstract Color color();
 
+	/**
+	 * Returns the code identifying this card.
+	 * Every distinct card has its own code between 0 and {@link #CARD_TYPES}.
+	 *
+	 * @return The code of this card.
+	 */
+	public abstract int code();
+
+	/**
+	 * Returns the bit representing this card in card masks.
+	 *
+	 * @return A mask only holding this card.
+	 */
+	public final long bit() {
+		return 1L << code();
+	}
+
+	/**
+	 * As all cards are interned, two cards are only equal if they are the same instance.
+	 */
+	@Override
+	public final boolean equals(@Nullable Object o) {
+		return this == o;
+	}
+
+	@Override
+	public final int hashCode() {
+		return code();
+	}
+
+	/**
+	 * As cards are immutable, this returns the card itself.
+	 *
+	 * @return This card.
+	 */
 	@Override
 	@NotNull
-	public abstract Card clone();
+	public Card clone() {
+		return this;
+	}
+
+	/**
+	 * Replaces a deserialized card with its canonical instance.
+	 *
+	 * @return The canonical instance of the read card.
+	 * @throws ObjectStreamException Never.
+	 */
+	@Serial
+	protected final Object readResolve() throws ObjectStreamException {
+		return byCode(code());
+	}
 }
@@ -7,9 +7,12 @@ import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.Serial;
+import java.lang.reflect.Field;
 
 /**
  * A class representing the wild card.
+ * There is a separate instance for each color the card may represent,
+ * which can be retrieved using {@link #withColor(Color)}.
  */
 public class ChooseColor extends Card {
 
@@ -17,18 +20,54 @@ public class ChooseColor extends Card {
 	private static final long serialVersionUID = -2223262444434498162L;
 
 	/**
-	 * The color this card currently represents.
-	 * Needs to be changed before the card is actually played.
+	 * The reflective field of the Color of this card.
+	 * Used for deserialization.
 	 */
-	private Color color = Color.BLACK;
+	private static final Field COLOR_FIELD;
+
+	static {
+		try {
+			COLOR_FIELD = ChooseColor.class.getDeclaredField("color");
+			COLOR_FIELD.setAccessible(true);
+		} catch (NoSuchFieldException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * The color this card represents.
+	 * Needs to be chosen before the card is actually played.
+	 */
+	private final Color color;
+
+	/**
+	 * Default constructor for serialization.
+	 * Initializes a wild card without a chosen color.
+	 *
+	 * @deprecated Only to be used during deserialization.
+	 */
+	@Deprecated
+	public ChooseColor() {
+		this.color = Color.BLACK;
+	}
+
+	/**
+	 * Creates a new wild card representing the provided color.
+	 * Only to be used for creating the canonical instances, otherwise use {@link Card#byCode(int)}.
+	 *
+	 * @param color The color this card represents.
+	 */
+	ChooseColor(@NotNull Color color) {
+		this.color = color;
+	}
 
 	@Override
-	public boolean place(@Nullable Card below) {
+	protected boolean placeable(@Nullable Card below) {
 		return this.color != Color.BLACK;
 	}
 
 	@Override
-	public boolean jump(@Nullable Card below) {
+	protected boolean jumpable(@Nullable Card below) {
 		return false;
 	}
 
@@ -39,19 +78,24 @@ public class ChooseColor extends Card {
 	}
 
 	/**
-	 * Updates the color of this wildcard to a new color to make sure only cards of that color can be placed on top.
-	 * Method must be called before playing this card.
-	 * @param color The color this card should represent.
+	 * Returns the wildcard of this type representing a new color to make sure only cards of that color can be placed on top.
+	 * The returned card must be used instead of this one when playing.
+	 *
+	 * @param color The color the card should represent.
+	 * @return The canonical card representing that color.
 	 */
-	public void setColor(@NotNull Color color) {
-		this.color = color;
+	@NotNull
+	public ChooseColor withColor(@NotNull Color color) {
+		return (ChooseColor) byCode(code() - this.color.ordinal() + color.ordinal());
 	}
 
-	@Override
-	public boolean equals(@Nullable Object o) {
-		if (o != null && o.getClass() == ChooseColor.class) {
-			return this.color == ((ChooseColor) o).color;
-		} else return false;
+	/**
+	 * Returns the mask of all the instances of this wildcard that represent an actual color.
+	 *
+	 * @return The mask of the colored variants of this card.
+	 */
+	public long coloredMask() {
+		return 0xFL << (code() - this.color.ordinal());
 	}
 
 	@Override
@@ -63,13 +107,11 @@ public class ChooseColor extends Card {
 	@Override
 	@NotNull
 	public ChooseColor clone() {
-		ChooseColor result = new ChooseColor();
-		result.setColor(this.color);
-		return result;
+		return this;
 	}
 
 	@Override
-	public int hashCode() {
+	public int code() {
 		return 52 + color.ordinal();
 	}
 
@@ -80,6 +122,10 @@ public class ChooseColor extends Card {
 
 	@Override
 	public void readExternal(@NotNull ObjectInput in) throws IOException {
-		this.color = Color.getByValue(in.readByte());
+		try {
+			COLOR_FIELD.set(this, Color.getByValue(in.readByte()));
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
 	}
 }
@@ -1,7 +1,6 @@
 package eu.tgx03.uno.game.cards;
 
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -63,11 +62,12 @@ public class Default extends Card {
 
 	/**
 	 * Creates a new card.
+	 * Only to be used for creating the canonical instances, otherwise use {@link Card#byCode(int)}.
 	 *
 	 * @param color The color of the new card.
 	 * @param value The number of the new card.
 	 */
-	public Default(@NotNull Color color, byte value) {
+	Default(@NotNull Color color, byte value) {
 		if (color == Color.BLACK || value < 0 || value >= 10) {
 			throw new IllegalArgumentException();
 		}
@@ -76,7 +76,7 @@ public class Default extends Card {
 	}
 
 	@Override
-	public boolean place(@NotNull Card below) {
+	protected boolean placeable(@NotNull Card below) {
 		if (below.color() == this.color) {
 			return true;
 		} else return below instanceof Default d && d.value == this.value;
@@ -89,14 +89,6 @@ public class Default extends Card {
 		return this.color;
 	}
 
-	@Override
-	public boolean equals(@Nullable Object o) {
-		if (o != null && o.getClass() == Default.class) {
-			return ((Default) o).color == this.color && ((Default) o).value == this.value;
-		}
-		return false;
-	}
-
 	@Override
 	@NotNull
 	public String toString() {
@@ -107,12 +99,11 @@ public class Default extends Card {
 	@Override
 	@NotNull
 	public Default clone() {
-		assert this.color != null;
-		return new Default(this.color, this.value);
+		return this;
 	}
 
 	@Override
-	public int hashCode() {
+	public int code() {
 		int start = 0;
 		assert color != null;
 		switch (color) {
@@ -1,7 +1,6 @@
 package eu.tgx03.uno.game.cards;
 
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -51,16 +50,17 @@ public class Reverse extends Card {
 
 	/**
 	 * Creates a new reverse card with the provided color.
+	 * Only to be used for creating the canonical instances, otherwise use {@link Card#byCode(int)}.
 	 *
 	 * @param color The color of the new card.
 	 */
-	public Reverse(@NotNull Color color) {
+	Reverse(@NotNull Color color) {
 		if (color == Color.BLACK) throw new IllegalArgumentException();
 		this.color = color;
 	}
 
 	@Override
-	public boolean place(@NotNull Card below) {
+	protected boolean placeable(@NotNull Card below) {
 		return below.color() == this.color || below instanceof Reverse;
 	}
 
@@ -76,14 +76,6 @@ public class Reverse extends Card {
 		return color;
 	}
 
-	@Override
-	public boolean equals(@Nullable Object o) {
-		if (o != null && o.getClass() == Reverse.class) {
-			return ((Reverse) o).color == this.color;
-		}
-		return false;
-	}
-
 	@Override
 	@NotNull
 	public String toString() {
@@ -94,12 +86,11 @@ public class Reverse extends Card {
 	@Override
 	@NotNull
 	public Reverse clone() {
-		assert this.color != null;
-		return new Reverse(this.color);
+		return this;
 	}
 
 	@Override
-	public int hashCode() {
+	public int code() {
 		assert this.color != null;
 		return 40 + this.color.ordinal();
 	}
@@ -1,7 +1,6 @@
 package eu.tgx03.uno.game.cards;
 
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.io.Serial;
 
@@ -13,16 +12,36 @@ public class TakeFour extends ChooseColor {
 	@Serial
 	private static final long serialVersionUID = 1773201801357025228L;
 
+	/**
+	 * Default constructor for serialization.
+	 * Initializes a take four card without a chosen color.
+	 *
+	 * @deprecated Only to be used during deserialization.
+	 */
+	@Deprecated
+	public TakeFour() {
+		super();
+	}
+
+	/**
+	 * Creates a new take four card representing the provided color.
+	 * Only to be used for creating the canonical instances, otherwise use {@link Card#byCode(int)}.
+	 *
+	 * @param color The color this card represents.
+	 */
+	TakeFour(@NotNull Color color) {
+		super(color);
+	}
+
 	@Override
 	public int penalty() {
 		return 4;
 	}
 
 	@Override
-	public boolean equals(@Nullable Object o) {
-		if (o != null && o.getClass() == TakeFour.class) {
-			return ((TakeFour) o).color() == this.color();
-		} else return false;
+	@NotNull
+	public TakeFour withColor(@NotNull Color color) {
+		return (TakeFour) super.withColor(color);
 	}
 
 	@Override
@@ -34,11 +53,11 @@ public class TakeFour extends ChooseColor {
 	@Override
 	@NotNull
 	public TakeFour clone() {
-		return (TakeFour) super.clone();
+		return this;
 	}
 
 	@Override
-	public int hashCode() {
+	public int code() {
 		return 57 + this.color().ordinal();
 	}
 }
@@ -1,7 +1,6 @@
 package eu.tgx03.uno.game.cards;
 
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.ObjectInput;
@@ -51,16 +50,17 @@ public class TakeTwo extends Card {
 
 	/**
 	 * Creates a new take two card with the provided color.
+	 * Only to be used for creating the canonical instances, otherwise use {@link Card#byCode(int)}.
 	 *
 	 * @param color The color of the new card.
 	 */
-	public TakeTwo(@NotNull Color color) {
+	TakeTwo(@NotNull Color color) {
 		if (color == Color.BLACK) throw new IllegalArgumentException();
 		this.color = color;
 	}
 
 	@Override
-	public boolean place(@NotNull Card below) {
+	protected boolean placeable(@NotNull Card below) {
 		return below.color() == this.color || below instanceof TakeTwo;
 	}
 
@@ -76,14 +76,6 @@ public class TakeTwo extends Card {
 		return color;
 	}
 
-	@Override
-	public boolean equals(@Nullable Object o) {
-		if (o != null && o.getClass() == TakeTwo.class) {
-			return ((TakeTwo) o).color == this.color;
-		}
-		return false;
-	}
-
 	@Override
 	@NotNull
 	public String toString() {
@@ -94,12 +86,11 @@ public class TakeTwo extends Card {
 	@Override
 	@NotNull
 	public TakeTwo clone() {
-		assert this.color != null;
-		return new TakeTwo(this.color);
+		return this;
 	}
 
 	@Override
-	public int hashCode() {
+	public int code() {
 		int start = 48;
 		assert this.color != null;
 		start = start + this.color.ordinal();
@@ -0,0 +1,206 @@
+package eu.tgx03.uno.loadtest;
+
+import eu.tgx03.uno.client.Client;
+import eu.tgx03.uno.client.ClientUpdate;
+import eu.tgx03.uno.game.Player;
+import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.game.cards.Card;
+import eu.tgx03.uno.game.cards.ChooseColor;
+import eu.tgx03.uno.game.cards.Color;
+import eu.tgx03.uno.messaging.CommandResult;
+import eu.tgx03.uno.messaging.Update;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A simulated player driving a {@link Client} through its public API.
+ * Whenever an update says it's its turn, it plays a random fitting card,
+ * stacks if the rules allow it or accepts a penalty, or takes a card if nothing fits.
+ * Wildcards first get a random color which makes them fit.
+ * <p>
+ * The latency of a command is measured until the first update or rejection arriving after it,
+ * which on a single table is the update caused by the command.
+ */
+final class Bot implements ClientUpdate {
+
+	/**
+	 * The client this bot plays through.
+	 */
+	private final Client client;
+	/**
+	 * The rules of the game, which decide whether penalties may be stacked.
+	 */
+	private final Rules rules;
+	/**
+	 * Where to record what happened.
+	 */
+	private final LoadStatistics statistics;
+	/**
+	 * The number generator choosing the moves.
+	 * Guarded by this bot.
+	 */
+	private final SplittableRandom random;
+	/**
+	 * Counted down once the game ended.
+	 */
+	private final CountDownLatch ended;
+	/**
+	 * When the command waiting for an answer has been sent, 0 if there is none.
+	 * Guarded by this bot.
+	 */
+	private long sentAt = 0;
+	/**
+	 * The penalty stack of the last update.
+	 */
+	private volatile int stack = 0;
+	/**
+	 * Whether the bot shall stop making moves.
+	 */
+	private volatile boolean stopped = false;
+
+	/**
+	 * Creates a new bot and registers it with its client.
+	 *
+	 * @param client     The client to play through.
+	 * @param rules      The rules of the game.
+	 * @param statistics Where to record what happened.
+	 * @param random     The number generator choosing the moves.
+	 * @param ended      The latch to count down once the game ended.
+	 */
+	Bot(@NotNull Client client, @NotNull Rules rules, @NotNull LoadStatistics statistics, @NotNull SplittableRandom random, @NotNull CountDownLatch ended) {
+		this.client = client;
+		this.rules = rules;
+		this.statistics = statistics;
+		this.random = random;
+		this.ended = ended;
+		client.registerReceiver(this);
+	}
+
+	/**
+	 * Makes the bot stop making moves.
+	 */
+	void stop() {
+		stopped = true;
+	}
+
+	@Override
+	public void update(@NotNull Update update) {
+		statistics.updates.increment();
+		answered();
+		stack = update.stack;
+		if (update.ended || update.player.cardCount() == 0) {   // Like the simulator, the first winner ends the game
+			ended.countDown();
+			return;
+		}
+		if (update.turn && !stopped) act(update);
+	}
+
+	@Override
+	public void result(@NotNull CommandResult result) {
+		if (result.accepted()) return;
+		statistics.rejected.increment();
+		answered();
+		if (stopped) return;
+		try {
+			send(stack > 0 ? client::acceptCards : client::takeCard);   // Whatever went wrong, this is always possible
+		} catch (IOException e) {
+			handleException(e);
+		}
+	}
+
+	@Override
+	public void handleException(@NotNull Throwable exception) {
+		if (!stopped) statistics.errors.increment();   // Once stopped, the connection is torn down on purpose
+	}
+
+	/**
+	 * Chooses and sends a move.
+	 *
+	 * @param update The update saying it's the turn of this bot.
+	 */
+	private void act(@NotNull Update update) {
+		Player hand = update.player;
+		long legal;
+		if (update.stack == 0) legal = Card.placeMask(update.topCard);
+		else legal = rules.stacking ? Card.stackMask(update.topCard) : 0;
+		long options = hand.heldCards() & legal;
+		for (Card card : hand.getCards()) {
+			if (card.color() == Color.BLACK && (((ChooseColor) card).coloredMask() & legal) != 0) options |= card.bit();
+		}
+		try {
+			if (options == 0) {
+				send(update.stack > 0 ? client::acceptCards : client::takeCard);
+				return;
+			}
+			Card card;
+			Color color;
+			synchronized (this) {
+				card = Card.byCode(pick(options));
+				color = card.color() == Color.BLACK ? Card.byCode(pick(((ChooseColor) card).coloredMask() & legal)).color() : null;
+			}
+			int index = hand.indexOf(card);
+			if (color != null) send(() -> client.selectColor(index, color));
+			else send(() -> client.play(index));
+		} catch (IOException e) {
+			handleException(e);
+		}
+	}
+
+	/**
+	 * Picks a random card out of a mask.
+	 * Must be called while holding this bot.
+	 *
+	 * @param mask The mask of the cards to choose from, not empty.
+	 * @return The code of the chosen card.
+	 */
+	private int pick(long mask) {
+		int skip = random.nextInt(Long.bitCount(mask));
+		for (int i = 0; i < skip; i++) {
+			mask &= mask - 1;
+		}
+		return Long.numberOfTrailingZeros(mask);
+	}
+
+	/**
+	 * Sends a command and remembers when it has been sent.
+	 *
+	 * @param command The call sending the command.
+	 * @throws IOException When sending failed.
+	 */
+	private void send(@NotNull Command command) throws IOException {
+		synchronized (this) {
+			sentAt = System.nanoTime();
+		}
+		command.send();
+		statistics.commands.increment();
+	}
+
+	/**
+	 * Records the latency of the command waiting for an answer, if there is one.
+	 */
+	private void answered() {
+		long sent;
+		synchronized (this) {
+			sent = sentAt;
+			sentAt = 0;
+		}
+		if (sent != 0) statistics.latencies.record(System.nanoTime() - sent);
+	}
+
+	/**
+	 * A call to the client sending a command.
+	 */
+	@FunctionalInterface
+	private interface Command {
+
+		/**
+		 * Sends the command.
+		 *
+		 * @throws IOException When sending failed.
+		 */
+		void send() throws IOException;
+	}
+}
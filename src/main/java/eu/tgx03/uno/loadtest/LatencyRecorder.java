@@ -0,0 +1,57 @@
+package eu.tgx03.uno.loadtest;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples from many threads and calculates exact percentiles from them.
+ * Every sample costs 8 bytes, which is fine for the length of a load test.
+ */
+final class LatencyRecorder {
+
+	/**
+	 * The recorded samples in nanoseconds.
+	 * Guarded by this recorder.
+	 */
+	private long[] samples = new long[1024];
+	/**
+	 * How many samples have been recorded.
+	 * Guarded by this recorder.
+	 */
+	private int count = 0;
+
+	/**
+	 * Records a sample.
+	 *
+	 * @param nanos The measured latency in nanoseconds.
+	 */
+	synchronized void record(long nanos) {
+		if (count == samples.length) samples = Arrays.copyOf(samples, count * 2);
+		samples[count++] = nanos;
+	}
+
+	/**
+	 * Returns a sorted copy of all the samples.
+	 *
+	 * @return The samples recorded so far, in ascending order.
+	 */
+	synchronized long @NotNull [] sorted() {
+		long[] sorted = Arrays.copyOf(samples, count);
+		Arrays.sort(sorted);
+		return sorted;
+	}
+
+	/**
+	 * Returns a percentile of sorted samples, using the nearest rank.
+	 *
+	 * @param sorted     The samples in ascending order.
+	 * @param percentile The percentile between 0 and 100.
+	 * @return The sample at that percentile or 0 if there are none.
+	 */
+	static long percentile(long @NotNull [] sorted, double percentile) {
+		if (sorted.length == 0) return 0;
+		int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+		return sorted[Math.clamp(rank - 1, 0, sorted.length - 1)];
+	}
+}
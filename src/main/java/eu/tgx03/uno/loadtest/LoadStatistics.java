@@ -0,0 +1,50 @@
+package eu.tgx03.uno.loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters all the bots and relays of a load test record into.
+ */
+final class LoadStatistics {
+
+	/**
+	 * How many commands have been sent.
+	 */
+	final LongAdder commands = new LongAdder();
+	/**
+	 * How many commands the servers rejected.
+	 */
+	final LongAdder rejected = new LongAdder();
+	/**
+	 * How many updates the clients received.
+	 */
+	final LongAdder updates = new LongAdder();
+	/**
+	 * How many games have been played until the end.
+	 */
+	final LongAdder games = new LongAdder();
+	/**
+	 * How many errors the clients and servers reported.
+	 */
+	final LongAdder errors = new LongAdder();
+	/**
+	 * How many bytes the clients sent to the servers.
+	 */
+	final LongAdder bytesToServer = new LongAdder();
+	/**
+	 * How many bytes the servers sent to the clients.
+	 */
+	final LongAdder bytesToClients = new LongAdder();
+	/**
+	 * How many datagrams or stream chunks the clients sent to the servers.
+	 */
+	final LongAdder packetsToServer = new LongAdder();
+	/**
+	 * How many datagrams or stream chunks the servers sent to the clients.
+	 */
+	final LongAdder packetsToClients = new LongAdder();
+	/**
+	 * The time from sending a command until its update arrived.
+	 */
+	final LatencyRecorder latencies = new LatencyRecorder();
+}
@@ -0,0 +1,180 @@
+package eu.tgx03.uno.loadtest;
+
+import eu.tgx03.uno.client.Client;
+import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.server.Server;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays games between bots over real servers and clients on the loopback interface
+ * and measures how the transport holds up.
+ * Every table runs one game after another on a server of its own until the time is up,
+ * with a {@link Relay} in front of it counting the bytes.
+ */
+public final class LoadTest {
+
+	/**
+	 * How long to wait for all players of a table to join.
+	 */
+	private static final Duration JOIN_TIMEOUT = Duration.ofSeconds(5);
+
+	/**
+	 * The transport to test.
+	 */
+	private final Transport transport;
+	/**
+	 * How many games run at the same time.
+	 */
+	private final int tables;
+	/**
+	 * How many players sit at each table.
+	 */
+	private final int players;
+	/**
+	 * How long the test runs.
+	 */
+	private final Duration duration;
+
+	/**
+	 * Creates a new load test.
+	 *
+	 * @param transport The transport to test.
+	 * @param tables    How many games run at the same time.
+	 * @param players   How many players sit at each table.
+	 * @param duration  How long the test runs.
+	 */
+	public LoadTest(@NotNull Transport transport, int tables, int players, @NotNull Duration duration) {
+		if (tables < 1 || players < 2) throw new IllegalArgumentException("Need at least one table with two players");
+		this.transport = transport;
+		this.tables = tables;
+		this.players = players;
+		this.duration = duration;
+	}
+
+	/**
+	 * Runs the load test and blocks until it's over.
+	 *
+	 * @param seed The seed for the moves of the bots.
+	 * @return What has been measured.
+	 * @throws InterruptedException When interrupted while waiting for the tables.
+	 */
+	@NotNull
+	public Report run(long seed) throws InterruptedException {
+		LoadStatistics statistics = new LoadStatistics();
+		SplittableRandom random = new SplittableRandom(seed);
+		long begin = System.nanoTime();
+		long deadline = begin + duration.toNanos();
+		List<Thread> threads = new ArrayList<>(tables);
+		for (int i = 0; i < tables; i++) {
+			SplittableRandom tableRandom = random.split();
+			threads.add(Thread.ofVirtual().name("LoadTest-Table-" + i).start(() -> table(deadline, tableRandom, statistics)));
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		return Report.of(transport, tables, players, System.nanoTime() - begin, statistics);
+	}
+
+	/**
+	 * Plays one game after another at a table until the deadline.
+	 *
+	 * @param deadline   When to stop, as given by {@link System#nanoTime()}.
+	 * @param random     The number generator for the bots of this table.
+	 * @param statistics Where to record what happened.
+	 */
+	private void table(long deadline, @NotNull SplittableRandom random, @NotNull LoadStatistics statistics) {
+		while (System.nanoTime() < deadline) {
+			try {
+				play(deadline, random, statistics);
+			} catch (IOException e) {
+				statistics.errors.increment();
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Sets up a server with its players, plays a game until its end or the deadline and tears everything down.
+	 *
+	 * @param deadline   When to stop, as given by {@link System#nanoTime()}.
+	 * @param random     The number generator for the bots.
+	 * @param statistics Where to record what happened.
+	 * @throws IOException          When the game couldn't be set up.
+	 * @throws InterruptedException When interrupted while waiting for the game.
+	 */
+	private void play(long deadline, @NotNull SplittableRandom random, @NotNull LoadStatistics statistics) throws IOException, InterruptedException {
+		CountDownLatch ended = new CountDownLatch(1);
+		Rules rules = new Rules();
+		Server server = transport.startServer(rules);
+		server.registerExceptionHandler(e -> {
+			if (ended.getCount() > 0) statistics.errors.increment();
+		});
+		List<Client> clients = new ArrayList<>(players);
+		List<Bot> bots = new ArrayList<>(players);
+		try (Relay relay = Relay.open(transport.datagrams, Transport.port(server), statistics)) {
+			try {
+				for (int i = 0; i < players; i++) {
+					Client client = transport.connect(relay.port());
+					clients.add(client);
+					bots.add(new Bot(client, rules, statistics, random.split(), ended));
+				}
+				long joined = System.nanoTime() + JOIN_TIMEOUT.toNanos();
+				while (server.getPlayerCount() < players) {
+					if (System.nanoTime() > joined) throw new IOException("Players didn't join in time");
+					Thread.sleep(1);
+				}
+				server.start();
+				if (ended.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) statistics.games.increment();
+			} finally {
+				ended.countDown();   // From here on, failures are caused by the teardown
+				bots.forEach(Bot::stop);
+				server.kill();   // Before the clients, so it can still write its final updates
+				clients.forEach(Client::kill);
+			}
+		}
+	}
+
+	/**
+	 * Runs load tests from the command line and prints their reports as a JSON array.
+	 * Expects the seconds to run each transport, the amount of tables, the players per table
+	 * and optionally the transports to test, for example "10 8 4 SOCKET_BINARY UDP_BINARY".
+	 * Without transports, all of them are tested one after another.
+	 *
+	 * @param args The duration, tables, players and transports.
+	 * @throws InterruptedException When interrupted while testing.
+	 */
+	public static void main(@NotNull String @NotNull [] args) throws InterruptedException {
+		if (args.length < 3) {
+			System.err.println("Usage: LoadTest <seconds> <tables> <players> [transport...]");
+			return;
+		}
+		Duration duration = Duration.ofSeconds(Long.parseLong(args[0]));
+		int tables = Integer.parseInt(args[1]);
+		int players = Integer.parseInt(args[2]);
+		Transport[] transports;
+		if (args.length == 3) transports = Transport.values();
+		else {
+			transports = new Transport[args.length - 3];
+			for (int i = 3; i < args.length; i++) {
+				transports[i - 3] = Transport.valueOf(args[i]);
+			}
+		}
+		long seed = System.nanoTime();
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = 0; i < transports.length; i++) {
+			if (i > 0) builder.append(',').append(System.lineSeparator());
+			builder.append(new LoadTest(transports[i], tables, players, duration).run(seed).toJson());
+		}
+		System.out.println(builder.append(']'));
+		System.exit(0);   // Daemon threads of the clients and servers may linger
+	}
+}
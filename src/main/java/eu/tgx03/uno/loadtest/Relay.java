@@ -0,0 +1,281 @@
+package eu.tgx03.uno.loadtest;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sits between the clients and a server on the loopback interface and counts the bytes passing through,
+ * as neither side keeps track of them.
+ * Only payload gets counted, without the headers of IP, TCP or UDP.
+ */
+abstract sealed class Relay implements Closeable {
+
+	/**
+	 * The size of the buffers data gets relayed through.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The address of the server.
+	 */
+	final InetSocketAddress target;
+	/**
+	 * Where to count the relayed bytes.
+	 */
+	final LoadStatistics statistics;
+	/**
+	 * Whether the relay has been closed.
+	 */
+	volatile boolean closed = false;
+
+	/**
+	 * Creates a new relay.
+	 *
+	 * @param port       The port of the server on the loopback interface.
+	 * @param statistics Where to count the relayed bytes.
+	 */
+	private Relay(int port, @NotNull LoadStatistics statistics) {
+		this.target = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Opens a relay in front of a server.
+	 *
+	 * @param datagrams  Whether the server uses datagrams instead of a stream.
+	 * @param port       The port of the server on the loopback interface.
+	 * @param statistics Where to count the relayed bytes.
+	 * @return The running relay.
+	 * @throws IOException When the relay couldn't be set up.
+	 */
+	@NotNull
+	static Relay open(boolean datagrams, int port, @NotNull LoadStatistics statistics) throws IOException {
+		return datagrams ? new Datagrams(port, statistics) : new Streams(port, statistics);
+	}
+
+	/**
+	 * Returns the port clients have to connect to instead of the server.
+	 *
+	 * @return The port of the relay on the loopback interface.
+	 */
+	abstract int port();
+
+	/**
+	 * Closes something without caring about failures.
+	 *
+	 * @param closeable What to close.
+	 */
+	static void closeQuietly(@NotNull Closeable closeable) {
+		try {
+			closeable.close();
+		} catch (IOException ignored) {
+		}
+	}
+
+	/**
+	 * Relays TCP connections, copying the data of each direction on a virtual thread of its own.
+	 */
+	private static final class Streams extends Relay {
+
+		/**
+		 * The socket the clients connect to.
+		 */
+		private final ServerSocket listener;
+		/**
+		 * All the sockets opened by this relay.
+		 */
+		private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+		/**
+		 * Creates and starts a new stream relay.
+		 *
+		 * @param port       The port of the server.
+		 * @param statistics Where to count the relayed bytes.
+		 * @throws IOException When the relay couldn't be set up.
+		 */
+		private Streams(int port, @NotNull LoadStatistics statistics) throws IOException {
+			super(port, statistics);
+			listener = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+			Thread.ofVirtual().name("Relay-Accept").start(this::accept);
+		}
+
+		@Override
+		int port() {
+			return listener.getLocalPort();
+		}
+
+		/**
+		 * Accepts clients and connects each of them to the server.
+		 */
+		private void accept() {
+			while (!closed) {
+				try {
+					Socket client = listener.accept();
+					Socket server = new Socket(target.getAddress(), target.getPort());
+					client.setTcpNoDelay(true);
+					server.setTcpNoDelay(true);
+					sockets.add(client);
+					sockets.add(server);
+					Thread.ofVirtual().name("Relay-Up").start(() -> pump(client, server, statistics.bytesToServer, statistics.packetsToServer));
+					Thread.ofVirtual().name("Relay-Down").start(() -> pump(server, client, statistics.bytesToClients, statistics.packetsToClients));
+				} catch (IOException e) {
+					if (!closed) statistics.errors.increment();
+				}
+			}
+		}
+
+		/**
+		 * Copies everything from one socket to another until either gets closed, then closes both.
+		 *
+		 * @param from    The socket to read from.
+		 * @param to      The socket to write to.
+		 * @param bytes   Where to count the bytes.
+		 * @param packets Where to count the chunks read at once.
+		 */
+		private void pump(@NotNull Socket from, @NotNull Socket to, @NotNull LongAdder bytes, @NotNull LongAdder packets) {
+			byte[] buffer = new byte[BUFFER_SIZE];
+			try {
+				InputStream input = from.getInputStream();
+				OutputStream output = to.getOutputStream();
+				int read;
+				while ((read = input.read(buffer)) >= 0) {
+					output.write(buffer, 0, read);
+					bytes.add(read);
+					packets.increment();
+				}
+			} catch (IOException ignored) {   // One of the sides left
+			} finally {
+				closeQuietly(from);
+				closeQuietly(to);
+			}
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			closeQuietly(listener);
+			for (Socket socket : sockets) closeQuietly(socket);
+		}
+	}
+
+	/**
+	 * Relays UDP datagrams, giving every client a socket of its own towards the server,
+	 * so the server can tell them apart by address.
+	 */
+	private static final class Datagrams extends Relay {
+
+		/**
+		 * The channel the clients send to.
+		 */
+		private final DatagramChannel listener;
+		/**
+		 * The channel towards the server of each client.
+		 */
+		private final Map<SocketAddress, DatagramChannel> upstreams = new ConcurrentHashMap<>();
+
+		/**
+		 * Creates and starts a new datagram relay.
+		 *
+		 * @param port       The port of the server.
+		 * @param statistics Where to count the relayed bytes.
+		 * @throws IOException When the relay couldn't be set up.
+		 */
+		private Datagrams(int port, @NotNull LoadStatistics statistics) throws IOException {
+			super(port, statistics);
+			listener = DatagramChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+			Thread.ofVirtual().name("Relay-Up").start(this::up);
+		}
+
+		@Override
+		int port() {
+			return listener.socket().getLocalPort();
+		}
+
+		/**
+		 * Forwards the datagrams of the clients to the server.
+		 */
+		private void up() {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			while (!closed) {
+				try {
+					SocketAddress client = listener.receive(buffer.clear());
+					DatagramChannel upstream = upstreams.get(client);
+					if (upstream == null) {
+						upstream = DatagramChannel.open().connect(target);
+						upstreams.put(client, upstream);
+						DatagramChannel channel = upstream;
+						Thread.ofVirtual().name("Relay-Down").start(() -> down(client, channel));
+					}
+					statistics.bytesToServer.add(buffer.flip().remaining());
+					statistics.packetsToServer.increment();
+					try {
+						upstream.write(buffer);
+					} catch (PortUnreachableException e) {
+						end(client, upstream);
+					}
+				} catch (IOException e) {
+					if (!closed) statistics.errors.increment();
+				}
+			}
+		}
+
+		/**
+		 * Forwards the datagrams of the server to a client.
+		 *
+		 * @param client   The address of the client.
+		 * @param upstream The channel towards the server of that client.
+		 */
+		private void down(@NotNull SocketAddress client, @NotNull DatagramChannel upstream) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+			while (!closed) {
+				try {
+					upstream.read(buffer.clear());
+					statistics.bytesToClients.add(buffer.flip().remaining());
+					statistics.packetsToClients.increment();
+					listener.send(buffer, client);
+				} catch (PortUnreachableException e) {
+					end(client, upstream);
+					return;
+				} catch (IOException e) {
+					if (!closed && upstreams.get(client) == upstream) statistics.errors.increment();
+					return;
+				}
+			}
+		}
+
+		/**
+		 * Drops the channel of a client once the server is gone, which happens when a finished table closes its server.
+		 *
+		 * @param client   The address of the client.
+		 * @param upstream The channel towards the server of that client.
+		 */
+		private void end(@NotNull SocketAddress client, @NotNull DatagramChannel upstream) {
+			upstreams.remove(client, upstream);
+			closeQuietly(upstream);
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+			closeQuietly(listener);
+			for (DatagramChannel upstream : upstreams.values()) closeQuietly(upstream);
+		}
+	}
+}
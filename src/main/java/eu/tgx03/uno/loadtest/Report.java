@@ -0,0 +1,120 @@
+package eu.tgx03.uno.loadtest;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+
+/**
+ * The results of a load test against one transport.
+ * Latencies are given in microseconds and bytes are the payload without any protocol headers.
+ *
+ * @param transport        The transport that has been tested.
+ * @param tables           How many games ran at the same time.
+ * @param players          How many players sat at each table.
+ * @param nanos            How long the test ran.
+ * @param commands         How many commands have been sent.
+ * @param rejected         How many commands the servers rejected.
+ * @param updates          How many updates the clients received.
+ * @param games            How many games have been played until the end.
+ * @param errors           How many errors the clients and servers reported.
+ * @param latencies        How many latencies have been measured.
+ * @param p50              The median latency.
+ * @param p90              The 90th percentile of the latencies.
+ * @param p99              The 99th percentile of the latencies.
+ * @param p999             The 99.9th percentile of the latencies.
+ * @param max              The highest latency.
+ * @param mean             The mean latency.
+ * @param bytesToServer    How many bytes the clients sent.
+ * @param bytesToClients   How many bytes the servers sent.
+ * @param packetsToServer  How many datagrams or stream chunks the clients sent.
+ * @param packetsToClients How many datagrams or stream chunks the servers sent.
+ */
+public record Report(@NotNull Transport transport, int tables, int players, long nanos,
+                     long commands, long rejected, long updates, long games, long errors,
+                     long latencies, double p50, double p90, double p99, double p999, double max, double mean,
+                     long bytesToServer, long bytesToClients, long packetsToServer, long packetsToClients) {
+
+	/**
+	 * Sums up the statistics of a finished load test.
+	 *
+	 * @param transport  The transport that has been tested.
+	 * @param tables     How many games ran at the same time.
+	 * @param players    How many players sat at each table.
+	 * @param nanos      How long the test ran.
+	 * @param statistics What has been recorded during the test.
+	 * @return The report of the test.
+	 */
+	@NotNull
+	static Report of(@NotNull Transport transport, int tables, int players, long nanos, @NotNull LoadStatistics statistics) {
+		long[] sorted = statistics.latencies.sorted();
+		long sum = 0;
+		for (long latency : sorted) sum += latency;
+		return new Report(transport, tables, players, nanos,
+				statistics.commands.sum(), statistics.rejected.sum(), statistics.updates.sum(), statistics.games.sum(), statistics.errors.sum(),
+				sorted.length,
+				micros(LatencyRecorder.percentile(sorted, 50)),
+				micros(LatencyRecorder.percentile(sorted, 90)),
+				micros(LatencyRecorder.percentile(sorted, 99)),
+				micros(LatencyRecorder.percentile(sorted, 99.9)),
+				micros(sorted.length == 0 ? 0 : sorted[sorted.length - 1]),
+				sorted.length == 0 ? 0 : micros(sum) / sorted.length,
+				statistics.bytesToServer.sum(), statistics.bytesToClients.sum(),
+				statistics.packetsToServer.sum(), statistics.packetsToClients.sum());
+	}
+
+	/**
+	 * Converts nanoseconds to microseconds.
+	 *
+	 * @param nanos The time in nanoseconds.
+	 * @return The time in microseconds.
+	 */
+	private static double micros(long nanos) {
+		return nanos / 1e3;
+	}
+
+	/**
+	 * @return How many commands have been sent per second.
+	 */
+	public double commandsPerSecond() {
+		return nanos == 0 ? 0 : commands * 1e9 / nanos;
+	}
+
+	/**
+	 * @return How many updates have been received per second.
+	 */
+	public double updatesPerSecond() {
+		return nanos == 0 ? 0 : updates * 1e9 / nanos;
+	}
+
+	/**
+	 * @return How many bytes went over the wire in both directions for each command.
+	 */
+	public double bytesPerCommand() {
+		return commands == 0 ? 0 : (double) (bytesToServer + bytesToClients) / commands;
+	}
+
+	/**
+	 * Writes this report as a single JSON object.
+	 *
+	 * @return The JSON representation of this report.
+	 */
+	@NotNull
+	public String toJson() {
+		return String.format(Locale.ROOT, "{\"transport\":\"%s\",\"tables\":%d,\"players\":%d,\"seconds\":%.3f,"
+						+ "\"commands\":%d,\"rejected\":%d,\"updates\":%d,\"games\":%d,\"errors\":%d,"
+						+ "\"commandsPerSecond\":%.1f,\"updatesPerSecond\":%.1f,"
+						+ "\"latencyMicros\":{\"samples\":%d,\"p50\":%.1f,\"p90\":%.1f,\"p99\":%.1f,\"p999\":%.1f,\"max\":%.1f,\"mean\":%.1f},"
+						+ "\"bytesToServer\":%d,\"bytesToClients\":%d,\"packetsToServer\":%d,\"packetsToClients\":%d,\"bytesPerCommand\":%.1f}",
+				transport.name(), tables, players, nanos / 1e9,
+				commands, rejected, updates, games, errors,
+				commandsPerSecond(), updatesPerSecond(),
+				latencies, p50, p90, p99, p999, max, mean,
+				bytesToServer, bytesToClients, packetsToServer, packetsToClients, bytesPerCommand());
+	}
+
+	@Override
+	@NotNull
+	public String toString() {
+		return toJson();
+	}
+}
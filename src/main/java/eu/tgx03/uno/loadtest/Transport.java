@@ -0,0 +1,195 @@
+package eu.tgx03.uno.loadtest;
+
+import eu.tgx03.uno.client.Client;
+import eu.tgx03.uno.client.SocketClient;
+import eu.tgx03.uno.client.UDPClient;
+import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.messaging.WireFormat;
+import eu.tgx03.uno.server.NioSocketServer;
+import eu.tgx03.uno.server.Server;
+import eu.tgx03.uno.server.SocketServer;
+import eu.tgx03.uno.server.UDPServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * The combinations of server, client and wire format a load test can run against.
+ */
+public enum Transport {
+
+	/**
+	 * A {@link SocketServer} exchanging serialized Java objects.
+	 */
+	SOCKET_JAVA(false) {
+		@Override
+		@NotNull Server createServer(@NotNull Rules rules) throws IOException {
+			return new SocketServer(0, rules, WireFormat.JAVA);
+		}
+
+		@Override
+		@NotNull Client createClient(int port) throws IOException {
+			return new SocketClient(LOOPBACK, port, WireFormat.JAVA);
+		}
+	},
+	/**
+	 * A {@link SocketServer} exchanging the binary format.
+	 */
+	SOCKET_BINARY(false) {
+		@Override
+		@NotNull Server createServer(@NotNull Rules rules) throws IOException {
+			return new SocketServer(0, rules, WireFormat.BINARY);
+		}
+
+		@Override
+		@NotNull Client createClient(int port) throws IOException {
+			return new SocketClient(LOOPBACK, port, WireFormat.BINARY);
+		}
+	},
+	/**
+	 * A {@link SocketServer} sending deltas in the binary format.
+	 */
+	SOCKET_DELTA(false) {
+		@Override
+		@NotNull Server createServer(@NotNull Rules rules) throws IOException {
+			return new SocketServer(0, rules, WireFormat.BINARY, true);
+		}
+
+		@Override
+		@NotNull Client createClient(int port) throws IOException {
+			return new SocketClient(LOOPBACK, port, WireFormat.BINARY);
+		}
+	},
+	/**
+	 * A {@link NioSocketServer}, which always uses the binary format.
+	 */
+	NIO(false) {
+		@Override
+		@NotNull Server createServer(@NotNull Rules rules) throws IOException {
+			return new NioSocketServer(0, rules, 1);
+		}
+
+		@Override
+		@NotNull Client createClient(int port) throws IOException {
+			return new SocketClient(LOOPBACK, port, WireFormat.BINARY);
+		}
+	},
+	/**
+	 * A {@link UDPServer} exchanging serialized Java objects.
+	 */
+	UDP_JAVA(true) {
+		@Override
+		@NotNull Server createServer(@NotNull Rules rules) throws IOException {
+			return new UDPServer(0, rules, WireFormat.JAVA);
+		}
+
+		@Override
+		@NotNull Client createClient(int port) throws IOException {
+			return new UDPClient(LOOPBACK, port, false, WireFormat.JAVA);
+		}
+	},
+	/**
+	 * A {@link UDPServer} exchanging the binary format.
+	 */
+	UDP_BINARY(true) {
+		@Override
+		@NotNull Server createServer(@NotNull Rules rules) throws IOException {
+			return new UDPServer(0, rules, WireFormat.BINARY);
+		}
+
+		@Override
+		@NotNull Client createClient(int port) throws IOException {
+			return new UDPClient(LOOPBACK, port, false, WireFormat.BINARY);
+		}
+	};
+
+	/**
+	 * The address everything runs on.
+	 */
+	static final String LOOPBACK = "127.0.0.1";
+
+	/**
+	 * Whether this transport uses datagrams instead of a stream.
+	 */
+	final boolean datagrams;
+
+	/**
+	 * Creates a new transport.
+	 *
+	 * @param datagrams Whether the transport uses datagrams.
+	 */
+	Transport(boolean datagrams) {
+		this.datagrams = datagrams;
+	}
+
+	/**
+	 * Creates a server on a free port of the loopback interface, with its threads already running.
+	 *
+	 * @param rules The rules of the game.
+	 * @return The new server.
+	 * @throws IOException When the server couldn't be set up.
+	 */
+	@NotNull
+	final Server startServer(@NotNull Rules rules) throws IOException {
+		Server server = createServer(rules);
+		if (server instanceof UDPServer udp) {
+			Thread thread = new Thread(udp, "LoadTest-UDPHost");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		return server;
+	}
+
+	/**
+	 * Connects a client to a server and starts its receiving thread.
+	 *
+	 * @param port The port of the server.
+	 * @return The new client.
+	 * @throws IOException When the client couldn't connect.
+	 */
+	@NotNull
+	final Client connect(int port) throws IOException {
+		Client client = createClient(port);
+		if (client instanceof UDPClient) {
+			Thread thread = new Thread(client, "LoadTest-UDPClient");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		return client;
+	}
+
+	/**
+	 * Returns the port a server of this transport listens on.
+	 *
+	 * @param server A server created by this transport.
+	 * @return The port of the server.
+	 */
+	static int port(@NotNull Server server) {
+		return switch (server) {
+			case SocketServer socket -> socket.getPort();
+			case NioSocketServer nio -> nio.getPort();
+			case UDPServer udp -> udp.getPort();
+			default -> throw new IllegalArgumentException("Unknown server " + server);
+		};
+	}
+
+	/**
+	 * Creates the server of this transport on a free port.
+	 *
+	 * @param rules The rules of the game.
+	 * @return The new server.
+	 * @throws IOException When the server couldn't be set up.
+	 */
+	@NotNull
+	abstract Server createServer(@NotNull Rules rules) throws IOException;
+
+	/**
+	 * Creates a client of this transport.
+	 *
+	 * @param port The port of the server.
+	 * @return The new client.
+	 * @throws IOException When the client couldn't connect.
+	 */
+	@NotNull
+	abstract Client createClient(int port) throws IOException;
+}
@@ -0,0 +1,28 @@
+package eu.tgx03.uno.logging;
+
+/**
+ * How important a log entry is.
+ * Entries below the level of the {@link LogBuffer} get dropped right away.
+ */
+public enum Level {
+	/**
+	 * Everything that happens, like every received message.
+	 */
+	TRACE,
+	/**
+	 * Details useful when looking for a bug.
+	 */
+	DEBUG,
+	/**
+	 * Notable events, like a game starting.
+	 */
+	INFO,
+	/**
+	 * Something went wrong, but got handled.
+	 */
+	WARN,
+	/**
+	 * Something went wrong and couldn't be handled.
+	 */
+	ERROR
+}
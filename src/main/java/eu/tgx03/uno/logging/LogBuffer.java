@@ -0,0 +1,363 @@
+package eu.tgx03.uno.logging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Collects log entries in a ring buffer and writes them on a background thread,
+ * so logging never blocks on the output and doesn't format anything on the calling thread.
+ * <p>
+ * Logging only claims a preallocated entry and fills in its fields.
+ * If the writer falls so far behind that the ring is full, new entries get dropped and counted,
+ * the writer then reports how many got lost.
+ * <p>
+ * The {@link #shared()} buffer gets configured through system properties:
+ * "uno.log.level" sets the {@link Level}, INFO by default,
+ * "uno.log.format" the {@link LogFormat}, TEXT by default,
+ * and "uno.log.file" a file to append to instead of the standard output.
+ */
+public final class LogBuffer implements Closeable {
+
+	/**
+	 * How many entries the shared buffer holds.
+	 */
+	public static final int DEFAULT_CAPACITY = 8192;
+	/**
+	 * How long the writer sleeps at most while there is nothing to write.
+	 */
+	private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	/**
+	 * How long closing waits for the remaining entries to be written.
+	 */
+	private static final long CLOSE_MILLIS = 1000;
+
+	/**
+	 * The entries, reused round after round.
+	 */
+	private final Entry[] entries;
+	/**
+	 * Selects the entry of a sequence, the capacity is a power of two.
+	 */
+	private final int mask;
+	/**
+	 * The sequence the next entry gets claimed with.
+	 */
+	private final AtomicLong claimed = new AtomicLong();
+	/**
+	 * The sequence of the next entry to be written, every entry before it can be reused.
+	 */
+	private volatile long consumed = 0;
+	/**
+	 * How many entries have been dropped because the ring was full.
+	 */
+	private final LongAdder dropped = new LongAdder();
+	/**
+	 * The lowest level which gets written.
+	 */
+	private volatile Level level;
+	/**
+	 * The format entries get written in.
+	 */
+	private final LogFormat format;
+	/**
+	 * The stream entries get written to. Only used by the writer.
+	 */
+	private final DataOutputStream output;
+	/**
+	 * The thread writing the entries.
+	 */
+	private final Thread writer;
+	/**
+	 * Whether the writer is about to sleep, so loggers have to wake it up.
+	 */
+	private volatile boolean sleeping = false;
+	/**
+	 * Whether this buffer has been closed.
+	 */
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates a new buffer and starts its writer.
+	 *
+	 * @param capacity How many entries the ring holds, rounded up to a power of two.
+	 * @param level    The lowest level to write.
+	 * @param format   The format to write the entries in.
+	 * @param output   The stream to write to, which gets flushed but never closed.
+	 */
+	public LogBuffer(int capacity, @NotNull Level level, @NotNull LogFormat format, @NotNull OutputStream output) {
+		if (capacity < 1 || capacity > 1 << 30) throw new IllegalArgumentException("Invalid capacity " + capacity);
+		int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+		this.entries = new Entry[size];
+		for (int i = 0; i < size; i++) entries[i] = new Entry();
+		this.mask = size - 1;
+		this.level = level;
+		this.format = format;
+		this.output = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+		this.writer = Thread.ofPlatform().name("Log-Writer").daemon().unstarted(this::write);
+		this.writer.start();
+	}
+
+	/**
+	 * Returns the buffer shared by the whole application, creating it on first use.
+	 *
+	 * @return The shared buffer.
+	 */
+	@NotNull
+	public static LogBuffer shared() {
+		return Shared.BUFFER;
+	}
+
+	/**
+	 * Returns a logger writing to this buffer.
+	 *
+	 * @param name The name of the logger.
+	 * @return The new logger.
+	 */
+	@NotNull
+	public Logger logger(@NotNull String name) {
+		return new Logger(this, name, -1);
+	}
+
+	/**
+	 * Sets the lowest level which gets written.
+	 *
+	 * @param level The new level.
+	 */
+	public void setLevel(@NotNull Level level) {
+		this.level = level;
+	}
+
+	/**
+	 * Whether entries of a level get written.
+	 *
+	 * @param level The level to check.
+	 * @return Whether the level is at least the configured one.
+	 */
+	boolean isEnabled(@NotNull Level level) {
+		return level.compareTo(this.level) >= 0 && !closed;
+	}
+
+	/**
+	 * Returns how many entries have been dropped because the writer didn't keep up.
+	 *
+	 * @return The amount of dropped entries.
+	 */
+	public long dropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Claims an entry, fills it in and hands it to the writer.
+	 * Never blocks, drops the entry if the ring is full.
+	 *
+	 * @param logger   The logger of the entry.
+	 * @param level    The level of the entry.
+	 * @param template The message.
+	 * @param arity    How many arguments the message has, 0, 1 or 2.
+	 * @param value    The first argument.
+	 * @param argument The second argument.
+	 */
+	void publish(@NotNull Logger logger, @NotNull Level level, @NotNull String template, int arity, long value, @Nullable Object argument) {
+		long sequence;
+		do {
+			sequence = claimed.get();
+			if (sequence - consumed >= entries.length) {
+				dropped.increment();
+				return;
+			}
+		} while (!claimed.compareAndSet(sequence, sequence + 1));
+		Entry entry = entries[(int) sequence & mask];
+		entry.time = System.currentTimeMillis();
+		entry.level = level;
+		entry.thread = Thread.currentThread();
+		entry.logger = logger;
+		entry.template = template;
+		entry.arity = arity;
+		entry.value = value;
+		entry.argument = argument;
+		entry.sequence = sequence;
+		if (sleeping) LockSupport.unpark(writer);
+	}
+
+	/**
+	 * Writes the entries as they get published, until this buffer gets closed and everything has been written.
+	 */
+	private void write() {
+		StringBuilder scratch = new StringBuilder(256);
+		long next = 0;
+		long reported = 0;
+		boolean unflushed = false;
+		while (true) {
+			Entry entry = entries[(int) next & mask];
+			if (entry.sequence != next) {
+				long lost = dropped.sum();
+				if (lost != reported) {
+					writeEntry(Entry.dropped(lost - reported), scratch);
+					reported = lost;
+					unflushed = true;
+				}
+				if (unflushed) {
+					try {
+						output.flush();
+					} catch (IOException ignored) {
+					}
+					unflushed = false;
+				}
+				if (closed && claimed.get() == next) break;
+				sleeping = true;
+				if (entry.sequence != next && !closed) LockSupport.parkNanos(this, IDLE_NANOS);
+				sleeping = false;
+				continue;
+			}
+			writeEntry(entry, scratch);
+			entry.clear();
+			unflushed = true;
+			consumed = ++next;
+		}
+		try {
+			output.flush();
+		} catch (IOException ignored) {
+		}
+	}
+
+	/**
+	 * Writes a single entry, ignoring errors of the output as there is nowhere to report them.
+	 *
+	 * @param entry   The entry to write.
+	 * @param scratch A builder to format text in.
+	 */
+	private void writeEntry(@NotNull Entry entry, @NotNull StringBuilder scratch) {
+		try {
+			format.write(entry, output, scratch);
+		} catch (IOException | RuntimeException ignored) {
+		}
+	}
+
+	/**
+	 * Stops accepting entries and waits a moment for the remaining ones to be written.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join(CLOSE_MILLIS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * A single log entry. Only the writer reads the fields,
+	 * once the logger published them by setting the sequence.
+	 */
+	static final class Entry {
+
+		/**
+		 * The sequence this entry has been published with, -1 while not published.
+		 */
+		private volatile long sequence = -1;
+		/**
+		 * When the entry has been logged, in milliseconds since the epoch.
+		 */
+		long time;
+		/**
+		 * The level of the entry.
+		 */
+		Level level;
+		/**
+		 * The thread which logged the entry, null for entries of the buffer itself.
+		 */
+		Thread thread;
+		/**
+		 * The logger of the entry, null for entries of the buffer itself.
+		 */
+		Logger logger;
+		/**
+		 * The message.
+		 */
+		String template;
+		/**
+		 * How many arguments the message has.
+		 */
+		int arity;
+		/**
+		 * The first argument.
+		 */
+		long value;
+		/**
+		 * The second argument.
+		 */
+		Object argument;
+
+		/**
+		 * Creates the entry telling how many entries have been dropped.
+		 *
+		 * @param count How many entries have been dropped since the last report.
+		 * @return The entry.
+		 */
+		@NotNull
+		private static Entry dropped(long count) {
+			Entry entry = new Entry();
+			entry.time = System.currentTimeMillis();
+			entry.level = Level.WARN;
+			entry.template = "Dropped {} log entries as the writer didn't keep up";
+			entry.arity = 1;
+			entry.value = count;
+			return entry;
+		}
+
+		/**
+		 * Drops the references of this entry, so the arguments can be collected.
+		 */
+		private void clear() {
+			thread = null;
+			logger = null;
+			template = null;
+			argument = null;
+		}
+	}
+
+	/**
+	 * Holds the shared buffer, so it only gets created once used.
+	 */
+	private static final class Shared {
+
+		/**
+		 * The shared buffer, flushed when the application exits.
+		 */
+		private static final LogBuffer BUFFER;
+
+		static {
+			Level level = Level.valueOf(System.getProperty("uno.log.level", "INFO").toUpperCase());
+			LogFormat format = LogFormat.valueOf(System.getProperty("uno.log.format", "TEXT").toUpperCase());
+			String file = System.getProperty("uno.log.file");
+			OutputStream output;
+			try {
+				output = file == null ? System.out : new FileOutputStream(file, true);
+			} catch (IOException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+			BUFFER = new LogBuffer(DEFAULT_CAPACITY, level, format, output);
+			Runtime.getRuntime().addShutdownHook(new Thread(BUFFER::close, "Log-Shutdown"));
+		}
+
+		/**
+		 * This is a holder class, which shall not be instantiated.
+		 */
+		private Shared() {
+			throw new IllegalAccessError("Holder class");
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package eu.tgx03.uno.logging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * The formats log entries can be written in.
+ */
+public enum LogFormat {
+	/**
+	 * One line of text per entry:
+	 * time, level, thread, logger, the game in parentheses if any and the message.
+	 */
+	TEXT {
+		@Override
+		void write(@NotNull LogBuffer.Entry entry, @NotNull DataOutputStream output, @NotNull StringBuilder scratch) throws IOException {
+			scratch.setLength(0);
+			String thread = entry.thread != null ? entry.thread.getName() : "-";
+			String logger = entry.logger != null ? entry.logger.name : LogBuffer.class.getSimpleName();
+			long game = entry.logger != null ? entry.logger.game : -1;
+			String argument = entry.arity > 1 ? String.valueOf(entry.argument) : null;
+			line(scratch, entry.time, entry.level, thread, logger, game, entry.template, entry.arity, entry.value, argument);
+			output.write(scratch.toString().getBytes(StandardCharsets.UTF_8));
+		}
+	},
+	/**
+	 * A compact binary record per entry, which leaves formatting the message to whoever reads the log,
+	 * see {@link #decode(InputStream, OutputStream)}.
+	 * A record holds the time as long, the level as byte, the game as long,
+	 * the thread, logger and template as modified UTF-8, the arity as byte,
+	 * then the number as long if the arity is at least 1 and the argument as modified UTF-8 if it is 2.
+	 */
+	BINARY {
+		@Override
+		void write(@NotNull LogBuffer.Entry entry, @NotNull DataOutputStream output, @NotNull StringBuilder scratch) throws IOException {
+			output.writeLong(entry.time);
+			output.writeByte(entry.level.ordinal());
+			output.writeLong(entry.logger != null ? entry.logger.game : -1);
+			output.writeUTF(entry.thread != null ? entry.thread.getName() : "-");
+			output.writeUTF(entry.logger != null ? entry.logger.name : LogBuffer.class.getSimpleName());
+			output.writeUTF(entry.template);
+			output.writeByte(entry.arity);
+			if (entry.arity > 0) output.writeLong(entry.value);
+			if (entry.arity > 1) output.writeUTF(String.valueOf(entry.argument));
+		}
+	};
+
+	/**
+	 * Writes an entry.
+	 *
+	 * @param entry   The entry to write.
+	 * @param output  The stream to write to.
+	 * @param scratch A builder which may be used to format text.
+	 * @throws IOException When writing failed.
+	 */
+	abstract void write(@NotNull LogBuffer.Entry entry, @NotNull DataOutputStream output, @NotNull StringBuilder scratch) throws IOException;
+
+	/**
+	 * Converts a log written in the {@link #BINARY} format to the {@link #TEXT} format.
+	 *
+	 * @param binary The binary log, read until its end.
+	 * @param text   Where to write the text to.
+	 * @throws IOException When reading or writing failed, or the binary log is malformed.
+	 */
+	public static void decode(@NotNull InputStream binary, @NotNull OutputStream text) throws IOException {
+		DataInputStream input = new DataInputStream(binary);
+		Level[] levels = Level.values();
+		StringBuilder builder = new StringBuilder(256);
+		while (true) {
+			long time;
+			try {
+				time = input.readLong();
+			} catch (EOFException e) {
+				break;
+			}
+			int level = input.readUnsignedByte();
+			if (level >= levels.length) throw new IOException("Invalid level " + level);
+			long game = input.readLong();
+			String thread = input.readUTF();
+			String logger = input.readUTF();
+			String template = input.readUTF();
+			int arity = input.readUnsignedByte();
+			long value = arity > 0 ? input.readLong() : 0;
+			String argument = arity > 1 ? input.readUTF() : null;
+			builder.setLength(0);
+			line(builder, time, levels[level], thread, logger, game, template, arity, value, argument);
+			text.write(builder.toString().getBytes(StandardCharsets.UTF_8));
+		}
+		text.flush();
+	}
+
+	/**
+	 * Formats an entry as a line of text.
+	 *
+	 * @param out      Where to append the line to.
+	 * @param time     When the entry has been logged, in milliseconds since the epoch.
+	 * @param level    The level of the entry.
+	 * @param thread   The name of the thread which logged the entry.
+	 * @param logger   The name of the logger.
+	 * @param game     The ID of the game, -1 if none.
+	 * @param template The message.
+	 * @param arity    How many arguments the message has.
+	 * @param value    The first argument.
+	 * @param argument The second argument, already as text.
+	 */
+	private static void line(@NotNull StringBuilder out, long time, @NotNull Level level, @NotNull String thread, @NotNull String logger,
+	                         long game, @NotNull String template, int arity, long value, @Nullable String argument) {
+		out.append(Instant.ofEpochMilli(time)).append(' ').append(level.name());
+		for (int i = level.name().length(); i < 5; i++) out.append(' ');
+		out.append(" [").append(thread).append("] ").append(logger);
+		if (game >= 0) out.append(" (game ").append(game).append(')');
+		out.append(": ");
+		int from = 0;
+		for (int i = 0; i < arity; i++) {
+			int at = template.indexOf("{}", from);
+			if (at < 0) break;
+			out.append(template, from, at);
+			if (i == 0) out.append(value);
+			else out.append(argument);
+			from = at + 2;
+		}
+		out.append(template, from, template.length()).append('\n');
+	}
+}
@@ -0,0 +1,106 @@
+package eu.tgx03.uno.logging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Writes entries to a {@link LogBuffer} under a name and optionally the ID of a game.
+ * <p>
+ * Messages are templates in which every "{}" gets replaced by the next argument.
+ * Nothing gets formatted on the calling thread, the writer of the buffer does that later,
+ * so arguments must not be changed after being logged.
+ */
+public final class Logger {
+
+	/**
+	 * The buffer the entries get written to.
+	 */
+	private final LogBuffer buffer;
+	/**
+	 * The name of this logger, usually the simple name of the class using it.
+	 */
+	final String name;
+	/**
+	 * The ID of the game the entries belong to, -1 if none.
+	 */
+	final long game;
+
+	/**
+	 * Creates a new logger, see {@link LogBuffer#logger(String)}.
+	 *
+	 * @param buffer The buffer to write to.
+	 * @param name   The name of the logger.
+	 * @param game   The ID of the game, -1 if none.
+	 */
+	Logger(@NotNull LogBuffer buffer, @NotNull String name, long game) {
+		this.buffer = buffer;
+		this.name = name;
+		this.game = game;
+	}
+
+	/**
+	 * Returns a logger of the shared buffer, named after a class.
+	 *
+	 * @param type The class using the logger.
+	 * @return The logger.
+	 */
+	@NotNull
+	public static Logger get(@NotNull Class<?> type) {
+		return LogBuffer.shared().logger(type.getSimpleName());
+	}
+
+	/**
+	 * Returns a logger with the same name, whose entries belong to a game.
+	 *
+	 * @param game The ID of the game.
+	 * @return The logger of the game.
+	 */
+	@NotNull
+	public Logger forGame(long game) {
+		return new Logger(buffer, name, game);
+	}
+
+	/**
+	 * Whether entries of a level get written at all.
+	 * Only needed to avoid expensive arguments, the logging methods check this themselves.
+	 *
+	 * @param level The level to check.
+	 * @return Whether the level is enabled.
+	 */
+	public boolean isEnabled(@NotNull Level level) {
+		return buffer.isEnabled(level);
+	}
+
+	/**
+	 * Logs a message.
+	 *
+	 * @param level   The level of the message.
+	 * @param message The message.
+	 */
+	public void log(@NotNull Level level, @NotNull String message) {
+		if (buffer.isEnabled(level)) buffer.publish(this, level, message, 0, 0, null);
+	}
+
+	/**
+	 * Logs a message with a single number.
+	 *
+	 * @param level    The level of the message.
+	 * @param template The message, with "{}" in place of the number.
+	 * @param value    The number.
+	 */
+	public void log(@NotNull Level level, @NotNull String template, long value) {
+		if (buffer.isEnabled(level)) buffer.publish(this, level, template, 1, value, null);
+	}
+
+	/**
+	 * Logs a message with a number and another argument.
+	 *
+	 * @param level    The level of the message.
+	 * @param template The message, with "{}" in place of the number and then the argument.
+	 * @param value    The number.
+	 * @param argument The argument, which must not change afterwards.
+	 */
+	public void log(@NotNull Level level, @NotNull String template, long value, @Nullable Object argument) {
+		if (buffer.isEnabled(level)) buffer.publish(this, level, template, 2, value, argument);
+	}
+}
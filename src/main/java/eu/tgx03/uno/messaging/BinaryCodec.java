@@ -0,0 +1,608 @@
+package eu.tgx03.uno.messaging;
+
+import eu.tgx03.uno.game.Player;
+import eu.tgx03.uno.game.cards.Card;
+import eu.tgx03.uno.game.cards.ChooseColor;
+import eu.tgx03.uno.game.cards.Color;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.StreamCorruptedException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * A compact binary encoding of the messages exchanged between clients and servers.
+ * Every message starts with a fixed header of its type and the version of the format.
+ * Numbers get written as unsigned varints and every card takes up a single byte, its code.
+ * <p>
+ * An update consists of a public section that is the same for every player,
+ * holding whether the game ended, the size of the stack, the top card and how many cards every player holds,
+ * followed by a private section holding whether it's the players turn and their hand.
+ * This allows the public section to be encoded once and shared by all recipients, see {@link UpdateBroadcast}.
+ * Deltas follow the same layout, but only hold the changed card counts and the gained and lost cards.
+ */
+public final class BinaryCodec {
+
+	/**
+	 * The type of message holding an {@link Update}.
+	 */
+	public static final byte UPDATE = 1;
+	/**
+	 * The type of message holding a {@link Command}.
+	 */
+	public static final byte COMMAND = 2;
+	/**
+	 * The type of message holding an {@link UpdateDelta}.
+	 */
+	public static final byte DELTA = 3;
+	/**
+	 * The type of message holding a {@link CommandResult}.
+	 */
+	public static final byte RESULT = 4;
+	/**
+	 * The version of the format, gets checked when decoding.
+	 */
+	public static final byte VERSION = 2;
+	/**
+	 * How many bytes the header of every message takes up.
+	 */
+	public static final int HEADER_SIZE = 2;
+	/**
+	 * How many bytes the length prefix of a frame takes up on streams.
+	 */
+	public static final int FRAME_PREFIX = 4;
+	/**
+	 * The largest frame a binary stream accepts.
+	 */
+	public static final int MAX_FRAME_SIZE = 1 << 20;
+	/**
+	 * The pool heap buffers get taken from when encoding without an explicit pool.
+	 */
+	public static final BufferPool POOL = new BufferPool(4096, 256, false);
+
+	/**
+	 * All the command types, indexed by their ordinal.
+	 */
+	private static final Command.CommandType[] COMMAND_TYPES = Command.CommandType.values();
+	/**
+	 * All the reasons a command can be rejected for, indexed by their ordinal.
+	 */
+	private static final CommandResult.Reason[] REASONS = CommandResult.Reason.values();
+	/**
+	 * The mask of all wildcards, which come last in a hand in the order they have been received.
+	 */
+	private static final long WILDCARDS;
+
+	static {
+		long wildcards = 0;
+		for (int code = 0; code < Card.CARD_TYPES; code++) {
+			if (Card.byCode(code) instanceof ChooseColor) wildcards |= Card.byCode(code).bit();
+		}
+		WILDCARDS = wildcards;
+	}
+
+	/**
+	 * This is a utility class, which shall not be instantiated.
+	 */
+	private BinaryCodec() {
+		throw new IllegalAccessError("Utility class");
+	}
+
+	/**
+	 * Encodes a message into a buffer taken from a pool.
+	 *
+	 * @param message The message to encode, an {@link Update}, {@link UpdateDelta}, {@link Command} or {@link CommandResult}.
+	 * @param pool    The pool to take the buffer from.
+	 * @return The flipped buffer holding the message, which should be given back to the pool once sent.
+	 */
+	@NotNull
+	public static ByteBuffer encode(@NotNull Object message, @NotNull BufferPool pool) {
+		ByteBuffer buffer = pool.acquire(size(message));
+		write(message, buffer);
+		return buffer.flip();
+	}
+
+	/**
+	 * Encodes a message as frame prefixed with its length, as used on streams.
+	 *
+	 * @param message The message to encode, an {@link Update}, {@link UpdateDelta}, {@link Command} or {@link CommandResult}.
+	 * @param pool    The pool to take the buffer from.
+	 * @return The flipped buffer holding the frame, which should be given back to the pool once sent.
+	 */
+	@NotNull
+	public static ByteBuffer encodeFrame(@NotNull Object message, @NotNull BufferPool pool) {
+		int size = size(message);
+		ByteBuffer buffer = pool.acquire(FRAME_PREFIX + size);
+		buffer.putInt(size);
+		write(message, buffer);
+		return buffer.flip();
+	}
+
+	/**
+	 * Calculates how many bytes a message takes up when encoded.
+	 *
+	 * @param message The message to measure, an {@link Update}, {@link UpdateDelta}, {@link Command} or {@link CommandResult}.
+	 * @return The size of the encoded message.
+	 */
+	public static int size(@NotNull Object message) {
+		if (message instanceof Update update) return size(update);
+		else if (message instanceof UpdateDelta delta) return size(delta);
+		else if (message instanceof Command command) return size(command);
+		else if (message instanceof CommandResult result) return size(result);
+		else throw new IllegalArgumentException("Unknown message " + message.getClass());
+	}
+
+	/**
+	 * Writes a message into a buffer.
+	 *
+	 * @param message The message to write, an {@link Update}, {@link UpdateDelta}, {@link Command} or {@link CommandResult}.
+	 * @param buffer  The buffer to write into.
+	 */
+	public static void write(@NotNull Object message, @NotNull ByteBuffer buffer) {
+		if (message instanceof Update update) write(update, buffer);
+		else if (message instanceof UpdateDelta delta) write(delta, buffer);
+		else if (message instanceof Command command) write(command, buffer);
+		else if (message instanceof CommandResult result) write(result, buffer);
+		else throw new IllegalArgumentException("Unknown message " + message.getClass());
+	}
+
+	/**
+	 * Reads the next message from a buffer.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @return The read message.
+	 * @throws StreamCorruptedException When the buffer doesn't hold a valid message.
+	 */
+	@NotNull
+	public static Object decode(@NotNull ByteBuffer buffer) throws StreamCorruptedException {
+		if (buffer.remaining() < HEADER_SIZE) throw new StreamCorruptedException("Truncated header");
+		return switch (buffer.get(buffer.position())) {
+			case UPDATE -> readUpdate(buffer);
+			case DELTA -> readDelta(buffer);
+			case COMMAND -> readCommand(buffer);
+			case RESULT -> readResult(buffer);
+			default -> throw new StreamCorruptedException("Unknown message type");
+		};
+	}
+
+	/**
+	 * Calculates how many bytes an update takes up when encoded.
+	 *
+	 * @param update The update to measure.
+	 * @return The size of the encoded update.
+	 */
+	public static int size(@NotNull Update update) {
+		return publicSize(update.cardNumbers, update.stack) + privateSize(update.player);
+	}
+
+	/**
+	 * Writes an update into a buffer.
+	 *
+	 * @param update The update to write.
+	 * @param buffer The buffer to write into.
+	 */
+	public static void write(@NotNull Update update, @NotNull ByteBuffer buffer) {
+		writePublic(update.ended, update.topCard, update.cardNumbers, update.stack, buffer);
+		writePrivate(update.turn, update.player, buffer);
+	}
+
+	/**
+	 * Calculates how many bytes the header and public section of an update take up.
+	 *
+	 * @param cardNumbers How many cards every player holds.
+	 * @param stack       How many cards are on the stack.
+	 * @return The size of the header and public section.
+	 */
+	public static int publicSize(short @NotNull [] cardNumbers, short stack) {
+		int size = HEADER_SIZE + 2 + varIntSize(stack) + varIntSize(cardNumbers.length);
+		for (short count : cardNumbers) size += varIntSize(count);
+		return size;
+	}
+
+	/**
+	 * Writes the header and public section of an update into a buffer.
+	 *
+	 * @param ended       Whether the game has ended.
+	 * @param topCard     The card on top of the pile.
+	 * @param cardNumbers How many cards every player holds.
+	 * @param stack       How many cards are on the stack.
+	 * @param buffer      The buffer to write into.
+	 */
+	public static void writePublic(boolean ended, @NotNull Card topCard, short @NotNull [] cardNumbers, short stack, @NotNull ByteBuffer buffer) {
+		buffer.put(UPDATE).put(VERSION);
+		buffer.put((byte) (ended ? 1 : 0));
+		putVarInt(buffer, stack);
+		write(topCard, buffer);
+		putVarInt(buffer, cardNumbers.length);
+		for (short count : cardNumbers) putVarInt(buffer, count);
+	}
+
+	/**
+	 * Calculates how many bytes the private section of an update takes up.
+	 *
+	 * @param player The hand of the recipient.
+	 * @return The size of the private section.
+	 */
+	public static int privateSize(@NotNull Player player) {
+		return 1 + size(player);
+	}
+
+	/**
+	 * Writes the private section of an update into a buffer.
+	 * Must directly follow the public section.
+	 *
+	 * @param turn   Whether it's the turn of the recipient.
+	 * @param player The hand of the recipient.
+	 * @param buffer The buffer to write into.
+	 */
+	public static void writePrivate(boolean turn, @NotNull Player player, @NotNull ByteBuffer buffer) {
+		buffer.put((byte) (turn ? 1 : 0));
+		write(player, buffer);
+	}
+
+	/**
+	 * Reads an update from a buffer.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @return The read update.
+	 * @throws StreamCorruptedException When the buffer doesn't hold a valid update.
+	 */
+	@NotNull
+	public static Update readUpdate(@NotNull ByteBuffer buffer) throws StreamCorruptedException {
+		try {
+			readHeader(buffer, UPDATE);
+			boolean ended = buffer.get() != 0;
+			short stack = (short) getVarInt(buffer);
+			Card top = readCard(buffer);
+			int players = getVarInt(buffer);
+			if (players < 0 || players > buffer.remaining()) throw new StreamCorruptedException("Invalid player count");
+			short[] count = new short[players];
+			for (int i = 0; i < count.length; i++) count[i] = (short) getVarInt(buffer);
+			boolean turn = buffer.get() != 0;
+			return new Update(turn, ended, readPlayer(buffer), top, count, stack);
+		} catch (BufferUnderflowException e) {
+			throw corrupted(e);
+		}
+	}
+
+	/**
+	 * Calculates how many bytes a delta takes up when encoded.
+	 *
+	 * @param delta The delta to measure.
+	 * @return The size of the encoded delta.
+	 */
+	public static int size(@NotNull UpdateDelta delta) {
+		int size = HEADER_SIZE + 2 + varIntSize(delta.stack) + varIntSize(delta.players.length);
+		for (int i = 0; i < delta.players.length; i++) size += varIntSize(delta.players[i]) + varIntSize(delta.counts[i]);
+		return size + 1 + varIntSize(delta.added.length) + delta.added.length + varIntSize(delta.removed.length) + delta.removed.length;
+	}
+
+	/**
+	 * Writes a delta into a buffer.
+	 *
+	 * @param delta  The delta to write.
+	 * @param buffer The buffer to write into.
+	 */
+	public static void write(@NotNull UpdateDelta delta, @NotNull ByteBuffer buffer) {
+		buffer.put(DELTA).put(VERSION);
+
+		// The public section
+		buffer.put((byte) (delta.ended ? 1 : 0));
+		putVarInt(buffer, delta.stack);
+		write(delta.topCard, buffer);
+		putVarInt(buffer, delta.players.length);
+		for (int i = 0; i < delta.players.length; i++) {
+			putVarInt(buffer, delta.players[i]);
+			putVarInt(buffer, delta.counts[i]);
+		}
+
+		// The private section
+		buffer.put((byte) (delta.turn ? 1 : 0));
+		putVarInt(buffer, delta.added.length);
+		buffer.put(delta.added);
+		putVarInt(buffer, delta.removed.length);
+		buffer.put(delta.removed);
+	}
+
+	/**
+	 * Reads a delta from a buffer.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @return The read delta.
+	 * @throws StreamCorruptedException When the buffer doesn't hold a valid delta.
+	 */
+	@NotNull
+	public static UpdateDelta readDelta(@NotNull ByteBuffer buffer) throws StreamCorruptedException {
+		try {
+			readHeader(buffer, DELTA);
+			boolean ended = buffer.get() != 0;
+			short stack = (short) getVarInt(buffer);
+			Card top = readCard(buffer);
+			int changed = getVarInt(buffer);
+			if (changed < 0 || changed > buffer.remaining()) throw new StreamCorruptedException("Invalid player count");
+			short[] players = new short[changed];
+			short[] counts = new short[changed];
+			for (int i = 0; i < changed; i++) {
+				players[i] = (short) getVarInt(buffer);
+				counts[i] = (short) getVarInt(buffer);
+			}
+			boolean turn = buffer.get() != 0;
+			return new UpdateDelta(turn, ended, top, stack, players, counts, readCodes(buffer), readCodes(buffer));
+		} catch (BufferUnderflowException e) {
+			throw corrupted(e);
+		}
+	}
+
+	/**
+	 * Calculates how many bytes a command takes up when encoded.
+	 *
+	 * @param command The command to measure.
+	 * @return The size of the encoded command.
+	 */
+	public static int size(@NotNull Command command) {
+		int size = HEADER_SIZE + 1 + varIntSize(command.id) + varIntSize(zigZag(command.cardNumber));
+		return command.type == Command.CommandType.SELECT_COLOR ? size + 1 : size;
+	}
+
+	/**
+	 * Writes a command into a buffer.
+	 *
+	 * @param command The command to write.
+	 * @param buffer  The buffer to write into.
+	 */
+	public static void write(@NotNull Command command, @NotNull ByteBuffer buffer) {
+		buffer.put(COMMAND).put(VERSION);
+		buffer.put((byte) command.type.ordinal());
+		putVarInt(buffer, command.id);
+		putVarInt(buffer, zigZag(command.cardNumber));
+		if (command.type == Command.CommandType.SELECT_COLOR) {
+			assert command.color != null;
+			buffer.put(command.color.getValue());
+		}
+	}
+
+	/**
+	 * Reads a command from a buffer.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @return The read command.
+	 * @throws StreamCorruptedException When the buffer doesn't hold a valid command.
+	 */
+	@NotNull
+	public static Command readCommand(@NotNull ByteBuffer buffer) throws StreamCorruptedException {
+		try {
+			readHeader(buffer, COMMAND);
+			int type = buffer.get();
+			if (type < 0 || type >= COMMAND_TYPES.length) throw new StreamCorruptedException("Unknown command type");
+			int id = getVarInt(buffer);
+			int cardNumber = unZigZag(getVarInt(buffer));
+			Command command = switch (COMMAND_TYPES[type]) {
+				case SELECT_COLOR -> new Command(Color.getByValue(buffer.get()), cardNumber);
+				case TAKE_CARD -> new Command();
+				default -> new Command(COMMAND_TYPES[type], cardNumber);
+			};
+			return command.withId(id);
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw corrupted(e);
+		}
+	}
+
+	/**
+	 * Calculates how many bytes the result of a command takes up when encoded.
+	 *
+	 * @param result The result to measure.
+	 * @return The size of the encoded result.
+	 */
+	public static int size(@NotNull CommandResult result) {
+		return HEADER_SIZE + varIntSize(result.id) + 1;
+	}
+
+	/**
+	 * Writes the result of a command into a buffer.
+	 *
+	 * @param result The result to write.
+	 * @param buffer The buffer to write into.
+	 */
+	public static void write(@NotNull CommandResult result, @NotNull ByteBuffer buffer) {
+		buffer.put(RESULT).put(VERSION);
+		putVarInt(buffer, result.id);
+		buffer.put((byte) result.reason.ordinal());
+	}
+
+	/**
+	 * Reads the result of a command from a buffer.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @return The read result.
+	 * @throws StreamCorruptedException When the buffer doesn't hold a valid result.
+	 */
+	@NotNull
+	public static CommandResult readResult(@NotNull ByteBuffer buffer) throws StreamCorruptedException {
+		try {
+			readHeader(buffer, RESULT);
+			int id = getVarInt(buffer);
+			int reason = buffer.get();
+			if (reason < 0 || reason >= REASONS.length) throw new StreamCorruptedException("Unknown reason");
+			return new CommandResult(id, REASONS[reason]);
+		} catch (BufferUnderflowException e) {
+			throw corrupted(e);
+		}
+	}
+
+	/**
+	 * Calculates how many bytes a hand takes up when encoded.
+	 *
+	 * @param player The player to measure.
+	 * @return The size of the encoded hand.
+	 */
+	public static int size(@NotNull Player player) {
+		return varIntSize(player.cardCount()) + player.cardCount();
+	}
+
+	/**
+	 * Writes the hand of a player into a buffer, as the amount of cards followed by their codes in the order of the hand.
+	 *
+	 * @param player The player to write.
+	 * @param buffer The buffer to write into.
+	 */
+	public static void write(@NotNull Player player, @NotNull ByteBuffer buffer) {
+		int size = player.cardCount();
+		putVarInt(buffer, size);
+		int wildcards = size;
+		for (long held = player.heldCards(); held != 0; held &= held - 1) {
+			Card card = Card.byCode(Long.numberOfTrailingZeros(held));
+			if ((card.bit() & WILDCARDS) != 0) wildcards -= player.count(card);
+			else for (int i = player.count(card); i > 0; i--) write(card, buffer);
+		}
+		for (int i = wildcards; i < size; i++) write(Objects.requireNonNull(player.getCard(i)), buffer);
+	}
+
+	/**
+	 * Reads a player from a buffer.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @return A new player holding the read hand.
+	 * @throws StreamCorruptedException When the buffer doesn't hold a valid hand.
+	 */
+	@NotNull
+	public static Player readPlayer(@NotNull ByteBuffer buffer) throws StreamCorruptedException {
+		try {
+			int size = getVarInt(buffer);
+			if (size < 0 || size > buffer.remaining()) throw new StreamCorruptedException("Invalid hand size");
+			byte[] codes = new byte[size];
+			for (int i = 0; i < size; i++) codes[i] = (byte) readCard(buffer).code();
+			return new Player(codes);
+		} catch (BufferUnderflowException e) {
+			throw corrupted(e);
+		}
+	}
+
+	/**
+	 * Reads a list of card codes prefixed with its length.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @return The read codes.
+	 * @throws StreamCorruptedException When the list holds an invalid code.
+	 */
+	private static byte @NotNull [] readCodes(@NotNull ByteBuffer buffer) throws StreamCorruptedException {
+		int length = getVarInt(buffer);
+		if (length < 0 || length > buffer.remaining()) throw new StreamCorruptedException("Invalid card count");
+		byte[] codes = new byte[length];
+		buffer.get(codes);
+		for (byte code : codes) {
+			if (code < 0 || code >= Card.CARD_TYPES) throw new StreamCorruptedException("Invalid card code " + code);
+		}
+		return codes;
+	}
+
+	/**
+	 * Writes a card into a buffer.
+	 *
+	 * @param card   The card to write.
+	 * @param buffer The buffer to write into.
+	 */
+	public static void write(@NotNull Card card, @NotNull ByteBuffer buffer) {
+		buffer.put((byte) card.code());
+	}
+
+	/**
+	 * Reads a card from a buffer.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @return The canonical instance of the read card.
+	 * @throws StreamCorruptedException When the read code doesn't belong to a card.
+	 */
+	@NotNull
+	public static Card readCard(@NotNull ByteBuffer buffer) throws StreamCorruptedException {
+		int code = buffer.get();
+		if (code < 0 || code >= Card.CARD_TYPES) throw new StreamCorruptedException("Invalid card code " + code);
+		return Card.byCode(code);
+	}
+
+	/**
+	 * Writes a non-negative number as varint, using 7 bits per byte.
+	 *
+	 * @param buffer The buffer to write into.
+	 * @param value  The number to write.
+	 */
+	public static void putVarInt(@NotNull ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Reads a varint.
+	 *
+	 * @param buffer The buffer to read from.
+	 * @return The read number.
+	 * @throws StreamCorruptedException When the varint is longer than 5 bytes.
+	 */
+	public static int getVarInt(@NotNull ByteBuffer buffer) throws StreamCorruptedException {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+		throw new StreamCorruptedException("Malformed varint");
+	}
+
+	/**
+	 * Calculates how many bytes a number takes up as varint.
+	 *
+	 * @param value The number to measure.
+	 * @return The size of the varint.
+	 */
+	public static int varIntSize(int value) {
+		return value == 0 ? 1 : (38 - Integer.numberOfLeadingZeros(value)) / 7;
+	}
+
+	/**
+	 * Checks the header of a message.
+	 *
+	 * @param buffer The buffer to read the header from.
+	 * @param type   The expected type of message.
+	 * @throws StreamCorruptedException When the header doesn't match.
+	 */
+	private static void readHeader(@NotNull ByteBuffer buffer, byte type) throws StreamCorruptedException {
+		if (buffer.get() != type) throw new StreamCorruptedException("Unexpected message type");
+		if (buffer.get() != VERSION) throw new StreamCorruptedException("Unsupported version");
+	}
+
+	/**
+	 * Maps a signed number to an unsigned one, so small negative numbers stay small.
+	 *
+	 * @param value The signed number.
+	 * @return The unsigned representation.
+	 */
+	private static int zigZag(int value) {
+		return (value << 1) ^ (value >> 31);
+	}
+
+	/**
+	 * Reverses {@link #zigZag(int)}.
+	 *
+	 * @param value The unsigned representation.
+	 * @return The signed number.
+	 */
+	private static int unZigZag(int value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Wraps an exception that occurred while reading a malformed message.
+	 *
+	 * @param cause The exception that occurred.
+	 * @return The exception to throw.
+	 */
+	@NotNull
+	private static StreamCorruptedException corrupted(@NotNull Exception cause) {
+		StreamCorruptedException e = new StreamCorruptedException("Malformed message");
+		e.initCause(cause);
+		return e;
+	}
+}
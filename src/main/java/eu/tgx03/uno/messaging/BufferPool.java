@@ -0,0 +1,104 @@
+package eu.tgx03.uno.messaging;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of equally sized byte buffers messages get encoded into,
+ * so sending a message doesn't allocate a new buffer every time.
+ * Requests for buffers larger than the pooled size get served with a fresh buffer,
+ * which gets dropped again once released.
+ */
+public final class BufferPool {
+
+	/**
+	 * The capacity of every pooled buffer.
+	 */
+	private final int bufferSize;
+	/**
+	 * How many buffers this pool keeps at most.
+	 */
+	private final int maxPooled;
+	/**
+	 * Whether this pool hands out direct buffers.
+	 */
+	private final boolean direct;
+	/**
+	 * The buffers currently not in use.
+	 */
+	private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+	/**
+	 * How many buffers are currently kept in the free queue.
+	 */
+	private final AtomicInteger pooled = new AtomicInteger();
+
+	/**
+	 * Creates a new pool.
+	 *
+	 * @param bufferSize The capacity of the pooled buffers.
+	 * @param maxPooled  How many unused buffers to keep at most.
+	 * @param direct     Whether to hand out direct instead of heap buffers.
+	 */
+	public BufferPool(int bufferSize, int maxPooled, boolean direct) {
+		if (bufferSize <= 0 || maxPooled < 0) throw new IllegalArgumentException("Invalid pool size");
+		this.bufferSize = bufferSize;
+		this.maxPooled = maxPooled;
+		this.direct = direct;
+	}
+
+	/**
+	 * Takes a cleared buffer from this pool.
+	 * The limit of the buffer is set to the requested size.
+	 *
+	 * @param size How many bytes the buffer must be able to hold.
+	 * @return A buffer which must be given back through {@link #release(ByteBuffer)} once no longer needed.
+	 */
+	@NotNull
+	public ByteBuffer acquire(int size) {
+		if (size > bufferSize) return allocate(size);
+		ByteBuffer buffer = free.poll();
+		if (buffer == null) buffer = allocate(bufferSize);
+		else pooled.decrementAndGet();
+		buffer.clear().limit(size);
+		return buffer;
+	}
+
+	/**
+	 * Gives a buffer back to this pool.
+	 * The buffer must not be used afterwards.
+	 *
+	 * @param buffer The buffer that is no longer needed.
+	 */
+	public void release(@NotNull ByteBuffer buffer) {
+		if (buffer.capacity() != bufferSize || buffer.isDirect() != direct) return;
+		if (pooled.incrementAndGet() > maxPooled) {
+			pooled.decrementAndGet();
+			return;
+		}
+		free.offer(buffer);
+	}
+
+	/**
+	 * Returns the capacity of the pooled buffers.
+	 *
+	 * @return The size of the buffers of this pool.
+	 */
+	public int bufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * Allocates a new buffer of the kind this pool hands out.
+	 *
+	 * @param capacity The capacity of the new buffer.
+	 * @return The new buffer.
+	 */
+	@NotNull
+	private ByteBuffer allocate(int capacity) {
+		return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+	}
+}
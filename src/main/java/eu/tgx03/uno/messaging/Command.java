@@ -31,15 +31,22 @@ public class Command implements Externalizable {
 	 * Used for deserialization.
 	 */
 	private static final Field COLOR_FIELD;
+	/**
+	 * The reflective field of the ID of this Command.
+	 * Used for deserialization.
+	 */
+	private static final Field ID_FIELD;
 
 	static {
 		try {
 			TYPE_FIELD = Command.class.getDeclaredField("type");
 			NUMBER_FIELD = Command.class.getDeclaredField("cardNumber");
 			COLOR_FIELD = Command.class.getDeclaredField("color");
+			ID_FIELD = Command.class.getDeclaredField("id");
 			TYPE_FIELD.setAccessible(true);
 			NUMBER_FIELD.setAccessible(true);
 			COLOR_FIELD.setAccessible(true);
+			ID_FIELD.setAccessible(true);
 		} catch (NoSuchFieldException e) {
 			throw new ExceptionInInitializerError(e);
 		}
@@ -58,6 +65,11 @@ public class Command implements Externalizable {
 	 * this variable contains the wished for color.
 	 */
 	public final Color color;
+	/**
+	 * The ID the host answers this command with, see {@link CommandResult}.
+	 * 0 if the client doesn't want an answer.
+	 */
+	public final int id;
 
 	/**
 	 * Creates a new command that requests a new card for the current player.
@@ -66,6 +78,7 @@ public class Command implements Externalizable {
 		this.type = CommandType.TAKE_CARD;
 		this.cardNumber = -1;
 		this.color = null;
+		this.id = 0;
 	}
 
 	/**
@@ -79,6 +92,7 @@ public class Command implements Externalizable {
 		this.type = type;
 		this.cardNumber = cardNumber;
 		color = null;
+		this.id = 0;
 	}
 
 	/**
@@ -92,6 +106,32 @@ public class Command implements Externalizable {
 		this.type = CommandType.SELECT_COLOR;
 		this.color = color;
 		this.cardNumber = cardNumber;
+		this.id = 0;
+	}
+
+	/**
+	 * Creates a copy of a command with another ID.
+	 *
+	 * @param command The command to copy.
+	 * @param id      The ID of the copy.
+	 */
+	private Command(@NotNull Command command, int id) {
+		this.type = command.type;
+		this.cardNumber = command.cardNumber;
+		this.color = command.color;
+		this.id = id;
+	}
+
+	/**
+	 * Returns this command with the given ID, so the host answers it with a {@link CommandResult}.
+	 * The ID doesn't take part in equality.
+	 *
+	 * @param id The ID to answer with, 0 for no answer.
+	 * @return A command of the same content with the ID.
+	 */
+	@NotNull
+	public Command withId(int id) {
+		return id == this.id ? this : new Command(this, id);
 	}
 
 	@Override
@@ -127,6 +167,7 @@ public class Command implements Externalizable {
 			case TAKE_CARD -> result = "Player picks up a card";
 			case ACCEPT -> result = "Player accepts the penalty";
 			case SELECT_COLOR -> result = "Player changes color of card " + cardNumber + " to " + this.color;
+			case RESYNC -> result = "Player requests a full update";
 			default -> result = "";
 		}
 		return result;
@@ -135,6 +176,7 @@ public class Command implements Externalizable {
 	@Override
 	public void writeExternal(@NotNull ObjectOutput out) throws IOException {
 		out.writeObject(this.type);
+		out.writeInt(id);
 		switch (this.type) {
 			case NORMAL, JUMP -> out.writeInt(cardNumber);
 			case SELECT_COLOR -> {
@@ -149,6 +191,7 @@ public class Command implements Externalizable {
 	public void readExternal(@NotNull ObjectInput in) throws IOException, ClassNotFoundException {
 		try {
 			TYPE_FIELD.set(this, in.readObject());
+			ID_FIELD.setInt(this, in.readInt());
 			switch (type) {
 				case NORMAL, JUMP -> NUMBER_FIELD.setInt(this, in.readInt());
 				case SELECT_COLOR -> {
@@ -185,6 +228,14 @@ public class Command implements Externalizable {
 		/**
 		 * When a player wants to pick up a card.
 		 */
-		TAKE_CARD
+		TAKE_CARD,
+		/**
+		 * When a client lost track of the state and needs a full update.
+		 */
+		RESYNC,
+		/**
+		 * When a client only tells the host that it is still there.
+		 */
+		PING
 	}
 }
@@ -0,0 +1,145 @@
+package eu.tgx03.uno.messaging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.util.Objects;
+
+/**
+ * The answer of the host to a {@link Command} carrying an ID,
+ * telling the client whether the command has been executed.
+ */
+public class CommandResult implements Externalizable {
+
+	@Serial
+	private static final long serialVersionUID = 4188153626610470379L;
+
+	/**
+	 * The reflective field of the ID of the answered command.
+	 * Used for deserialization.
+	 */
+	private static final Field ID_FIELD;
+	/**
+	 * The reflective field of the reason of the result.
+	 * Used for deserialization.
+	 */
+	private static final Field REASON_FIELD;
+
+	static {
+		try {
+			ID_FIELD = CommandResult.class.getDeclaredField("id");
+			REASON_FIELD = CommandResult.class.getDeclaredField("reason");
+			ID_FIELD.setAccessible(true);
+			REASON_FIELD.setAccessible(true);
+		} catch (NoSuchFieldException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * The ID of the answered command.
+	 */
+	public final int id;
+	/**
+	 * Why the command has been rejected, or {@link Reason#NONE} if it has been executed.
+	 */
+	public final Reason reason;
+
+	/**
+	 * Default constructor for serialization.
+	 *
+	 * @deprecated Only to be used during deserialization.
+	 */
+	@Deprecated
+	public CommandResult() {
+		this.id = 0;
+		this.reason = Reason.NONE;
+	}
+
+	/**
+	 * Creates a new result.
+	 *
+	 * @param id     The ID of the answered command.
+	 * @param reason Why the command has been rejected, or {@link Reason#NONE} if it has been executed.
+	 */
+	public CommandResult(int id, @NotNull Reason reason) {
+		this.id = id;
+		this.reason = reason;
+	}
+
+	/**
+	 * Whether the command has been executed.
+	 *
+	 * @return Whether the command has been accepted.
+	 */
+	public boolean accepted() {
+		return reason == Reason.NONE;
+	}
+
+	@Override
+	public boolean equals(@Nullable Object o) {
+		if (o instanceof CommandResult r) return this.id == r.id && this.reason == r.reason;
+		else return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, reason);
+	}
+
+	@Override
+	public String toString() {
+		return accepted() ? "Command " + id + " accepted" : "Command " + id + " rejected: " + reason;
+	}
+
+	@Override
+	public void writeExternal(@NotNull ObjectOutput out) throws IOException {
+		out.writeInt(id);
+		out.writeByte(reason.ordinal());
+	}
+
+	@Override
+	public void readExternal(@NotNull ObjectInput in) throws IOException {
+		try {
+			ID_FIELD.setInt(this, in.readInt());
+			int reason = in.readByte();
+			if (reason < 0 || reason >= Reason.VALUES.length) throw new StreamCorruptedException("Unknown reason");
+			REASON_FIELD.set(this, Reason.VALUES[reason]);
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Why a command has been rejected.
+	 */
+	public enum Reason {
+		/**
+		 * The command has been executed.
+		 */
+		NONE,
+		/**
+		 * The command may only be sent by the current player.
+		 */
+		NOT_YOUR_TURN,
+		/**
+		 * The player doesn't hold a card with the given number.
+		 */
+		NO_SUCH_CARD,
+		/**
+		 * The move isn't allowed in the current state of the game.
+		 */
+		ILLEGAL_MOVE,
+		/**
+		 * The game has already ended.
+		 */
+		GAME_OVER;
+
+		/**
+		 * All the reasons, indexed by their ordinal.
+		 */
+		static final Reason[] VALUES = values();
+	}
+}
@@ -0,0 +1,198 @@
+package eu.tgx03.uno.messaging;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The reliability layer used on top of UDP.
+ * <p>
+ * Every update the server sends to a client gets a sequence number and is split into fragments,
+ * so no datagram exceeds the usual MTU. Only the latest update matters, older ones are never repeated.
+ * Clients acknowledge which fragments of the latest update they hold,
+ * piggybacked on every command or in a separate acknowledgement if there is no command to send.
+ * The server then only repeats the missing fragments.
+ * <p>
+ * Commands get numbered as well and are executed strictly in order, duplicates get dropped.
+ * The server acknowledges the last executed command in every update fragment and in separate acknowledgements,
+ * until then clients keep repeating them.
+ * Results of commands carrying an ID get sent once after their execution and aren't repeated,
+ * if one gets lost the client only learns the outcome through the next update.
+ * <p>
+ * When registering, a client receives its ID and a session token.
+ * The server ignores datagrams of a client coming from an address other than the registered one,
+ * until the client resumes its session from the new address with its token.
+ * The server then sends the latest update completely again and acknowledges the executed commands.
+ * <p>
+ * Datagrams from the client start with its ID, the kind of datagram and its acknowledgement of the latest update,
+ * commands then carry their sequence number and the encoded command, resumptions the session token.
+ * Datagrams from the server start with the kind and the last executed command,
+ * update fragments then carry their sequence number, index, the amount of fragments and the payload,
+ * results carry the encoded {@link CommandResult}.
+ */
+public final class DatagramProtocol {
+
+	/**
+	 * The kind of datagram holding a fragment of an update.
+	 */
+	public static final byte UPDATE = 1;
+	/**
+	 * The kind of datagram only holding acknowledgements.
+	 */
+	public static final byte ACK = 2;
+	/**
+	 * The kind of datagram holding a command.
+	 */
+	public static final byte COMMAND = 3;
+	/**
+	 * The kind of datagram holding the result of a command.
+	 */
+	public static final byte RESULT = 4;
+	/**
+	 * The kind of datagram resuming the session of a client, possibly from a new address.
+	 */
+	public static final byte RESUME = 5;
+	/**
+	 * The most payload bytes a single fragment carries.
+	 */
+	public static final int MAX_PAYLOAD = 1200;
+	/**
+	 * How many fragments an update may be split into at most.
+	 */
+	public static final int MAX_FRAGMENTS = Long.SIZE;
+	/**
+	 * The size of the header of an update fragment.
+	 */
+	public static final int UPDATE_HEADER = 1 + 4 + 4 + 1 + 1;
+	/**
+	 * The size of the header of a datagram sent by a client, without the sequence number of commands.
+	 */
+	public static final int CLIENT_HEADER = 2 + 1 + 4 + 8;
+	/**
+	 * How long to wait for an acknowledgement before repeating something.
+	 */
+	public static final long RETRANSMIT_NANOS = 100_000_000L;
+
+	/**
+	 * This is a utility class, which shall not be instantiated.
+	 */
+	private DatagramProtocol() {
+		throw new IllegalAccessError("Utility class");
+	}
+
+	/**
+	 * Calculates how many fragments a message gets split into.
+	 *
+	 * @param size The size of the message.
+	 * @return The amount of fragments.
+	 * @throws IllegalArgumentException When the message is too large.
+	 */
+	public static int fragments(int size) {
+		int fragments = Math.max(1, (size + MAX_PAYLOAD - 1) / MAX_PAYLOAD);
+		if (fragments > MAX_FRAGMENTS) throw new IllegalArgumentException("Message too large: " + size);
+		return fragments;
+	}
+
+	/**
+	 * Returns the mask of a complete message.
+	 *
+	 * @param fragments The amount of fragments of the message.
+	 * @return The mask with the bits of all fragments set.
+	 */
+	public static long complete(int fragments) {
+		return fragments == MAX_FRAGMENTS ? -1L : (1L << fragments) - 1;
+	}
+
+	/**
+	 * Writes a fragment of an update into a buffer.
+	 *
+	 * @param message    The complete update, its position and limit stay untouched.
+	 * @param sequence   The sequence number of the update.
+	 * @param commandAck The last command of the recipient that has been executed.
+	 * @param index      The index of the fragment.
+	 * @param buffer     The buffer to write into.
+	 */
+	public static void writeFragment(@NotNull ByteBuffer message, int sequence, int commandAck, int index, @NotNull ByteBuffer buffer) {
+		int fragments = fragments(message.remaining());
+		int offset = message.position() + index * MAX_PAYLOAD;
+		int length = Math.min(MAX_PAYLOAD, message.limit() - offset);
+		buffer.put(UPDATE).putInt(commandAck).putInt(sequence).put((byte) index).put((byte) fragments);
+		buffer.put(message.slice(offset, length));
+	}
+
+	/**
+	 * Collects the fragments of updates on the client side.
+	 * Fragments of updates older than the newest known one get dropped.
+	 */
+	public static final class Reassembler {
+
+		/**
+		 * The sequence number of the newest update a fragment has been received of.
+		 */
+		private int sequence = -1;
+		/**
+		 * How many fragments that update consists of.
+		 */
+		private int fragments;
+		/**
+		 * Which fragments of that update have been received.
+		 */
+		private long received;
+		/**
+		 * The length of the update, known once its last fragment has arrived.
+		 */
+		private int length;
+		/**
+		 * The buffer the update gets assembled in.
+		 */
+		private byte[] data = new byte[MAX_PAYLOAD];
+
+		/**
+		 * Adds a received fragment.
+		 *
+		 * @param sequence  The sequence number of the update.
+		 * @param index     The index of the fragment.
+		 * @param fragments How many fragments the update consists of.
+		 * @param payload   The payload of the fragment.
+		 * @return The complete update once the last missing fragment arrived, otherwise null.
+		 */
+		@Nullable
+		public ByteBuffer accept(int sequence, int index, int fragments, @NotNull ByteBuffer payload) {
+			if (sequence < this.sequence || fragments <= 0 || fragments > MAX_FRAGMENTS || index < 0 || index >= fragments) return null;
+			if (sequence > this.sequence) {
+				this.sequence = sequence;
+				this.fragments = fragments;
+				this.received = 0;
+				this.length = -1;
+				if (data.length < fragments * MAX_PAYLOAD) data = Arrays.copyOf(data, fragments * MAX_PAYLOAD);
+			}
+			long bit = 1L << index;
+			if ((received & bit) != 0 || fragments != this.fragments) return null;   // Duplicate or invalid
+			if (payload.remaining() > MAX_PAYLOAD || (index < fragments - 1 && payload.remaining() != MAX_PAYLOAD)) return null;
+			if (index == fragments - 1) length = index * MAX_PAYLOAD + payload.remaining();
+			payload.get(data, index * MAX_PAYLOAD, payload.remaining());
+			received |= bit;
+			return received == complete(fragments) ? ByteBuffer.wrap(data, 0, length) : null;
+		}
+
+		/**
+		 * Returns the sequence number of the newest update a fragment has been received of.
+		 *
+		 * @return The sequence number to acknowledge.
+		 */
+		public int sequence() {
+			return sequence;
+		}
+
+		/**
+		 * Returns which fragments of the newest update have been received.
+		 *
+		 * @return The mask to acknowledge.
+		 */
+		public long received() {
+			return received;
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package eu.tgx03.uno.messaging;
+
+import eu.tgx03.uno.game.Player;
+import eu.tgx03.uno.game.cards.Card;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The part of an update that is the same for every player.
+ * Its binary encoding gets created once, so sending the update to many players
+ * only requires encoding the small private section of every recipient.
+ */
+public final class UpdateBroadcast {
+
+	/**
+	 * Whether the game has ended.
+	 */
+	public final boolean ended;
+	/**
+	 * The card on top of the pile.
+	 */
+	public final Card topCard;
+	/**
+	 * How many cards every player holds.
+	 */
+	public final short[] cardNumbers;
+	/**
+	 * How many cards are on the stack.
+	 */
+	public final short stack;
+	/**
+	 * The header and public section of the binary encoded update.
+	 */
+	private final byte[] encoded;
+
+	/**
+	 * Creates a new broadcast and encodes its public section.
+	 *
+	 * @param ended       Whether the game has ended.
+	 * @param topCard     The card on top of the pile.
+	 * @param cardNumbers How many cards every player holds.
+	 * @param stack       How many cards are on the stack.
+	 */
+	public UpdateBroadcast(boolean ended, @NotNull Card topCard, short @NotNull [] cardNumbers, short stack) {
+		this.ended = ended;
+		this.topCard = topCard;
+		this.cardNumbers = cardNumbers;
+		this.stack = stack;
+		this.encoded = new byte[BinaryCodec.publicSize(cardNumbers, stack)];
+		BinaryCodec.writePublic(ended, topCard, cardNumbers, stack, ByteBuffer.wrap(encoded));
+	}
+
+	/**
+	 * Creates the full update for one player.
+	 *
+	 * @param turn   Whether it's the turn of that player.
+	 * @param player The hand of that player.
+	 * @return The update for that player.
+	 */
+	@NotNull
+	public Update forPlayer(boolean turn, @NotNull Player player) {
+		return new Update(turn, ended, player, topCard, cardNumbers, stack);
+	}
+
+	/**
+	 * Encodes the update of one recipient as frame prefixed with its length, as used on streams.
+	 *
+	 * @param turn   Whether it's the turn of the recipient.
+	 * @param player The hand of the recipient.
+	 * @param pool   The pool to take the buffer from.
+	 * @return The flipped buffer holding the frame, which should be given back to the pool once sent.
+	 */
+	@NotNull
+	public ByteBuffer encodeFrame(boolean turn, @NotNull Player player, @NotNull BufferPool pool) {
+		int size = encoded.length + BinaryCodec.privateSize(player);
+		ByteBuffer buffer = pool.acquire(BinaryCodec.FRAME_PREFIX + size);
+		buffer.putInt(size).put(encoded);
+		BinaryCodec.writePrivate(turn, player, buffer);
+		return buffer.flip();
+	}
+
+	/**
+	 * Returns the header and public section of the binary encoded update.
+	 * The private section of a recipient needs to be appended to get a complete message,
+	 * see {@link BinaryCodec#writePrivate(boolean, Player, ByteBuffer)}.
+	 *
+	 * @return A read-only view of the encoded public section.
+	 */
+	@NotNull
+	public ByteBuffer publicSection() {
+		return ByteBuffer.wrap(encoded).asReadOnlyBuffer();
+	}
+
+	/**
+	 * Returns the encoded public section without copying it.
+	 * Must not be modified.
+	 *
+	 * @return The encoded public section.
+	 */
+	byte @NotNull [] encoded() {
+		return encoded;
+	}
+}
@@ -0,0 +1,287 @@
+package eu.tgx03.uno.messaging;
+
+import eu.tgx03.uno.game.Player;
+import eu.tgx03.uno.game.cards.Card;
+import eu.tgx03.uno.game.cards.ChooseColor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+/**
+ * The difference between two updates sent to the same client.
+ * Only holds the cards the player gained or lost and the card counts that changed,
+ * the small parts of the state like the turn, the stack and the top card always get transmitted.
+ */
+public class UpdateDelta implements Externalizable {
+
+	@Serial
+	private static final long serialVersionUID = -2375150254474781627L;
+
+	/**
+	 * The reflective field of whether it's this players turn.
+	 * Used for deserialization.
+	 */
+	private static final Field TURN_FIELD;
+	/**
+	 * The reflective field of whether the game has ended.
+	 * Used for deserialization.
+	 */
+	private static final Field END_FIELD;
+	/**
+	 * The reflective field of the card on top of the pile.
+	 * Used for deserialization.
+	 */
+	private static final Field CARD_FIELD;
+	/**
+	 * The reflective field of how many cards are on the stack.
+	 * Used for deserialization.
+	 */
+	private static final Field STACK_FIELD;
+	/**
+	 * The reflective field of the players whose card count changed.
+	 * Used for deserialization.
+	 */
+	private static final Field PLAYERS_FIELD;
+	/**
+	 * The reflective field of the new card counts.
+	 * Used for deserialization.
+	 */
+	private static final Field COUNTS_FIELD;
+	/**
+	 * The reflective field of the gained cards.
+	 * Used for deserialization.
+	 */
+	private static final Field ADDED_FIELD;
+	/**
+	 * The reflective field of the lost cards.
+	 * Used for deserialization.
+	 */
+	private static final Field REMOVED_FIELD;
+
+	static {
+		try {
+			TURN_FIELD = UpdateDelta.class.getDeclaredField("turn");
+			END_FIELD = UpdateDelta.class.getDeclaredField("ended");
+			CARD_FIELD = UpdateDelta.class.getDeclaredField("topCard");
+			STACK_FIELD = UpdateDelta.class.getDeclaredField("stack");
+			PLAYERS_FIELD = UpdateDelta.class.getDeclaredField("players");
+			COUNTS_FIELD = UpdateDelta.class.getDeclaredField("counts");
+			ADDED_FIELD = UpdateDelta.class.getDeclaredField("added");
+			REMOVED_FIELD = UpdateDelta.class.getDeclaredField("removed");
+			TURN_FIELD.setAccessible(true);
+			END_FIELD.setAccessible(true);
+			CARD_FIELD.setAccessible(true);
+			STACK_FIELD.setAccessible(true);
+			PLAYERS_FIELD.setAccessible(true);
+			COUNTS_FIELD.setAccessible(true);
+			ADDED_FIELD.setAccessible(true);
+			REMOVED_FIELD.setAccessible(true);
+		} catch (NoSuchFieldException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * Whether it's this players turn.
+	 */
+	public final boolean turn;
+	/**
+	 * Whether the game has ended.
+	 */
+	public final boolean ended;
+	/**
+	 * The card on top of the pile.
+	 */
+	public final Card topCard;
+	/**
+	 * How many cards are currently on the stack.
+	 */
+	public final short stack;
+	/**
+	 * The IDs of the players whose card count changed.
+	 */
+	public final short[] players;
+	/**
+	 * The new card counts of the players in {@link #players}.
+	 */
+	public final short[] counts;
+	/**
+	 * The codes of the cards the player gained, repeated for multiple copies.
+	 */
+	public final byte[] added;
+	/**
+	 * The codes of the cards the player lost, repeated for multiple copies.
+	 */
+	public final byte[] removed;
+
+	/**
+	 * Default constructor for serialization.
+	 *
+	 * @deprecated Only to be used during deserialization.
+	 */
+	@Deprecated
+	public UpdateDelta() {
+		this(false, false, null, (short) -1, new short[0], new short[0], new byte[0], new byte[0]);
+	}
+
+	/**
+	 * Creates a new delta.
+	 *
+	 * @param turn    Whether it's this players turn.
+	 * @param ended   Whether the game has ended.
+	 * @param topCard The card on top of the pile.
+	 * @param stack   How many cards are on the stack.
+	 * @param players The players whose card count changed.
+	 * @param counts  The new card counts of those players.
+	 * @param added   The codes of the gained cards.
+	 * @param removed The codes of the lost cards.
+	 */
+	public UpdateDelta(boolean turn, boolean ended, Card topCard, short stack, short @NotNull [] players, short @NotNull [] counts, byte @NotNull [] added, byte @NotNull [] removed) {
+		assert players.length == counts.length;
+		this.turn = turn;
+		this.ended = ended;
+		this.topCard = topCard;
+		this.stack = stack;
+		this.players = players;
+		this.counts = counts;
+		this.added = added;
+		this.removed = removed;
+	}
+
+	/**
+	 * Calculates the difference between two updates sent to the same client.
+	 *
+	 * @param previous The last update the client received.
+	 * @param next     The new update.
+	 * @return The delta leading from the previous to the next update or null if the two aren't comparable,
+	 * or if a wildcard changed its color, as the delta couldn't keep it at its position.
+	 */
+	@Nullable
+	public static UpdateDelta diff(@NotNull Update previous, @NotNull Update next) {
+		if (previous.cardNumbers.length != next.cardNumbers.length) return null;
+
+		// Find the changed card counts
+		int changed = 0;
+		for (int i = 0; i < next.cardNumbers.length; i++) {
+			if (previous.cardNumbers[i] != next.cardNumbers[i]) changed++;
+		}
+		short[] players = new short[changed];
+		short[] counts = new short[changed];
+		for (int i = 0, j = 0; j < changed; i++) {
+			if (previous.cardNumbers[i] != next.cardNumbers[i]) {
+				players[j] = (short) i;
+				counts[j++] = next.cardNumbers[i];
+			}
+		}
+
+		// Find the gained and lost cards
+		short[] before = previous.player.copyCounts();
+		short[] after = next.player.copyCounts();
+		int gained = 0, lost = 0;
+		for (int code = 0; code < Card.CARD_TYPES; code++) {
+			if (after[code] > before[code]) gained += after[code] - before[code];
+			else lost += before[code] - after[code];
+		}
+		byte[] added = new byte[gained];
+		byte[] removed = new byte[lost];
+		gained = 0;
+		lost = 0;
+		boolean wildAdded = false, wildRemoved = false;
+		for (int code = 0; code < Card.CARD_TYPES; code++) {
+			boolean wild = Card.byCode(code) instanceof ChooseColor;
+			for (int i = before[code]; i < after[code]; i++) {
+				added[gained++] = (byte) code;
+				wildAdded |= wild;
+			}
+			for (int i = after[code]; i < before[code]; i++) {
+				removed[lost++] = (byte) code;
+				wildRemoved |= wild;
+			}
+		}
+		if (wildAdded && wildRemoved) return null;
+
+		return new UpdateDelta(next.turn, next.ended, next.topCard, next.stack, players, counts, added, removed);
+	}
+
+	/**
+	 * Applies this delta to the last update the client received.
+	 *
+	 * @param previous The update this delta is based on.
+	 * @return The resulting full update or null if this delta doesn't fit the given update.
+	 */
+	@Nullable
+	public Update apply(@NotNull Update previous) {
+		short[] cardNumbers = previous.cardNumbers.clone();
+		for (int i = 0; i < players.length; i++) {
+			if (players[i] < 0 || players[i] >= cardNumbers.length) return null;
+			cardNumbers[players[i]] = counts[i];
+		}
+		// Remove the lost cards and append the gained ones, the new player sorts them into place
+		byte[] previousHand = previous.player.copyCodes();
+		byte[] hand = Arrays.copyOf(previousHand, previousHand.length + added.length);
+		int size = previousHand.length;
+		for (byte code : removed) {
+			int at = 0;
+			while (at < size && hand[at] != code) at++;
+			if (at == size) return null;
+			System.arraycopy(hand, at + 1, hand, at, --size - at);
+		}
+		for (byte code : added) {
+			if (code < 0 || code >= Card.CARD_TYPES) return null;
+			hand[size++] = code;
+		}
+		return new Update(turn, ended, new Player(Arrays.copyOf(hand, size)), topCard, cardNumbers, stack);
+	}
+
+	@Override
+	public boolean equals(@Nullable Object o) {
+		if (o instanceof UpdateDelta d) {
+			return this.turn == d.turn && this.ended == d.ended && this.topCard == d.topCard && this.stack == d.stack
+					&& Arrays.equals(this.players, d.players) && Arrays.equals(this.counts, d.counts)
+					&& Arrays.equals(this.added, d.added) && Arrays.equals(this.removed, d.removed);
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = Boolean.hashCode(turn);
+		result = 31 * result + Boolean.hashCode(ended);
+		result = 31 * result + (topCard == null ? 0 : topCard.hashCode());
+		result = 31 * result + stack;
+		result = 31 * result + Arrays.hashCode(counts);
+		result = 31 * result + Arrays.hashCode(added);
+		return 31 * result + Arrays.hashCode(removed);
+	}
+
+	@Override
+	public void writeExternal(@NotNull ObjectOutput out) throws IOException {
+		out.writeBoolean(turn);
+		out.writeBoolean(ended);
+		out.writeShort(stack);
+		out.writeByte(topCard.code());
+		out.writeObject(players);
+		out.writeObject(counts);
+		out.writeObject(added);
+		out.writeObject(removed);
+	}
+
+	@Override
+	public void readExternal(@NotNull ObjectInput in) throws IOException, ClassNotFoundException {
+		try {
+			TURN_FIELD.setBoolean(this, in.readBoolean());
+			END_FIELD.setBoolean(this, in.readBoolean());
+			STACK_FIELD.setShort(this, in.readShort());
+			CARD_FIELD.set(this, Card.byCode(in.readUnsignedByte()));
+			PLAYERS_FIELD.set(this, in.readObject());
+			COUNTS_FIELD.set(this, in.readObject());
+			ADDED_FIELD.set(this, in.readObject());
+			REMOVED_FIELD.set(this, in.readObject());
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
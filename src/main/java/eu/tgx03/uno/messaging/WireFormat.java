@@ -0,0 +1,325 @@
+package eu.tgx03.uno.messaging;
+
+import eu.tgx03.uno.game.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+/**
+ * The formats messages can be transmitted in.
+ * Client and server must use the same format.
+ */
+public enum WireFormat {
+	/**
+	 * Messages get transmitted through Java serialization.
+	 */
+	JAVA {
+		@Override
+		@NotNull
+		public Writer writer(@NotNull OutputStream output) throws IOException {
+			CountingOutputStream counter = new CountingOutputStream(output);
+			ObjectOutputStream objects = new ObjectOutputStream(counter);
+			objects.flush();
+			return new Writer() {
+				@Override
+				public void write(@NotNull Object message) throws IOException {
+					objects.reset();
+					objects.writeObject(message);
+					objects.flush();
+				}
+
+				@Override
+				public long written() {
+					return counter.count;
+				}
+
+				@Override
+				public void close() throws IOException {
+					objects.close();
+				}
+			};
+		}
+
+		@Override
+		@NotNull
+		public Reader reader(@NotNull InputStream input) throws IOException {
+			ObjectInputStream objects = new ObjectInputStream(input);
+			return new Reader() {
+				@Override
+				@NotNull
+				public Object read() throws IOException, ClassNotFoundException {
+					return objects.readObject();
+				}
+
+				@Override
+				public void close() throws IOException {
+					objects.close();
+				}
+			};
+		}
+
+		@Override
+		@NotNull
+		public ByteBuffer encode(@NotNull Object message, @NotNull BufferPool pool) throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+				objects.writeObject(message);
+			}
+			return ByteBuffer.wrap(bytes.toByteArray());
+		}
+
+		@Override
+		@NotNull
+		public Object decode(@NotNull ByteBuffer buffer) throws IOException, ClassNotFoundException {
+			byte[] bytes = new byte[buffer.remaining()];
+			buffer.get(bytes);
+			return new ObjectInputStream(new ByteArrayInputStream(bytes)).readObject();
+		}
+	},
+	/**
+	 * Messages get transmitted through the {@link BinaryCodec}.
+	 * On streams every message gets prefixed with its length as a 4 byte integer.
+	 */
+	BINARY {
+		@Override
+		@NotNull
+		public Writer writer(@NotNull OutputStream output) {
+			return new Writer() {
+				/**
+				 * How many bytes have been written so far.
+				 */
+				private long written = 0;
+
+				@Override
+				public void write(@NotNull Object message) throws IOException {
+					send(BinaryCodec.encodeFrame(message, BinaryCodec.POOL));
+				}
+
+				@Override
+				public void write(@NotNull UpdateBroadcast broadcast, boolean turn, @NotNull Player player) throws IOException {
+					send(broadcast.encodeFrame(turn, player, BinaryCodec.POOL));
+				}
+
+				/**
+				 * Writes a frame to the stream and gives its buffer back to the pool.
+				 *
+				 * @param frame The frame to write.
+				 * @throws IOException When an error occurs during transmission.
+				 */
+				private void send(@NotNull ByteBuffer frame) throws IOException {
+					try {
+						written += frame.remaining();
+						output.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+						output.flush();
+					} finally {
+						BinaryCodec.POOL.release(frame);
+					}
+				}
+
+				@Override
+				public long written() {
+					return written;
+				}
+
+				@Override
+				public void close() throws IOException {
+					output.close();
+				}
+			};
+		}
+
+		@Override
+		@NotNull
+		public Reader reader(@NotNull InputStream input) {
+			DataInputStream data = new DataInputStream(new BufferedInputStream(input));
+			return new Reader() {
+				/**
+				 * The buffer frames get read into, grows with the largest frame received.
+				 */
+				private byte[] frame = new byte[256];
+
+				@Override
+				@NotNull
+				public Object read() throws IOException {
+					int length = data.readInt();
+					if (length < BinaryCodec.HEADER_SIZE || length > BinaryCodec.MAX_FRAME_SIZE) {
+						throw new StreamCorruptedException("Invalid frame length " + length);
+					}
+					if (length > frame.length) frame = new byte[Math.max(length, frame.length * 2)];
+					data.readFully(frame, 0, length);
+					return BinaryCodec.decode(ByteBuffer.wrap(frame, 0, length));
+				}
+
+				@Override
+				public void close() throws IOException {
+					data.close();
+				}
+			};
+		}
+
+		@Override
+		@NotNull
+		public ByteBuffer encode(@NotNull Object message, @NotNull BufferPool pool) {
+			return BinaryCodec.encode(message, pool);
+		}
+
+		@Override
+		@NotNull
+		public ByteBuffer encode(@NotNull UpdateBroadcast broadcast, boolean turn, @NotNull Player player, @NotNull BufferPool pool) {
+			byte[] shared = broadcast.encoded();
+			ByteBuffer buffer = pool.acquire(shared.length + BinaryCodec.privateSize(player));
+			buffer.put(shared);
+			BinaryCodec.writePrivate(turn, player, buffer);
+			return buffer.flip();
+		}
+
+		@Override
+		@NotNull
+		public Object decode(@NotNull ByteBuffer buffer) throws IOException {
+			return BinaryCodec.decode(buffer);
+		}
+	};
+
+	/**
+	 * Creates a writer sending messages through a stream in this format.
+	 *
+	 * @param output The stream to write to.
+	 * @return The new writer.
+	 * @throws IOException When the stream header couldn't be written.
+	 */
+	@NotNull
+	public abstract Writer writer(@NotNull OutputStream output) throws IOException;
+
+	/**
+	 * Creates a reader receiving messages from a stream in this format.
+	 * For Java serialization this blocks until the other side created its writer.
+	 *
+	 * @param input The stream to read from.
+	 * @return The new reader.
+	 * @throws IOException When the stream header couldn't be read.
+	 */
+	@NotNull
+	public abstract Reader reader(@NotNull InputStream input) throws IOException;
+
+	/**
+	 * Encodes a single message, for example to send it as a datagram.
+	 *
+	 * @param message The message to encode.
+	 * @param pool    The pool to take the buffer from, if this format uses pooled buffers.
+	 * @return A flipped buffer holding the message, which may be given back to the pool once sent.
+	 * @throws IOException When the message couldn't be encoded.
+	 */
+	@NotNull
+	public abstract ByteBuffer encode(@NotNull Object message, @NotNull BufferPool pool) throws IOException;
+
+	/**
+	 * Encodes the update of a single recipient of a broadcast, for example to send it as a datagram.
+	 *
+	 * @param broadcast The public part of the update.
+	 * @param turn      Whether it's the turn of the recipient.
+	 * @param player    The hand of the recipient.
+	 * @param pool      The pool to take the buffer from, if this format uses pooled buffers.
+	 * @return A flipped buffer holding the update, which may be given back to the pool once sent.
+	 * @throws IOException When the update couldn't be encoded.
+	 */
+	@NotNull
+	public ByteBuffer encode(@NotNull UpdateBroadcast broadcast, boolean turn, @NotNull Player player, @NotNull BufferPool pool) throws IOException {
+		return encode(broadcast.forPlayer(turn, player), pool);
+	}
+
+	/**
+	 * Decodes a single message.
+	 *
+	 * @param buffer The buffer holding the message.
+	 * @return The decoded message.
+	 * @throws IOException            When the buffer doesn't hold a valid message.
+	 * @throws ClassNotFoundException When a serialized class is unknown.
+	 */
+	@NotNull
+	public abstract Object decode(@NotNull ByteBuffer buffer) throws IOException, ClassNotFoundException;
+
+	/**
+	 * Sends messages through a stream.
+	 * Not thread safe, concurrent writes must be synchronized by the caller.
+	 */
+	public interface Writer extends Closeable {
+
+		/**
+		 * Sends a message and flushes the stream.
+		 *
+		 * @param message The message to send.
+		 * @throws IOException When an error occurs during transmission.
+		 */
+		void write(@NotNull Object message) throws IOException;
+
+		/**
+		 * Sends the update of a single recipient of a broadcast and flushes the stream.
+		 * Formats which can share the encoded public section override this.
+		 *
+		 * @param broadcast The public part of the update.
+		 * @param turn      Whether it's the turn of the recipient.
+		 * @param player    The hand of the recipient.
+		 * @throws IOException When an error occurs during transmission.
+		 */
+		default void write(@NotNull UpdateBroadcast broadcast, boolean turn, @NotNull Player player) throws IOException {
+			write(broadcast.forPlayer(turn, player));
+		}
+
+		/**
+		 * Returns how many bytes this writer passed to its stream so far.
+		 *
+		 * @return The amount of written bytes, including framing.
+		 */
+		long written();
+	}
+
+	/**
+	 * Counts the bytes passing through to another stream.
+	 * Not thread safe, like the writers using it.
+	 */
+	private static final class CountingOutputStream extends FilterOutputStream {
+
+		/**
+		 * How many bytes have been passed on so far.
+		 */
+		private long count = 0;
+
+		/**
+		 * Creates a new counting stream.
+		 *
+		 * @param output The stream to pass the bytes on to.
+		 */
+		private CountingOutputStream(@NotNull OutputStream output) {
+			super(output);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte @NotNull [] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+
+	/**
+	 * Receives messages from a stream.
+	 */
+	public interface Reader extends Closeable {
+
+		/**
+		 * Blocks until the next message has been received.
+		 *
+		 * @return The received message.
+		 * @throws IOException            When an error occurs during transmission.
+		 * @throws ClassNotFoundException When a serialized class is unknown.
+		 */
+		@NotNull
+		Object read() throws IOException, ClassNotFoundException;
+	}
+}
@@ -0,0 +1,46 @@
+package eu.tgx03.uno.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A number which only ever grows, like the amount of received commands.
+ * Cheap to update from many threads at once.
+ */
+public final class Counter {
+
+	/**
+	 * The current value.
+	 */
+	private final LongAdder value = new LongAdder();
+
+	/**
+	 * Creates a new counter, see {@link MetricsRegistry#counter(String, String, String...)}.
+	 */
+	Counter() {
+	}
+
+	/**
+	 * Adds one to this counter.
+	 */
+	public void increment() {
+		value.increment();
+	}
+
+	/**
+	 * Adds to this counter.
+	 *
+	 * @param amount How much to add, must not be negative.
+	 */
+	public void add(long amount) {
+		value.add(amount);
+	}
+
+	/**
+	 * Returns the current value.
+	 *
+	 * @return Everything added so far.
+	 */
+	public long sum() {
+		return value.sum();
+	}
+}
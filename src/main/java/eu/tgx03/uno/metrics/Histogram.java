@@ -0,0 +1,153 @@
+package eu.tgx03.uno.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The distribution of recorded values, like the durations of commands.
+ * Values get counted in buckets growing by powers of two, so recording is a few atomic additions
+ * and percentiles are exact up to a factor of two.
+ */
+public final class Histogram {
+
+	/**
+	 * How many buckets there are, one for 0 and one for each bit length of a positive long.
+	 */
+	static final int BUCKETS = Long.SIZE;
+
+	/**
+	 * How many values fell into each bucket.
+	 * Bucket 0 holds 0, bucket n holds the values from 2^(n-1) to 2^n - 1.
+	 */
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	/**
+	 * The sum of all recorded values.
+	 */
+	private final LongAdder sum = new LongAdder();
+	/**
+	 * The largest recorded value.
+	 */
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+	/**
+	 * What to multiply the recorded values with to get the unit they get reported in,
+	 * for example 1e-9 to report nanoseconds as seconds.
+	 */
+	final double scale;
+
+	/**
+	 * Creates a new histogram, see {@link MetricsRegistry#histogram(String, String, double, String...)}.
+	 *
+	 * @param scale What to multiply the recorded values with when reporting them.
+	 */
+	Histogram(double scale) {
+		this.scale = scale;
+	}
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value The value to record, negative values count as 0.
+	 */
+	public void record(long value) {
+		if (value < 0) value = 0;
+		buckets.incrementAndGet(bucket(value));
+		sum.add(value);
+		max.accumulate(value);
+	}
+
+	/**
+	 * Returns how many values have been recorded.
+	 *
+	 * @return The amount of recorded values.
+	 */
+	public long count() {
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			count += buckets.get(i);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the sum of all recorded values.
+	 *
+	 * @return The sum in the recorded unit.
+	 */
+	public long sum() {
+		return sum.sum();
+	}
+
+	/**
+	 * Returns the largest recorded value.
+	 *
+	 * @return The maximum in the recorded unit, 0 if nothing has been recorded.
+	 */
+	public long max() {
+		return max.get();
+	}
+
+	/**
+	 * Estimates a percentile of the recorded values.
+	 *
+	 * @param percentile The percentile between 0 and 100.
+	 * @return The upper bound of the bucket holding the percentile, at most the maximum. 0 if nothing has been recorded.
+	 */
+	public long percentile(double percentile) {
+		long[] counts = counts();
+		long total = 0;
+		for (long count : counts) total += count;
+		if (total == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) return Math.min(upperBound(i), max());
+		}
+		return max();
+	}
+
+	/**
+	 * Converts a recorded value into the unit it gets reported in.
+	 * Scales below 1 divide by their reciprocal, so for example nanoseconds don't pick up rounding noise as seconds.
+	 *
+	 * @param value The value in the recorded unit.
+	 * @return The value in the reported unit.
+	 */
+	double scaled(long value) {
+		return scale < 1 ? value / Math.rint(1 / scale) : value * scale;
+	}
+
+	/**
+	 * Takes a copy of the buckets.
+	 *
+	 * @return How many values fell into each bucket.
+	 */
+	long[] counts() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+		}
+		return counts;
+	}
+
+	/**
+	 * Returns the bucket a value falls into.
+	 *
+	 * @param value The value, not negative.
+	 * @return The index of the bucket.
+	 */
+	private static int bucket(long value) {
+		return Long.SIZE - Long.numberOfLeadingZeros(value);
+	}
+
+	/**
+	 * Returns the largest value a bucket holds.
+	 *
+	 * @param bucket The index of the bucket.
+	 * @return The upper bound of the bucket, inclusive.
+	 */
+	static long upperBound(int bucket) {
+		return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+	}
+}
@@ -0,0 +1,90 @@
+package eu.tgx03.uno.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the metrics of a registry as plain text on "/metrics",
+ * using the HTTP server built into the JDK, so Prometheus or a simple curl can scrape them.
+ */
+public final class MetricsEndpoint implements Closeable {
+
+	/**
+	 * The path the metrics are served on.
+	 */
+	public static final String PATH = "/metrics";
+
+	/**
+	 * The registry to serve.
+	 */
+	private final MetricsRegistry registry;
+	/**
+	 * The server answering the requests.
+	 */
+	private final HttpServer server;
+
+	/**
+	 * Creates and starts a new endpoint.
+	 *
+	 * @param registry The registry to serve.
+	 * @param address  The address to listen on, port 0 picks a free port.
+	 * @throws IOException If the address couldn't be bound.
+	 */
+	public MetricsEndpoint(@NotNull MetricsRegistry registry, @NotNull InetSocketAddress address) throws IOException {
+		this.registry = registry;
+		this.server = HttpServer.create(address, 0);
+		server.createContext(PATH, this::handle);
+		server.start();
+	}
+
+	/**
+	 * Returns the port this endpoint listens on, useful when it got bound to port 0.
+	 *
+	 * @return The local port of the endpoint.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Answers a request with the current metrics.
+	 *
+	 * @param exchange The request and its response.
+	 * @throws IOException If the response couldn't be sent.
+	 */
+	private void handle(@NotNull HttpExchange exchange) throws IOException {
+		try (exchange) {
+			String method = exchange.getRequestMethod();
+			if (!method.equals("GET") && !method.equals("HEAD")) {
+				exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+			byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+			if (method.equals("HEAD")) {
+				exchange.sendResponseHeaders(200, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream output = exchange.getResponseBody()) {
+				output.write(body);
+			}
+		}
+	}
+
+	/**
+	 * Stops serving the metrics.
+	 */
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+}
@@ -0,0 +1,306 @@
+package eu.tgx03.uno.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds named metrics and reports them in the plain text format Prometheus scrapes,
+ * see {@link MetricsEndpoint}, or as attributes of an MBean, see {@link #registerMBean(String)}.
+ * <p>
+ * A metric is identified by its name and labels, given as pairs of label name and value.
+ * Asking for a metric that already exists returns the existing one,
+ * so metrics are best looked up once and kept in a field.
+ */
+public final class MetricsRegistry {
+
+	/**
+	 * The metrics of this registry, by name.
+	 */
+	private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+	/**
+	 * Returns a counter, creating it if necessary.
+	 *
+	 * @param name   The name of the counter, which should end in "_total".
+	 * @param help   What the counter counts.
+	 * @param labels Pairs of label name and value.
+	 * @return The counter.
+	 * @throws IllegalArgumentException If a metric of another type has the same name.
+	 */
+	@NotNull
+	public Counter counter(@NotNull String name, @NotNull String help, @NotNull String @NotNull ... labels) {
+		return (Counter) family(name, help, Type.COUNTER).series.computeIfAbsent(labels(labels), k -> new Counter());
+	}
+
+	/**
+	 * Returns a histogram, creating it if necessary.
+	 *
+	 * @param name   The name of the histogram, which should end in the reported unit.
+	 * @param help   What the histogram measures.
+	 * @param scale  What to multiply the recorded values with to get the reported unit, for example 1e-9 for nanoseconds as seconds.
+	 * @param labels Pairs of label name and value.
+	 * @return The histogram.
+	 * @throws IllegalArgumentException If a metric of another type has the same name.
+	 */
+	@NotNull
+	public Histogram histogram(@NotNull String name, @NotNull String help, double scale, @NotNull String @NotNull ... labels) {
+		return (Histogram) family(name, help, Type.HISTOGRAM).series.computeIfAbsent(labels(labels), k -> new Histogram(scale));
+	}
+
+	/**
+	 * Registers a value which gets read whenever the metrics get reported.
+	 * Replaces a gauge with the same name and labels.
+	 *
+	 * @param name   The name of the gauge.
+	 * @param help   What the gauge shows.
+	 * @param value  Reads the current value, gets called from the reporting thread.
+	 * @param labels Pairs of label name and value.
+	 * @throws IllegalArgumentException If a metric of another type has the same name.
+	 */
+	public void gauge(@NotNull String name, @NotNull String help, @NotNull LongSupplier value, @NotNull String @NotNull ... labels) {
+		family(name, help, Type.GAUGE).series.put(labels(labels), value);
+	}
+
+	/**
+	 * Returns the family of metrics with a name, creating it if necessary.
+	 *
+	 * @param name The name of the metrics.
+	 * @param help What the metrics show.
+	 * @param type The type of the metrics.
+	 * @return The family.
+	 * @throws IllegalArgumentException If the family exists with another type.
+	 */
+	@NotNull
+	private Family family(@NotNull String name, @NotNull String help, @NotNull Type type) {
+		Family family = families.computeIfAbsent(name, k -> new Family(help, type, new ConcurrentSkipListMap<>()));
+		if (family.type != type) throw new IllegalArgumentException(name + " is already registered as " + family.type);
+		return family;
+	}
+
+	/**
+	 * Writes all metrics in the Prometheus text format.
+	 * Histograms only list the buckets between the smallest and the largest recorded value.
+	 *
+	 * @param out Where to write the metrics to.
+	 */
+	public void writeText(@NotNull StringBuilder out) {
+		for (Map.Entry<String, Family> entry : families.entrySet()) {
+			String name = entry.getKey();
+			Family family = entry.getValue();
+			out.append("# HELP ").append(name).append(' ').append(family.help.replace("\\", "\\\\").replace("\n", "\\n")).append('\n');
+			out.append("# TYPE ").append(name).append(' ').append(family.type.name().toLowerCase()).append('\n');
+			for (Map.Entry<String, Object> series : family.series.entrySet()) {
+				String labels = series.getKey();
+				switch (series.getValue()) {
+					case Counter counter -> line(out, name, labels, counter.sum());
+					case LongSupplier gauge -> line(out, name, labels, gauge.getAsLong());
+					case Histogram histogram -> writeHistogram(out, name, labels, histogram);
+					default -> throw new AssertionError();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes all metrics in the Prometheus text format.
+	 *
+	 * @return The metrics as text.
+	 */
+	@NotNull
+	public String scrape() {
+		StringBuilder builder = new StringBuilder(4096);
+		writeText(builder);
+		return builder.toString();
+	}
+
+	/**
+	 * Writes the lines of a histogram.
+	 *
+	 * @param out       Where to write to.
+	 * @param name      The name of the histogram.
+	 * @param labels    The formatted labels of the histogram, may be empty.
+	 * @param histogram The histogram to write.
+	 */
+	private static void writeHistogram(@NotNull StringBuilder out, @NotNull String name, @NotNull String labels, @NotNull Histogram histogram) {
+		long[] counts = histogram.counts();
+		int first = 0;
+		while (first < counts.length && counts[first] == 0) first++;
+		int last = counts.length - 1;
+		while (last >= first && counts[last] == 0) last--;
+		String prefix = labels.isEmpty() ? "{le=\"" : labels.substring(0, labels.length() - 1) + ",le=\"";
+		long cumulative = 0;
+		for (int i = first; i <= last; i++) {
+			cumulative += counts[i];
+			out.append(name).append("_bucket").append(prefix).append(histogram.scaled(Histogram.upperBound(i))).append("\"} ").append(cumulative).append('\n');
+		}
+		out.append(name).append("_bucket").append(prefix).append("+Inf\"} ").append(cumulative).append('\n');
+		out.append(name).append("_sum").append(labels).append(' ').append(histogram.scaled(histogram.sum())).append('\n');
+		line(out, name + "_count", labels, cumulative);
+	}
+
+	/**
+	 * Writes the line of a single value.
+	 *
+	 * @param out    Where to write to.
+	 * @param name   The name of the value.
+	 * @param labels The formatted labels, may be empty.
+	 * @param value  The value.
+	 */
+	private static void line(@NotNull StringBuilder out, @NotNull String name, @NotNull String labels, long value) {
+		out.append(name).append(labels).append(' ').append(value).append('\n');
+	}
+
+	/**
+	 * Formats pairs of label name and value.
+	 *
+	 * @param labels Pairs of label name and value.
+	 * @return The labels in curly braces, or an empty string if there are none.
+	 * @throws IllegalArgumentException If a label has no value.
+	 */
+	@NotNull
+	private static String labels(@NotNull String @NotNull [] labels) {
+		if (labels.length % 2 != 0) throw new IllegalArgumentException("Labels must be given as pairs of name and value");
+		if (labels.length == 0) return "";
+		StringBuilder builder = new StringBuilder("{");
+		for (int i = 0; i < labels.length; i += 2) {
+			if (i > 0) builder.append(',');
+			String value = labels[i + 1].replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+			builder.append(labels[i]).append("=\"").append(value).append('"');
+		}
+		return builder.append('}').toString();
+	}
+
+	/**
+	 * Makes the metrics available through JMX as the attributes of a single MBean.
+	 * Counters and gauges become one attribute each,
+	 * histograms one attribute each for their count, sum, maximum and a few percentiles in the reported unit.
+	 *
+	 * @param domain The domain of the MBean, it gets registered as "domain:type=Metrics".
+	 * @return The name the MBean got registered under.
+	 * @throws JMException If the MBean couldn't be registered, for example because the name is taken.
+	 */
+	@NotNull
+	public ObjectName registerMBean(@NotNull String domain) throws JMException {
+		ObjectName name = new ObjectName(domain, "type", "Metrics");
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		server.registerMBean(new MBean(), name);
+		return name;
+	}
+
+	/**
+	 * Reads the current values of all metrics as attributes.
+	 *
+	 * @return The values by attribute name, sorted.
+	 */
+	@NotNull
+	private Map<String, Object> attributes() {
+		Map<String, Object> attributes = new TreeMap<>();
+		for (Map.Entry<String, Family> entry : families.entrySet()) {
+			for (Map.Entry<String, Object> series : entry.getValue().series.entrySet()) {
+				String name = entry.getKey() + series.getKey();
+				switch (series.getValue()) {
+					case Counter counter -> attributes.put(name, counter.sum());
+					case LongSupplier gauge -> attributes.put(name, gauge.getAsLong());
+					case Histogram histogram -> {
+						attributes.put(name + ".count", histogram.count());
+						attributes.put(name + ".sum", histogram.scaled(histogram.sum()));
+						attributes.put(name + ".max", histogram.scaled(histogram.max()));
+						attributes.put(name + ".p50", histogram.scaled(histogram.percentile(50)));
+						attributes.put(name + ".p99", histogram.scaled(histogram.percentile(99)));
+						attributes.put(name + ".p999", histogram.scaled(histogram.percentile(99.9)));
+					}
+					default -> throw new AssertionError();
+				}
+			}
+		}
+		return attributes;
+	}
+
+	/**
+	 * The types of metrics.
+	 */
+	private enum Type {
+		COUNTER, GAUGE, HISTOGRAM
+	}
+
+	/**
+	 * All the metrics sharing a name.
+	 *
+	 * @param help   What the metrics show.
+	 * @param type   The type of the metrics.
+	 * @param series The metrics by their formatted labels,
+	 *               a {@link Counter}, a {@link Histogram} or a {@link LongSupplier} for gauges.
+	 */
+	private record Family(@NotNull String help, @NotNull Type type, @NotNull Map<String, Object> series) {
+	}
+
+	/**
+	 * Exposes the metrics of this registry through JMX.
+	 * The attributes are read-only and looked up on every request, so new metrics show up without registering again.
+	 */
+	private final class MBean implements DynamicMBean {
+
+		@Override
+		@NotNull
+		public Object getAttribute(@NotNull String attribute) throws AttributeNotFoundException {
+			Object value = attributes().get(attribute);
+			if (value == null) throw new AttributeNotFoundException(attribute);
+			return value;
+		}
+
+		@Override
+		public void setAttribute(@NotNull Attribute attribute) throws AttributeNotFoundException {
+			throw new AttributeNotFoundException("Metrics are read-only");
+		}
+
+		@Override
+		@NotNull
+		public AttributeList getAttributes(@NotNull String @NotNull [] names) {
+			Map<String, Object> attributes = attributes();
+			AttributeList list = new AttributeList();
+			for (String name : names) {
+				Object value = attributes.get(name);
+				if (value != null) list.add(new Attribute(name, value));
+			}
+			return list;
+		}
+
+		@Override
+		@NotNull
+		public AttributeList setAttributes(@NotNull AttributeList attributes) {
+			return new AttributeList();
+		}
+
+		@Override
+		public Object invoke(@NotNull String action, Object[] params, String[] signature) {
+			throw new UnsupportedOperationException("Metrics have no operations");
+		}
+
+		@Override
+		@NotNull
+		public MBeanInfo getMBeanInfo() {
+			Map<String, Object> attributes = attributes();
+			MBeanAttributeInfo[] infos = new MBeanAttributeInfo[attributes.size()];
+			int i = 0;
+			for (Map.Entry<String, Object> attribute : attributes.entrySet()) {
+				String type = attribute.getValue() instanceof Double ? "double" : "long";
+				infos[i++] = new MBeanAttributeInfo(attribute.getKey(), type, attribute.getKey(), true, false, false);
+			}
+			return new MBeanInfo(MetricsRegistry.class.getName(), "Metrics of the UNO servers", infos, null, null, null);
+		}
+	}
+}
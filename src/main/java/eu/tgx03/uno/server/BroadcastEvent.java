@@ -0,0 +1,30 @@
+package eu.tgx03.uno.server;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A server handed an update to all its clients.
+ */
+@Name("eu.tgx03.uno.Broadcast")
+@Label("Update Broadcast")
+@Category({"UNO", "Server"})
+@Description("A server handed an update to all its clients")
+final class BroadcastEvent extends Event {
+
+	/**
+	 * How many clients were connected.
+	 */
+	@Label("Recipients")
+	int recipients;
+	/**
+	 * How many bytes the update took for all clients together, -1 if it only gets encoded while being written.
+	 */
+	@Label("Bytes")
+	@DataAmount
+	long bytes;
+}
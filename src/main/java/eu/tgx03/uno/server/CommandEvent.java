@@ -0,0 +1,34 @@
+package eu.tgx03.uno.server;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A server executed a command received from a client.
+ * Lasts from receiving the command until the update has been handed to the clients.
+ */
+@Name("eu.tgx03.uno.Command")
+@Label("Command")
+@Category({"UNO", "Server"})
+@Description("A server executed a command received from a client")
+final class CommandEvent extends Event {
+
+	/**
+	 * The player who sent the command.
+	 */
+	@Label("Player")
+	int player;
+	/**
+	 * The type of the command.
+	 */
+	@Label("Type")
+	String type;
+	/**
+	 * Why the command has been rejected, NONE if it has been executed.
+	 */
+	@Label("Result")
+	String result;
+}
@@ -0,0 +1,217 @@
+package eu.tgx03.uno.server;
+
+import eu.tgx03.ExceptionHandler;
+import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.messaging.Command;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A server hosting many games at the same time behind a single port.
+ * Games get created and started through the lobby methods of this class,
+ * clients join a room by sending its ID right after connecting,
+ * see {@link eu.tgx03.uno.client.SocketClient#SocketClient(String, int, int)}.
+ * Each connection is served by a virtual thread and each room executes its commands on its own serial executor.
+ */
+public class GameHost implements Runnable {
+
+	/**
+	 * The server socket that accepts new connections.
+	 */
+	private final ServerSocket serverSocket;
+	/**
+	 * All the currently open rooms, by their ID.
+	 */
+	private final Map<Integer, Room> rooms = new ConcurrentHashMap<>();
+	/**
+	 * Used to get the ID for each new room.
+	 */
+	private final AtomicInteger nextID = new AtomicInteger();
+	/**
+	 * The executor all rooms run their commands on.
+	 */
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	/**
+	 * The handlers for exceptions that may occur during operation.
+	 */
+	private final List<ExceptionHandler> exceptionHandlers = new ArrayList<>(1);
+	/**
+	 * Whether the host shall be stopped.
+	 */
+	private volatile boolean kill = false;
+
+	/**
+	 * Creates a new host that listens on the provided port.
+	 *
+	 * @param port The port this host should listen on.
+	 * @throws IOException When something goes wrong while starting the host.
+	 */
+	public GameHost(int port) throws IOException {
+		serverSocket = new ServerSocket(port);
+		Thread accepter = new Thread(this, "GameHost-Main");
+		accepter.setDaemon(true);
+		accepter.start();
+	}
+
+	/**
+	 * Opens a new room players can join.
+	 *
+	 * @param rules The rules of the game in that room.
+	 * @return The ID of the new room.
+	 */
+	public int createRoom(@Nullable Rules rules) {
+		int id = nextID.getAndIncrement();
+		Room room = new Room(id, this, rules, executor);
+		synchronized (exceptionHandlers) {
+			exceptionHandlers.forEach(room::registerExceptionHandler);
+		}
+		rooms.put(id, room);
+		return id;
+	}
+
+	/**
+	 * Starts the game of a room.
+	 *
+	 * @param id The ID of the room.
+	 * @return Whether the room exists and has been started.
+	 */
+	public boolean startRoom(int id) {
+		Room room = rooms.get(id);
+		if (room == null || room.getPlayerCount() == 0) return false;
+		room.start();
+		return true;
+	}
+
+	/**
+	 * Ends the game of a room and closes it.
+	 *
+	 * @param id The ID of the room.
+	 */
+	public void closeRoom(int id) {
+		Room room = rooms.get(id);
+		if (room != null) room.kill();
+	}
+
+	/**
+	 * Returns a room of this host.
+	 *
+	 * @param id The ID of the room.
+	 * @return The room or null if there is none with that ID.
+	 */
+	@Nullable
+	public Room getRoom(int id) {
+		return rooms.get(id);
+	}
+
+	/**
+	 * Returns all the rooms currently open.
+	 *
+	 * @return A view of all the rooms.
+	 */
+	@NotNull
+	public Collection<Room> getRooms() {
+		return Collections.unmodifiableCollection(rooms.values());
+	}
+
+	/**
+	 * Registers a new object that wishes to handle exceptions that may occur in this host or any of its rooms.
+	 *
+	 * @param handler The object to be registered as exception handler.
+	 */
+	public void registerExceptionHandler(@NotNull ExceptionHandler handler) {
+		synchronized (exceptionHandlers) {
+			exceptionHandlers.add(handler);
+		}
+		rooms.values().forEach(room -> room.registerExceptionHandler(handler));
+	}
+
+	/**
+	 * Stops accepting connections and closes all rooms.
+	 */
+	public void kill() {
+		kill = true;
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			handleException(e);
+		}
+		rooms.values().forEach(Room::kill);
+		executor.shutdown();
+	}
+
+	/**
+	 * Removes a room once it has been closed.
+	 *
+	 * @param room The closed room.
+	 */
+	void remove(@NotNull Room room) {
+		rooms.remove(room.getId(), room);
+	}
+
+	@Override
+	public void run() {
+		while (!kill) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				Thread.ofVirtual().name("GameHost-Connection").start(() -> serve(socket));
+			} catch (SocketException e) {
+				if (!kill) handleException(e);
+			} catch (IOException e) {
+				handleException(e);
+			}
+		}
+	}
+
+	/**
+	 * Seats a new connection in the requested room and then forwards its commands to the room.
+	 *
+	 * @param socket The new connection.
+	 */
+	private void serve(@NotNull Socket socket) {
+		try (socket) {
+			Room room = rooms.get(new DataInputStream(socket.getInputStream()).readInt());
+			ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
+			ObjectOutputStream output = new ObjectOutputStream(socket.getOutputStream());
+			output.flush();
+			int seat = room != null ? room.join(output) : -1;
+			if (seat < 0) return;   // Unknown room or already started, just drop the connection
+
+			while (!kill && !socket.isClosed()) {
+				room.submit(seat, (Command) input.readObject());
+			}
+		} catch (SocketException | EOFException ignored) {   // Connection got closed
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			if (!kill) handleException(e);
+		}
+	}
+
+	/**
+	 * Gives an exception that occurred to all the registered handlers.
+	 *
+	 * @param e The exception to forward.
+	 */
+	private void handleException(@NotNull Exception e) {
+		synchronized (exceptionHandlers) {
+			exceptionHandlers.forEach(x -> x.handleException(e));
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package eu.tgx03.uno.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+
+/**
+ * Watches whether a client is still there.
+ * Receiving anything only records the time, a single timeout on the {@link TimingWheel} checks it now and then,
+ * so busy connections never touch the wheel.
+ * If nothing has been heard for the configured time, the idle handler runs once.
+ */
+final class Liveness {
+
+	/**
+	 * The wheel the checks get scheduled on.
+	 */
+	private final TimingWheel wheel;
+	/**
+	 * How long a client may stay silent in nanoseconds, or 0 if never checked.
+	 */
+	private final long timeout;
+	/**
+	 * What to do once the client stayed silent for too long.
+	 */
+	private final Runnable onIdle;
+	/**
+	 * When something has last been received from the client.
+	 */
+	private volatile long lastHeard = System.nanoTime();
+	/**
+	 * The pending check.
+	 * Guarded by this object.
+	 */
+	private TimingWheel.Timeout check;
+	/**
+	 * Whether the watch has been stopped or the client went idle.
+	 * Guarded by this object.
+	 */
+	private boolean stopped = false;
+
+	/**
+	 * Creates a new watch and schedules its first check.
+	 *
+	 * @param wheel   The wheel to schedule the checks on.
+	 * @param timeout How long the client may stay silent, null to never check.
+	 * @param onIdle  What to do once the client stayed silent for too long. Has to handle its own exceptions.
+	 */
+	Liveness(@NotNull TimingWheel wheel, @Nullable Duration timeout, @NotNull Runnable onIdle) {
+		this.wheel = wheel;
+		this.timeout = timeout == null ? 0 : timeout.toNanos();
+		this.onIdle = onIdle;
+		if (this.timeout > 0) schedule(this.timeout);
+	}
+
+	/**
+	 * Records that something has been received from the client.
+	 */
+	void heard() {
+		lastHeard = System.nanoTime();
+	}
+
+	/**
+	 * Stops watching the client.
+	 */
+	synchronized void stop() {
+		stopped = true;
+		if (check != null) check.cancel();
+	}
+
+	/**
+	 * Schedules the next check.
+	 * Must be called while holding this object.
+	 *
+	 * @param delay When to check in nanoseconds.
+	 */
+	private void schedule(long delay) {
+		check = wheel.schedule(this::check, Duration.ofNanos(delay));
+	}
+
+	/**
+	 * Checks whether the client stayed silent for too long,
+	 * otherwise schedules the next check for when that would be the case.
+	 */
+	private void check() {
+		synchronized (this) {
+			if (stopped) return;
+			long silent = System.nanoTime() - lastHeard;
+			if (silent < timeout) {
+				schedule(timeout - silent);
+				return;
+			}
+			stopped = true;
+		}
+		onIdle.run();
+	}
+}
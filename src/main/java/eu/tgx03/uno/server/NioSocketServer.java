@@ -0,0 +1,509 @@
+package eu.tgx03.uno.server;
+
+import eu.tgx03.uno.game.GameSnapshot;
+import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.messaging.BinaryCodec;
+import eu.tgx03.uno.messaging.Command;
+import eu.tgx03.uno.messaging.CommandResult;
+import eu.tgx03.uno.messaging.UpdateBroadcast;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.SocketTimeoutException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A server using non-blocking channels, so a few event loop threads can serve a large amount of connections.
+ * Messages get exchanged as length prefixed binary frames,
+ * clients need to connect with {@link eu.tgx03.uno.messaging.WireFormat#BINARY}.
+ * Commands get executed directly on the event loop of the connection they were received on,
+ * updates get queued on every connection and written once the socket is ready.
+ * <p>
+ * Before the first frame, a connection exchanges the session token the same way as with {@link SocketServer},
+ * so clients can reclaim their seat after losing the connection.
+ */
+public class NioSocketServer extends Server implements Runnable {
+
+	/**
+	 * The initial size of the buffer each connection reads into.
+	 */
+	private static final int READ_BUFFER_SIZE = 512;
+	/**
+	 * The source of the session tokens.
+	 */
+	private static final SecureRandom TOKENS = new SecureRandom();
+
+	/**
+	 * The channel accepting new connections.
+	 */
+	private final ServerSocketChannel serverChannel;
+	/**
+	 * The selector the accepting thread waits on.
+	 */
+	private final Selector acceptSelector;
+	/**
+	 * The event loops the connections get distributed across.
+	 */
+	private final EventLoop[] loops;
+	/**
+	 * The current connection of every player, indexed by the ID of the player.
+	 * New seats get added while holding this list.
+	 */
+	private final List<Connection> connections = new CopyOnWriteArrayList<>();
+	/**
+	 * The session tokens, indexed by the ID of their player.
+	 */
+	private final List<Long> tokens = new CopyOnWriteArrayList<>();
+	/**
+	 * How many connections have been accepted, used to distribute them across the event loops.
+	 */
+	private int accepted = 0;
+	/**
+	 * The rules of the game.
+	 */
+	private final Rules rules;
+
+	/**
+	 * Creates a new server that listens on the provided port,
+	 * with one event loop for every two available processors.
+	 *
+	 * @param port  The port this server should listen on.
+	 * @param rules The rules of the game.
+	 * @throws IOException When something goes wrong while starting the server.
+	 */
+	public NioSocketServer(int port, @Nullable Rules rules) throws IOException {
+		this(port, rules, Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+	}
+
+	/**
+	 * Creates a new server that listens on the provided port.
+	 *
+	 * @param port  The port this server should listen on.
+	 * @param rules The rules of the game.
+	 * @param loops How many event loop threads to use.
+	 * @throws IOException When something goes wrong while starting the server.
+	 */
+	public NioSocketServer(int port, @Nullable Rules rules, int loops) throws IOException {
+		if (loops <= 0) throw new IllegalArgumentException("At least one event loop is required");
+		this.rules = rules;
+		this.serverChannel = ServerSocketChannel.open();
+		this.serverChannel.bind(new InetSocketAddress(port));
+		this.serverChannel.configureBlocking(false);
+		this.acceptSelector = Selector.open();
+		this.serverChannel.register(acceptSelector, SelectionKey.OP_ACCEPT);
+		this.loops = new EventLoop[loops];
+		for (int i = 0; i < loops; i++) {
+			this.loops[i] = new EventLoop(i);
+		}
+		Thread accepter = new Thread(this, "NioHost-Accept");
+		accepter.setDaemon(true);
+		accepter.start();
+	}
+
+	@Override
+	public void start() {
+		synchronized (connections) {
+			game = createGame(getPlayerCount(), rules);
+			start = true;   // Publishes the game to the event loops
+		}
+		update();
+		armTurnTimer();
+	}
+
+	@Override
+	public int getPlayerCount() {
+		return connections.size();
+	}
+
+	@Override
+	protected int getConnectionCount() {
+		int count = 0;
+		for (Connection connection : connections) {
+			if (connection.channel.isOpen()) count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the port this server listens on, useful when it got bound to port 0.
+	 *
+	 * @return The local port.
+	 */
+	public int getPort() {
+		return serverChannel.socket().getLocalPort();
+	}
+
+	@Override
+	protected long update() {
+		GameSnapshot snapshot = game.getSnapshot();
+		UpdateBroadcast broadcast = new UpdateBroadcast(snapshot.hasEnded(), snapshot.getTopCard(), snapshot.getCardCount(), (short) snapshot.getStackSize());
+		long bytes = 0;
+		for (Connection connection : connections) {
+			bytes += connection.send(snapshot, broadcast, false);
+		}
+		return bytes;
+	}
+
+	@Override
+	protected void resync(int player) {
+		GameSnapshot snapshot = game.getSnapshot();
+		UpdateBroadcast broadcast = new UpdateBroadcast(snapshot.hasEnded(), snapshot.getTopCard(), snapshot.getCardCount(), (short) snapshot.getStackSize());
+		connections.get(player).send(snapshot, broadcast, true);
+	}
+
+	@Override
+	protected void reply(int player, @NotNull CommandResult result) {
+		connections.get(player).reply(result);
+	}
+
+	@Override
+	public void kill() {
+		super.kill();
+		acceptSelector.wakeup();
+		for (Connection connection : connections) connection.close();
+		for (EventLoop loop : loops) loop.selector.wakeup();
+	}
+
+	/**
+	 * Accepts new connections and distributes them across the event loops.
+	 * After the start, new connections can only reclaim a seat.
+	 */
+	@Override
+	public void run() {
+		try (serverChannel; acceptSelector) {
+			while (!kill) {
+				acceptSelector.select();
+				acceptSelector.selectedKeys().clear();
+				SocketChannel channel;
+				while (!kill && (channel = serverChannel.accept()) != null) {
+					channel.configureBlocking(false);
+					channel.socket().setTcpNoDelay(true);
+					Connection connection = new Connection(channel, loops[accepted++ % loops.length]);
+					connection.loop.register(connection);
+				}
+			}
+		} catch (IOException e) {
+			if (!kill) handleException(e);
+		}
+	}
+
+	/**
+	 * Gives a connection the seat belonging to a session token, or a new one if the game hasn't started yet.
+	 * Answers with the token of the seat or 0 if the connection got rejected.
+	 *
+	 * @param connection The connection that sent its token.
+	 * @param token      The received token, 0 when joining for the first time.
+	 */
+	private void join(@NotNull Connection connection, long token) {
+		int seat;
+		Connection previous = null;
+		synchronized (connections) {
+			if (token == 0 && !start) {
+				do {
+					token = TOKENS.nextLong();
+				} while (token == 0);
+				seat = connections.size();
+				tokens.add(token);
+			} else if (token == 0 || (seat = tokens.indexOf(token)) < 0) {    // Unknown session or too late to join
+				synchronized (connection) {
+					connection.closing = true;
+					connection.enqueue(ByteBuffer.allocate(Long.BYTES).putLong(0, 0));
+				}
+				return;
+			}
+			connection.id = seat;
+			synchronized (connection) {   // The answer has to precede any update
+				connection.enqueue(ByteBuffer.allocate(Long.BYTES).putLong(0, token));
+			}
+			if (seat == connections.size()) connections.add(connection);
+			else previous = connections.set(seat, connection);
+		}
+		if (previous != null) {
+			previous.close();
+			if (start) resync(seat);
+		}
+	}
+
+	/**
+	 * A thread multiplexing the traffic of many connections through a single selector.
+	 */
+	private class EventLoop implements Runnable {
+
+		/**
+		 * The selector of this loop.
+		 */
+		private final Selector selector;
+		/**
+		 * The connections waiting to be registered with the selector.
+		 */
+		private final Queue<Connection> pending = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * Creates and starts a new event loop.
+		 *
+		 * @param number The number of this loop, used for the name of its thread.
+		 * @throws IOException When the selector couldn't be opened.
+		 */
+		private EventLoop(int number) throws IOException {
+			this.selector = Selector.open();
+			Thread thread = new Thread(this, "NioHost-Loop " + number);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		/**
+		 * Hands a new connection to this loop.
+		 *
+		 * @param connection The connection to register.
+		 */
+		private void register(@NotNull Connection connection) {
+			pending.add(connection);
+			selector.wakeup();
+		}
+
+		@Override
+		public void run() {
+			try (selector) {
+				while (!kill) {
+					selector.select();
+					Connection connection;
+					while ((connection = pending.poll()) != null) {
+						try {
+							connection.key = connection.channel.register(selector, SelectionKey.OP_READ, connection);
+							if (connection.hasPendingWrites()) connection.key.interestOpsOr(SelectionKey.OP_WRITE);
+						} catch (ClosedChannelException ignored) {   // The client already left again
+						}
+					}
+					for (SelectionKey key : selector.selectedKeys()) {
+						Connection c = (Connection) key.attachment();
+						try {
+							if (key.isValid() && key.isReadable() && !c.read()) c.close();
+							if (key.isValid() && key.isWritable()) c.flush();
+						} catch (IOException | CancelledKeyException e) {
+							boolean expected = c.closing;
+							c.close();
+							if (!kill && !expected) handleException(e);
+						}
+					}
+					selector.selectedKeys().clear();
+				}
+
+				// Also close the connections which never completed the handshake
+				for (SelectionKey key : selector.keys()) {
+					((Connection) key.attachment()).close();
+				}
+			} catch (IOException e) {
+				if (!kill) handleException(e);
+			}
+		}
+	}
+
+	/**
+	 * The state of a single connection.
+	 * Reading only happens on the event loop, writing is guarded by the connection itself.
+	 */
+	private class Connection {
+
+		/**
+		 * The ID of the player of this connection, -1 until the session token has been received.
+		 */
+		private volatile int id = -1;
+		/**
+		 * The channel of this connection.
+		 */
+		private final SocketChannel channel;
+		/**
+		 * The event loop serving this connection.
+		 */
+		private final EventLoop loop;
+		/**
+		 * The frames waiting to be written, the first one may be partially written.
+		 */
+		private final Queue<ByteBuffer> writes = new ArrayDeque<>();
+		/**
+		 * The buffer incoming frames get collected in.
+		 */
+		private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+		/**
+		 * The key of this connection, set once registered with the event loop.
+		 */
+		private volatile SelectionKey key;
+		/**
+		 * The version of the last snapshot queued on this connection.
+		 */
+		private long sentVersion = -1;
+		/**
+		 * Whether the connection shall be closed once all frames have been written.
+		 */
+		private boolean closing = false;
+		/**
+		 * Watches whether the client is still there.
+		 */
+		private final Liveness liveness;
+
+		/**
+		 * Creates a new connection.
+		 *
+		 * @param channel The channel of the connection.
+		 * @param loop    The event loop serving the connection.
+		 */
+		private Connection(@NotNull SocketChannel channel, @NotNull EventLoop loop) {
+			this.channel = channel;
+			this.loop = loop;
+			this.liveness = watch(this::idle);
+		}
+
+		/**
+		 * Drops this connection as the client stayed silent for too long, so it has to reconnect.
+		 */
+		private void idle() {
+			close();
+			if (!kill) handleException(new SocketTimeoutException("Player " + id + " stayed silent for too long"));
+		}
+
+		/**
+		 * Reads all available data and executes the complete commands.
+		 * Several commands arriving together get executed as a single batch.
+		 *
+		 * @return Whether the connection is still open.
+		 * @throws IOException When reading fails or a malformed frame was received.
+		 */
+		private boolean read() throws IOException {
+			if (channel.read(readBuffer) < 0) return false;
+			liveness.heard();
+			readBuffer.flip();
+			if (id < 0) {
+				if (readBuffer.remaining() < Long.BYTES) {
+					readBuffer.compact();
+					return true;
+				}
+				join(this, readBuffer.getLong());
+			}
+			List<Command> commands = new ArrayList<>(1);
+			while (readBuffer.remaining() >= BinaryCodec.FRAME_PREFIX) {
+				int length = readBuffer.getInt(readBuffer.position());
+				if (length < BinaryCodec.HEADER_SIZE || length > BinaryCodec.MAX_FRAME_SIZE) {
+					throw new StreamCorruptedException("Invalid frame length " + length);
+				}
+				if (readBuffer.remaining() < BinaryCodec.FRAME_PREFIX + length) {
+					if (readBuffer.capacity() < BinaryCodec.FRAME_PREFIX + length) {
+						readBuffer = ByteBuffer.allocate(BinaryCodec.FRAME_PREFIX + length).put(readBuffer).flip();
+					}
+					break;
+				}
+				int end = readBuffer.position() + BinaryCodec.FRAME_PREFIX + length;
+				Command command = BinaryCodec.readCommand(readBuffer.slice(readBuffer.position() + BinaryCodec.FRAME_PREFIX, length));
+				readBuffer.position(end);
+				commands.add(command);
+			}
+			readBuffer.compact();
+			if (start && !kill && id >= 0 && !commands.isEmpty()) {
+				if (commands.size() == 1) executeCommand(id, commands.getFirst());
+				else executeCommands(id, commands);
+			}
+			return true;
+		}
+
+		/**
+		 * Queues the update of a snapshot on this connection, unless a newer one has already been queued.
+		 *
+		 * @param snapshot  The snapshot the update belongs to.
+		 * @param broadcast The public part of the update.
+		 * @param force     Whether to send the update even if its snapshot has already been sent.
+		 * @return The size of the queued frame, 0 if nothing has been queued.
+		 */
+		private synchronized int send(@NotNull GameSnapshot snapshot, @NotNull UpdateBroadcast broadcast, boolean force) {
+			if (closing || (!force && snapshot.version() <= sentVersion)) return 0;
+			sentVersion = Math.max(sentVersion, snapshot.version());
+			ByteBuffer frame = broadcast.encodeFrame(snapshot.getCurrentPlayer() == id, snapshot.getPlayer(id), BinaryCodec.POOL);
+			closing = snapshot.hasEnded();
+			int bytes = frame.remaining();
+			ServerMetrics.UPDATE_BYTES.record(bytes);
+			enqueue(frame);
+			return bytes;
+		}
+
+		/**
+		 * Queues the result of a command on this connection.
+		 *
+		 * @param result The result to send.
+		 */
+		private synchronized void reply(@NotNull CommandResult result) {
+			if (!closing) enqueue(BinaryCodec.encodeFrame(result, BinaryCodec.POOL));
+		}
+
+		/**
+		 * Adds a frame to the queue and starts writing if the event loop isn't already waiting to write.
+		 * Must be called while holding this connection.
+		 *
+		 * @param frame The frame to write.
+		 */
+		private void enqueue(@NotNull ByteBuffer frame) {
+			writes.add(frame);
+			if (writes.size() > 1) return;   // The event loop is already waiting to write
+			try {
+				flush();
+			} catch (IOException e) {
+				close();
+				if (!kill) handleException(e);
+			}
+		}
+
+		/**
+		 * Writes as many queued frames as the socket accepts.
+		 * If some remain, the event loop gets told to continue once the socket is writable again.
+		 *
+		 * @throws IOException When writing fails.
+		 */
+		private synchronized void flush() throws IOException {
+			ByteBuffer frame;
+			while ((frame = writes.peek()) != null) {
+				channel.write(frame);
+				if (frame.hasRemaining()) break;
+				writes.poll();
+				BinaryCodec.POOL.release(frame);
+			}
+			SelectionKey key = this.key;
+			if (writes.isEmpty()) {
+				if (closing) close();
+				else if (key != null) key.interestOpsAnd(~SelectionKey.OP_WRITE);
+			} else if (key != null) {
+				key.interestOpsOr(SelectionKey.OP_WRITE);
+				loop.selector.wakeup();
+			}
+		}
+
+		/**
+		 * Whether frames are waiting to be written.
+		 *
+		 * @return Whether the queue of this connection isn't empty.
+		 */
+		private synchronized boolean hasPendingWrites() {
+			return !writes.isEmpty();
+		}
+
+		/**
+		 * Closes this connection and drops all the queued frames.
+		 */
+		private synchronized void close() {
+			liveness.stop();
+			closing = true;
+			writes.clear();
+			try {
+				channel.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package eu.tgx03.uno.server;
+
+import eu.tgx03.uno.game.GameSnapshot;
+import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.messaging.Command;
+import eu.tgx03.uno.messaging.CommandResult;
+import eu.tgx03.uno.messaging.Update;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * A single table of a {@link GameHost}.
+ * All commands of a room get executed one after another on its own serial executor,
+ * so rooms don't need a thread while nobody is playing.
+ */
+public class Room extends Server {
+
+	/**
+	 * The ID of this room.
+	 */
+	private final int id;
+	/**
+	 * The host this room belongs to.
+	 */
+	private final GameHost host;
+	/**
+	 * The rules of the game.
+	 */
+	private final Rules rules;
+	/**
+	 * The executor all commands of this room get executed on.
+	 */
+	private final Executor executor;
+	/**
+	 * The output streams of the players of this room, indexed by their seat.
+	 */
+	private final List<ObjectOutputStream> outputs = new ArrayList<>(4);
+
+	/**
+	 * Creates a new room.
+	 *
+	 * @param id       The ID of the room.
+	 * @param host     The host the room belongs to.
+	 * @param rules    The rules of the game.
+	 * @param executor The executor to run the tasks of this room on.
+	 */
+	Room(int id, @NotNull GameHost host, @Nullable Rules rules, @NotNull Executor executor) {
+		this.id = id;
+		this.host = host;
+		this.rules = rules;
+		this.executor = new SerialExecutor(executor);
+	}
+
+	/**
+	 * Returns the ID of this room.
+	 *
+	 * @return The ID of this room.
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Whether the game of this room has been started.
+	 *
+	 * @return Whether this room has started.
+	 */
+	public boolean isStarted() {
+		return start;
+	}
+
+	@Override
+	public synchronized void start() {
+		if (start) return;
+		start = true;
+		game = createGame(outputs.size(), rules);
+		executor.execute(() -> {
+			update();
+			armTurnTimer();
+		});
+	}
+
+	@Override
+	public synchronized int getPlayerCount() {
+		return outputs.size();
+	}
+
+	/**
+	 * Seats a new player in this room.
+	 *
+	 * @param output The stream to send the updates of the player through.
+	 * @return The seat of the new player or -1 if the game has already started.
+	 */
+	synchronized int join(@NotNull ObjectOutputStream output) {
+		if (start || kill) return -1;
+		outputs.add(output);
+		return outputs.size() - 1;
+	}
+
+	/**
+	 * Queues a command of a player to be executed on the executor of this room.
+	 *
+	 * @param seat    The seat of the player.
+	 * @param command The received command.
+	 */
+	void submit(int seat, @NotNull Command command) {
+		executor.execute(() -> {
+			if (!start || kill || game.hasEnded()) return;
+			try {
+				executeCommand(seat, command);
+				if (game.hasEnded()) end();
+			} catch (RuntimeException e) {
+				handleException(e);
+			}
+		});
+	}
+
+	@Override
+	protected void execute(@NotNull Runnable task) {
+		executor.execute(() -> {
+			if (!start || kill || game.hasEnded()) return;
+			task.run();
+			if (game.hasEnded()) end();
+		});
+	}
+
+	@Override
+	protected long update() {
+		send(false);
+		return -1;
+	}
+
+	@Override
+	protected void reply(int player, @NotNull CommandResult result) {
+		ObjectOutputStream output = outputs.get(player);
+		try {
+			output.reset();
+			output.writeObject(result);
+		} catch (IOException e) {
+			handleException(e);
+		}
+	}
+
+	@Override
+	public void kill() {
+		super.kill();
+		executor.execute(() -> {
+			if (start) send(true);
+			closeAll();
+		});
+		host.remove(this);
+	}
+
+	/**
+	 * Informs all the players that the game has ended and closes the room.
+	 */
+	private void end() {
+		send(true);
+		kill = true;
+		closeAll();
+		host.remove(this);
+	}
+
+	/**
+	 * Sends the current state of the game to all players of this room.
+	 *
+	 * @param ended Whether the game has ended.
+	 */
+	private void send(boolean ended) {
+		GameSnapshot snapshot = game.getSnapshot();
+		short[] cardCount = snapshot.getCardCount();
+		for (int seat = 0; seat < outputs.size(); seat++) {
+			boolean turn = snapshot.getCurrentPlayer() == seat;
+			Update update = new Update(turn, ended, snapshot.getPlayer(seat), snapshot.getTopCard(), cardCount, (short) snapshot.getStackSize());
+			ObjectOutputStream output = outputs.get(seat);
+			try {
+				output.reset();
+				output.writeObject(update);
+			} catch (IOException e) {
+				handleException(e);
+			}
+		}
+	}
+
+	/**
+	 * Closes the connections of all players.
+	 */
+	private synchronized void closeAll() {
+		for (ObjectOutputStream output : outputs) {
+			try {
+				output.close();
+			} catch (IOException ignored) {
+			}
+		}
+	}
+}
@@ -0,0 +1,68 @@
+package eu.tgx03.uno.server;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An executor running its tasks one after another in submission order on a shared backing executor.
+ * While there is nothing to do, it doesn't occupy any thread, so many of them can exist at the same time.
+ */
+class SerialExecutor implements Executor {
+
+	/**
+	 * The executor actually running the tasks.
+	 */
+	private final Executor backing;
+	/**
+	 * The tasks waiting to be run.
+	 */
+	private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+	/**
+	 * Whether a thread of the backing executor is currently draining the tasks.
+	 */
+	private final AtomicBoolean running = new AtomicBoolean(false);
+
+	/**
+	 * Creates a new serial executor.
+	 *
+	 * @param backing The executor to run the tasks on.
+	 */
+	SerialExecutor(@NotNull Executor backing) {
+		this.backing = backing;
+	}
+
+	@Override
+	public void execute(@NotNull Runnable task) {
+		tasks.add(task);
+		schedule();
+	}
+
+	/**
+	 * Starts draining the tasks unless that's already happening.
+	 */
+	private void schedule() {
+		if (running.compareAndSet(false, true)) {
+			backing.execute(this::drain);
+		}
+	}
+
+	/**
+	 * Runs all the queued tasks.
+	 * Tasks are expected to handle their own exceptions.
+	 */
+	private void drain() {
+		try {
+			Runnable task;
+			while ((task = tasks.poll()) != null) {
+				task.run();
+			}
+		} finally {
+			running.set(false);
+			if (!tasks.isEmpty()) schedule();
+		}
+	}
+}
@@ -2,18 +2,38 @@ package eu.tgx03.uno.server;
 
 import eu.tgx03.ExceptionHandler;
 import eu.tgx03.uno.game.Game;
-import eu.tgx03.uno.game.cards.ChooseColor;
+import eu.tgx03.uno.game.GameSnapshot;
+import eu.tgx03.uno.game.LockListener;
+import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.logging.Logger;
 import eu.tgx03.uno.messaging.Command;
+import eu.tgx03.uno.messaging.CommandResult;
+import eu.tgx03.uno.messaging.CommandResult.Reason;
+import eu.tgx03.uno.metrics.MetricsRegistry;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A class representing the server of a game of UNO.
+ * <p>
+ * A server may give every turn a deadline, after which a default action gets executed for the current player,
+ * and may disconnect clients which stay silent for too long.
+ * Both are driven by a {@link TimingWheel}, by default the one shared by all servers.
+ * <p>
+ * All servers report to the same {@link #metrics()}.
  */
 public abstract class Server {
 
+	/**
+	 * Hands out the IDs of the games, which identify them in the log.
+	 */
+	private static final AtomicLong GAME_IDS = new AtomicLong();
+
 	/**
 	 * The handlers for exceptions that may occur during operation.
 	 */
@@ -31,6 +51,40 @@ public abstract class Server {
 	 * The game instance this host deals with.
 	 */
 	protected Game game;
+	/**
+	 * The logger of this server, carrying the ID of the game once it has been created.
+	 */
+	protected volatile Logger log = Logger.get(getClass());
+	/**
+	 * The wheel the timeouts of this server get scheduled on, null for the shared one.
+	 */
+	private volatile TimingWheel wheel;
+	/**
+	 * How long a turn may take, null if turns may take forever.
+	 */
+	private volatile Duration turnTimeout;
+	/**
+	 * What to do when a turn took too long.
+	 */
+	private volatile TurnAction turnAction = TurnAction.DEFAULT;
+	/**
+	 * How long a client may stay silent before getting disconnected, null if never.
+	 */
+	private volatile Duration livenessTimeout;
+	/**
+	 * The lock guarding the deadline of the current turn.
+	 */
+	private final Object deadlineLock = new Object();
+	/**
+	 * The deadline of the current turn.
+	 * Guarded by deadlineLock.
+	 */
+	private TimingWheel.Timeout deadline;
+	/**
+	 * The version of the snapshot the deadline belongs to.
+	 * Guarded by deadlineLock.
+	 */
+	private long deadlineVersion = -1;
 
 	/**
 	 * Registers a new object that wishes to handle exceptions that may occur during this hosts execution.
@@ -54,11 +108,78 @@ public abstract class Server {
 		}
 	}
 
+	/**
+	 * Sets the wheel the timeouts of this server get scheduled on, instead of the shared one.
+	 * Only affects timeouts scheduled afterwards.
+	 *
+	 * @param wheel The wheel to use.
+	 */
+	public void setTimingWheel(@NotNull TimingWheel wheel) {
+		this.wheel = wheel;
+	}
+
+	/**
+	 * Gives every turn a deadline. Once it passes without any change to the game,
+	 * the action gets executed for the current player like a command.
+	 *
+	 * @param timeout How long a turn may take, null to let turns take forever.
+	 * @param action  What to do when a turn took too long.
+	 */
+	public void setTurnTimeout(@Nullable Duration timeout, @NotNull TurnAction action) {
+		this.turnAction = action;
+		this.turnTimeout = timeout;
+		synchronized (deadlineLock) {
+			if (deadline != null) deadline.cancel();
+			deadline = null;
+		}
+		if (start) armTurnTimer();
+	}
+
+	/**
+	 * Sets how long a client may stay silent before it gets disconnected.
+	 * Clients send a {@link Command.CommandType#PING} every {@link eu.tgx03.uno.client.Client#HEARTBEAT},
+	 * so the timeout should be a few times as long.
+	 * Only affects connections established afterwards.
+	 *
+	 * @param timeout How long a client may stay silent, null to never disconnect silent clients.
+	 */
+	public void setLivenessTimeout(@Nullable Duration timeout) {
+		this.livenessTimeout = timeout;
+	}
+
+	/**
+	 * Returns the metrics all servers report to,
+	 * which can be served through a {@link eu.tgx03.uno.metrics.MetricsEndpoint} or registered as MBean.
+	 *
+	 * @return The registry of the server metrics.
+	 */
+	@NotNull
+	public static MetricsRegistry metrics() {
+		return ServerMetrics.REGISTRY;
+	}
+
 	/**
 	 * Starts the round.
 	 */
 	public abstract void start();
 
+	/**
+	 * Creates the game of this server, which reports to the {@link #metrics()} and the flight recorder.
+	 *
+	 * @param players How many players take part.
+	 * @param rules   The rules to play by, null for the default ones.
+	 * @return The new game.
+	 */
+	@NotNull
+	protected final Game createGame(int players, @Nullable Rules rules) {
+		Game game = new Game(players, rules);
+		game.listen(ServerMetrics.LOCKS);
+		game.listen(LockListener.FLIGHT_RECORDER);
+		ServerMetrics.track(this);
+		log = Logger.get(getClass()).forGame(GAME_IDS.incrementAndGet());
+		return game;
+	}
+
 	/**
 	 * How many players are currently registered to play the game.
 	 *
@@ -68,14 +189,65 @@ public abstract class Server {
 
 	/**
 	 * Informs all the clients of an update to the game.
+	 *
+	 * @return How many bytes the update took for all clients together, -1 if it only gets encoded while being written.
+	 */
+	protected abstract long update();
+
+	/**
+	 * How many clients are currently connected.
+	 * Servers which can tell connected and disconnected clients apart override this.
+	 *
+	 * @return How many clients are connected.
+	 */
+	protected int getConnectionCount() {
+		return kill ? 0 : getPlayerCount();
+	}
+
+	/**
+	 * Informs all the clients of an update to the game and records how long it took.
 	 */
-	protected abstract void update();
+	private void broadcast() {
+		BroadcastEvent event = new BroadcastEvent();
+		event.begin();
+		long start = System.nanoTime();
+		long bytes = this.update();
+		ServerMetrics.FANOUT.record(System.nanoTime() - start);
+		event.end();
+		if (event.shouldCommit()) {
+			event.recipients = getConnectionCount();
+			event.bytes = bytes;
+			event.commit();
+		}
+	}
+
+	/**
+	 * Emits the flight recorder event of a command, if a recording asks for it.
+	 *
+	 * @param event   The event, begun when the command got received.
+	 * @param player  The player who sent the command.
+	 * @param command The command.
+	 * @param reason  Why the command has been rejected, or {@link Reason#NONE}.
+	 */
+	private static void commit(@NotNull CommandEvent event, int player, @NotNull Command command, @NotNull Reason reason) {
+		event.end();
+		if (event.shouldCommit()) {
+			event.player = player;
+			event.type = command.type.name();
+			event.result = reason.name();
+			event.commit();
+		}
+	}
 
 	/**
 	 * Ends this host, if required by force.
 	 */
 	public void kill() {
 		kill = true;
+		synchronized (deadlineLock) {
+			if (deadline != null) deadline.cancel();
+			deadline = null;
+		}
 	}
 
 	/**
@@ -91,24 +263,256 @@ public abstract class Server {
 
 	/**
 	 * Execute a received command.
+	 * If the command carries an ID, the client gets answered with a {@link CommandResult} before the update.
 	 *
 	 * @param player  The player this belongs to.
 	 * @param command The received command to execute.
+	 * @return Why the command has been rejected, or {@link Reason#NONE} if it has been executed.
 	 */
-	protected final void executeCommand(int player, Command command) {
-		boolean result = switch (command.type) {
+	@NotNull
+	protected final Reason executeCommand(int player, Command command) {
+		CommandEvent event = new CommandEvent();
+		event.begin();
+		long start = System.nanoTime();
+		boolean result;
+		Reason reason;
+		if (changesGame(command)) {
+			// Find the reason while still holding the game, before other players can change it
+			reason = game.batch(game -> apply(player, command) ? Reason.NONE : rejection(player, command));
+			result = reason == Reason.NONE;
+		} else {
+			result = apply(player, command);
+			reason = Reason.NONE;
+		}
+		if (command.id != 0) this.reply(player, new CommandResult(command.id, reason));
+		if (result) {
+			this.broadcast();
+			this.armTurnTimer();
+		}
+		ServerMetrics.command(command.type, reason);
+		ServerMetrics.duration(command.type, System.nanoTime() - start);
+		commit(event, player, command, reason);
+		return reason;
+	}
+
+	/**
+	 * Executes several commands of a player one after another as a single batch, see {@link Game#batch(java.util.function.Function)}.
+	 * The clients get answered as with {@link #executeCommand(int, Command)},
+	 * but only a single update gets sent afterwards if any of the commands got executed.
+	 * Wildcards keep their number when their color gets selected,
+	 * so a batch can select the color of a wildcard and play it right away.
+	 *
+	 * @param player   The player the commands belong to.
+	 * @param commands The received commands, in the order to execute them.
+	 * @return Why each of the commands has been rejected, or {@link Reason#NONE} if it has been executed.
+	 */
+	@NotNull
+	protected final Reason @NotNull [] executeCommands(int player, @NotNull List<Command> commands) {
+		long start = System.nanoTime();
+		Reason[] reasons = new Reason[commands.size()];
+		boolean changed = game.batch(game -> {
+			boolean any = false;
+			for (int i = 0; i < reasons.length; i++) {
+				Command command = commands.get(i);
+				CommandEvent event = new CommandEvent();
+				event.begin();
+				boolean result = apply(player, command);
+				reasons[i] = result || !changesGame(command) ? Reason.NONE : rejection(player, command);
+				commit(event, player, command, reasons[i]);
+				any |= result;
+			}
+			return any;
+		});
+		for (int i = 0; i < reasons.length; i++) {
+			Command command = commands.get(i);
+			if (command.id != 0) this.reply(player, new CommandResult(command.id, reasons[i]));
+			ServerMetrics.command(command.type, reasons[i]);
+		}
+		if (changed) {
+			this.broadcast();
+			this.armTurnTimer();
+		}
+		ServerMetrics.BATCH_DURATION.record(System.nanoTime() - start);
+		return reasons;
+	}
+
+	/**
+	 * Runs a task changing the game the same way received commands get run.
+	 * Servers which execute commands on a single thread have to run the task there as well.
+	 *
+	 * @param task The task to run.
+	 */
+	protected void execute(@NotNull Runnable task) {
+		task.run();
+	}
+
+	/**
+	 * Gives the current turn a deadline, unless it already has one or turns may take forever.
+	 * Has to be called after starting the game, the servers take care of it after every executed command.
+	 */
+	protected final void armTurnTimer() {
+		Duration timeout = this.turnTimeout;
+		Game game = this.game;
+		if (game == null) return;
+		GameSnapshot snapshot = game.getSnapshot();
+		synchronized (deadlineLock) {
+			if (timeout == null || kill || snapshot.hasEnded()) {
+				if (deadline != null) deadline.cancel();
+				deadline = null;
+				return;
+			}
+			if (deadline != null && deadlineVersion >= snapshot.version()) return;
+			if (deadline != null) deadline.cancel();
+			long version = snapshot.version();
+			deadlineVersion = version;
+			deadline = wheel().schedule(() -> this.execute(() -> expireTurn(version)), timeout);
+		}
+	}
+
+	/**
+	 * Executes the default action for the current player,
+	 * if nothing happened since the deadline has been set.
+	 *
+	 * @param version The version of the snapshot the deadline belongs to.
+	 */
+	private void expireTurn(long version) {
+		if (kill || !start) return;
+		TurnAction action = this.turnAction;
+		try {
+			boolean changed = game.batch(game -> {
+				GameSnapshot snapshot = game.getSnapshot();
+				if (snapshot.version() != version || snapshot.hasEnded()) return false;
+				return action.act(game, snapshot.getCurrentPlayer());
+			});
+			if (changed) this.broadcast();
+		} catch (RuntimeException e) {
+			handleException(e);
+		}
+		synchronized (deadlineLock) {
+			if (deadlineVersion == version) deadline = null;
+		}
+		this.armTurnTimer();
+	}
+
+	/**
+	 * Starts watching whether a client is still there, as configured by {@link #setLivenessTimeout(Duration)}.
+	 *
+	 * @param onIdle What to do once the client stayed silent for too long. Has to handle its own exceptions.
+	 * @return The watch, which has to be told about everything received from the client.
+	 */
+	@NotNull
+	final Liveness watch(@NotNull Runnable onIdle) {
+		return new Liveness(wheel(), livenessTimeout, onIdle);
+	}
+
+	/**
+	 * Returns the wheel the timeouts of this server get scheduled on.
+	 *
+	 * @return The configured or else the shared wheel.
+	 */
+	@NotNull
+	private TimingWheel wheel() {
+		TimingWheel wheel = this.wheel;
+		return wheel != null ? wheel : TimingWheel.shared();
+	}
+
+	/**
+	 * Whether a command is meant to change the game, rather than just talk to the host.
+	 *
+	 * @param command The command to check.
+	 * @return Whether the command is a move.
+	 */
+	private static boolean changesGame(@NotNull Command command) {
+		return command.type != Command.CommandType.RESYNC && command.type != Command.CommandType.PING;
+	}
+
+	/**
+	 * Executes a command on the game without informing anybody.
+	 *
+	 * @param player  The player this belongs to.
+	 * @param command The command to execute.
+	 * @return Whether the game changed.
+	 */
+	private boolean apply(int player, @NotNull Command command) {
+		return switch (command.type) {
 			case NORMAL -> game.playCard(player, command.cardNumber);
 			case JUMP -> game.jump(player, command.cardNumber);
 			case ACCEPT -> game.acceptCards(player);
 			case TAKE_CARD -> game.takeCard(player);
 			case SELECT_COLOR -> {
-				if (game.getPlayer(player).getCards()[command.cardNumber] instanceof ChooseColor cc) {
-					assert command.color != null;
-					cc.setColor(command.color);
-					yield true;
-				} else yield false;
+				assert command.color != null;
+				yield game.selectColor(player, command.cardNumber, command.color);
+			}
+			case RESYNC -> {
+				this.resync(player);
+				yield false;
 			}
+			case PING -> false;
 		};
-		if (result) this.update();
+	}
+
+	/**
+	 * Finds out why the game rejected a command.
+	 * Has to be called while holding the game right after the command got rejected,
+	 * so the latest snapshot shows the state the command has been rejected in.
+	 *
+	 * @param player  The player who sent the command.
+	 * @param command The rejected command.
+	 * @return The most likely reason.
+	 */
+	@NotNull
+	private Reason rejection(int player, @NotNull Command command) {
+		GameSnapshot snapshot = game.getSnapshot();
+		if (snapshot.hasEnded()) return Reason.GAME_OVER;
+		boolean card = command.type == Command.CommandType.NORMAL || command.type == Command.CommandType.JUMP || command.type == Command.CommandType.SELECT_COLOR;
+		if (card && (command.cardNumber < 0 || command.cardNumber >= snapshot.getCardCount()[player])) return Reason.NO_SUCH_CARD;
+		boolean turn = command.type != Command.CommandType.JUMP && command.type != Command.CommandType.SELECT_COLOR;
+		if (turn && snapshot.getCurrentPlayer() != player) return Reason.NOT_YOUR_TURN;
+		return Reason.ILLEGAL_MOVE;
+	}
+
+	/**
+	 * Sends the result of a command to the client who sent it.
+	 * Servers which can't answer clients don't need to do anything.
+	 *
+	 * @param player The player who sent the command.
+	 * @param result The result of the command.
+	 */
+	protected void reply(int player, @NotNull CommandResult result) {
+	}
+
+	/**
+	 * Sends a full update to a single client which lost track of the state.
+	 * Servers only sending full updates don't need to do anything.
+	 *
+	 * @param player The player to send the update to.
+	 */
+	protected void resync(int player) {
+	}
+
+	/**
+	 * What gets done for the current player when a turn took too long.
+	 */
+	@FunctionalInterface
+	public interface TurnAction {
+
+		/**
+		 * Accepts the penalty if cards are stacked, otherwise takes a card.
+		 * Always ends the turn, even if the rules would let the player continue after taking a card.
+		 */
+		TurnAction DEFAULT = (game, player) -> {
+			if (game.getStackSize() > 0) return game.acceptCards(player);
+			boolean took = game.takeCard(player);
+			return game.forfeitTurn(player) || took;
+		};
+
+		/**
+		 * Makes a move for the player. Gets called while holding the game.
+		 *
+		 * @param game   The game to make the move in.
+		 * @param player The current player.
+		 * @return Whether the game changed.
+		 */
+		boolean act(@NotNull Game game, int player);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package eu.tgx03.uno.server;
+
+import eu.tgx03.uno.game.Game;
+import eu.tgx03.uno.game.LockListener;
+import eu.tgx03.uno.messaging.Command;
+import eu.tgx03.uno.messaging.CommandResult.Reason;
+import eu.tgx03.uno.metrics.Counter;
+import eu.tgx03.uno.metrics.Histogram;
+import eu.tgx03.uno.metrics.MetricsRegistry;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * The metrics all servers report to, see {@link Server#metrics()}.
+ * Every metric is looked up once, so recording is only a few atomic additions.
+ */
+final class ServerMetrics {
+
+	/**
+	 * The registry holding the metrics.
+	 */
+	static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+	/**
+	 * How many commands have been received, by type.
+	 */
+	private static final Counter[] COMMANDS = new Counter[Command.CommandType.values().length];
+	/**
+	 * How long executing a single command took, by type.
+	 */
+	private static final Histogram[] DURATIONS = new Histogram[Command.CommandType.values().length];
+	/**
+	 * How many commands have been rejected, by reason. The entry of {@link Reason#NONE} counts the accepted ones.
+	 */
+	private static final Counter[] RESULTS = new Counter[Reason.values().length];
+	/**
+	 * How long executing a batch of commands took.
+	 */
+	static final Histogram BATCH_DURATION = REGISTRY.histogram("uno_batch_duration_seconds", "Time spent executing a batch of commands", 1e-9);
+	/**
+	 * How long commands waited for the lock of their game.
+	 */
+	private static final Histogram LOCK_WAIT = REGISTRY.histogram("uno_game_lock_wait_seconds", "Time commands waited for the game lock", 1e-9);
+	/**
+	 * How long commands held the lock of their game.
+	 */
+	private static final Histogram LOCK_HOLD = REGISTRY.histogram("uno_game_lock_hold_seconds", "Time commands held the game lock", 1e-9);
+	/**
+	 * How long handing an update to all clients took.
+	 */
+	static final Histogram FANOUT = REGISTRY.histogram("uno_update_fanout_seconds", "Time spent handing an update to all clients", 1e-9);
+	/**
+	 * How many bytes a single update took on the wire.
+	 */
+	static final Histogram UPDATE_BYTES = REGISTRY.histogram("uno_update_bytes", "Serialized size of an update sent to a single client", 1);
+	/**
+	 * Reports the game locks to the lock histograms.
+	 */
+	static final LockListener LOCKS = new LockListener() {
+		@Override
+		public void acquired(long waitNanos) {
+			LOCK_WAIT.record(waitNanos);
+		}
+
+		@Override
+		public void released(long holdNanos) {
+			LOCK_HOLD.record(holdNanos);
+		}
+	};
+
+	/**
+	 * The servers which created a game, for the gauges.
+	 * Servers which are no longer used drop out by themselves.
+	 * Guarded by itself.
+	 */
+	private static final Set<Server> SERVERS = Collections.newSetFromMap(new WeakHashMap<>());
+
+	static {
+		for (Command.CommandType type : Command.CommandType.values()) {
+			String label = type.name().toLowerCase();
+			COMMANDS[type.ordinal()] = REGISTRY.counter("uno_commands_total", "Commands received from clients", "type", label);
+			DURATIONS[type.ordinal()] = REGISTRY.histogram("uno_command_duration_seconds", "Time spent executing a command, including the update", 1e-9, "type", label);
+		}
+		for (Reason reason : Reason.values()) {
+			RESULTS[reason.ordinal()] = reason == Reason.NONE
+					? REGISTRY.counter("uno_commands_accepted_total", "Commands which changed the game or only talked to the server")
+					: REGISTRY.counter("uno_commands_rejected_total", "Commands rejected by the game", "reason", reason.name().toLowerCase());
+		}
+		REGISTRY.gauge("uno_games_active", "Games which have been started and not yet ended", ServerMetrics::activeGames);
+		REGISTRY.gauge("uno_connections_active", "Clients currently connected to a server", ServerMetrics::activeConnections);
+	}
+
+	/**
+	 * Records a received command.
+	 *
+	 * @param type   The type of the command.
+	 * @param reason Why the command has been rejected, or {@link Reason#NONE}.
+	 */
+	static void command(@NotNull Command.CommandType type, @NotNull Reason reason) {
+		COMMANDS[type.ordinal()].increment();
+		RESULTS[reason.ordinal()].increment();
+	}
+
+	/**
+	 * Records how long executing a command took.
+	 *
+	 * @param type  The type of the command.
+	 * @param nanos How long it took, in nanoseconds.
+	 */
+	static void duration(@NotNull Command.CommandType type, long nanos) {
+		DURATIONS[type.ordinal()].record(nanos);
+	}
+
+	/**
+	 * Counts a server towards the gauges.
+	 *
+	 * @param server The server which created a game.
+	 */
+	static void track(@NotNull Server server) {
+		synchronized (SERVERS) {
+			SERVERS.add(server);
+		}
+	}
+
+	/**
+	 * Takes a copy of the tracked servers.
+	 *
+	 * @return The servers still in use.
+	 */
+	@NotNull
+	private static Server @NotNull [] servers() {
+		synchronized (SERVERS) {
+			return SERVERS.toArray(new Server[0]);
+		}
+	}
+
+	/**
+	 * Counts the games which are running.
+	 *
+	 * @return How many tracked servers have a started game which hasn't ended.
+	 */
+	private static long activeGames() {
+		long count = 0;
+		for (Server server : servers()) {
+			Game game = server.game;
+			if (server.start && !server.kill && game != null && !game.getSnapshot().hasEnded()) count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the connected clients.
+	 *
+	 * @return How many clients are connected to the tracked servers.
+	 */
+	private static long activeConnections() {
+		long count = 0;
+		for (Server server : servers()) {
+			count += server.getConnectionCount();
+		}
+		return count;
+	}
+
+	/**
+	 * This is a utility class, which shall not be instantiated.
+	 */
+	private ServerMetrics() {
+		throw new IllegalAccessError("Utility class");
+	}
+}
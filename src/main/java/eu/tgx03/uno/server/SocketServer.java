@@ -1,45 +1,99 @@
 package eu.tgx03.uno.server;
 
 import eu.tgx03.uno.game.Game;
+import eu.tgx03.uno.game.GameSnapshot;
+import eu.tgx03.uno.game.Player;
 import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.logging.Level;
 import eu.tgx03.uno.messaging.Command;
+import eu.tgx03.uno.messaging.CommandResult;
 import eu.tgx03.uno.messaging.Update;
+import eu.tgx03.uno.messaging.UpdateBroadcast;
+import eu.tgx03.uno.messaging.UpdateDelta;
+import eu.tgx03.uno.messaging.WireFormat;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.UncheckedIOException;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
-import java.util.ArrayList;
+import java.net.SocketTimeoutException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.IntStream;
 
+/**
+ * A server hosting a single game for clients connecting through TCP.
+ * <p>
+ * Right after connecting, a client sends a session token as 8 byte integer, 0 when joining for the first time.
+ * The server answers with the token of the seat, or 0 if the connection got rejected,
+ * afterwards the messages get exchanged in the format of the server.
+ * If a connection breaks, its seat stays reserved and the client can reclaim it by connecting again with its token,
+ * it then gets sent a full update of the current state.
+ */
 public class SocketServer extends Server implements Runnable {
 
+	/**
+	 * How long a write to a client may block before the client only gets sent full updates.
+	 */
+	private static final long SLOW_CLIENT_NANOS = TimeUnit.SECONDS.toNanos(2);
+	/**
+	 * How long a write to a client may block before the client gets disconnected.
+	 */
+	private static final long DISCONNECT_NANOS = TimeUnit.SECONDS.toNanos(10);
+	/**
+	 * How long to wait for the final updates to be written when the server gets killed.
+	 */
+	private static final Duration SHUTDOWN_GRACE = Duration.ofSeconds(1);
+	/**
+	 * How many results of commands may wait to be written to a client before it gets disconnected.
+	 */
+	private static final int MAX_QUEUED_RESULTS = 256;
+	/**
+	 * The source of the session tokens.
+	 */
+	private static final SecureRandom TOKENS = new SecureRandom();
+
 	/**
 	 * The server socket that accepts new connections.
 	 */
 	private final ServerSocket serverSocket;
 	/**
-	 * A list of all the receivers receiving commands from the clients
+	 * The receivers of the current connections, indexed by the seat of their client.
 	 */
-	private final List<Receiver> receivers = new ArrayList<>();
+	private final List<Receiver> receivers = new CopyOnWriteArrayList<>();
 	/**
-	 * A list of all the output streams updates get sent through.
+	 * The outboxes updates get queued in, indexed by the seat of their client.
+	 * New seats get added while holding this list.
 	 */
-	private final List<ObjectOutputStream> outputs = new ArrayList<>();
+	private final List<Outbox> outboxes = new CopyOnWriteArrayList<>();
+	/**
+	 * The session tokens, indexed by their seat.
+	 */
+	private final List<Long> tokens = new CopyOnWriteArrayList<>();
 	/**
 	 * The rules of the game.
 	 */
 	private final Rules rules;
+	/**
+	 * The format messages get exchanged with the clients in.
+	 */
+	private final WireFormat format;
+	/**
+	 * Whether clients only get sent the difference to their last update.
+	 */
+	private final boolean deltas;
 	/**
 	 * The lock used to make receivers wait for the start of the round.
 	 */
@@ -58,7 +112,38 @@ public class SocketServer extends Server implements Runnable {
 	 * @throws IOException When something goes wrong while starting the server.
 	 */
 	public SocketServer(int port, @Nullable Rules rules) throws IOException {
+		this(port, rules, WireFormat.JAVA);
+	}
+
+	/**
+	 * Creates a new server that listens on the provided port
+	 * for clients using the given format.
+	 *
+	 * @param port   The port this server should listen on.
+	 * @param rules  The rules of the game.
+	 * @param format The format the clients send and receive messages in.
+	 * @throws IOException When something goes wrong while starting the server.
+	 */
+	public SocketServer(int port, @Nullable Rules rules, @NotNull WireFormat format) throws IOException {
+		this(port, rules, format, false);
+	}
+
+	/**
+	 * Creates a new server that listens on the provided port
+	 * for clients using the given format.
+	 * In delta mode, clients only get sent what changed since their last update,
+	 * unless they request a full update.
+	 *
+	 * @param port   The port this server should listen on.
+	 * @param rules  The rules of the game.
+	 * @param format The format the clients send and receive messages in.
+	 * @param deltas Whether to send deltas instead of full updates.
+	 * @throws IOException When something goes wrong while starting the server.
+	 */
+	public SocketServer(int port, @Nullable Rules rules, @NotNull WireFormat format, boolean deltas) throws IOException {
 		this.rules = rules;
+		this.format = format;
+		this.deltas = deltas;
 		serverSocket = new ServerSocket(port);
 		Thread accepter = new Thread(this, "Host-Main");
 		accepter.setDaemon(true);
@@ -67,94 +152,121 @@ public class SocketServer extends Server implements Runnable {
 
 	@Override
 	public void start() {
-		start = true;
-		super.game = new Game(this.getPlayerCount(), rules);
+		synchronized (outboxes) {
+			super.game = createGame(this.getPlayerCount(), rules);
+			start = true;
+		}
+		startLock.lock();
 		try {
-			serverSocket.close();
-		} catch (IOException e) {
-			handleException(e);
+			startWaiter.signalAll();
+		} finally {
+			startLock.unlock();
 		}
+		update();
+		armTurnTimer();
 	}
 
 	@Override
 	public int getPlayerCount() {
-		return receivers.size();
+		return outboxes.size();
 	}
 
 	@Override
-	protected void update() {
-		game.gameLock.lock();
-		short[] cardCount = game.getCardCount();
-		IntStream.range(0, receivers.size()).parallel().forEach(id -> {
-			boolean turn = game.getCurrentPlayer() == id;
-			Update update = new Update(turn, game.getPlayer(id), game.getTopCard(), cardCount, (short) game.getStackSize());
-			try {
-				synchronized (outputs.get(id)) {
-					outputs.get(id).reset();
-					outputs.get(id).writeObject(update);
-				}
-			} catch (IOException e) {
-				throw new UncheckedIOException(e);
-			}
-		});
-		game.gameLock.unlock();
+	protected int getConnectionCount() {
+		int count = 0;
+		for (Outbox outbox : outboxes) {
+			if (outbox.isConnected()) count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the port this server listens on, useful when it got bound to port 0.
+	 *
+	 * @return The local port.
+	 */
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	@Override
+	protected long update() {
+		GameSnapshot snapshot = game.getSnapshot();
+		UpdateBroadcast broadcast = new UpdateBroadcast(false, snapshot.getTopCard(), snapshot.getCardCount(), (short) snapshot.getStackSize());
+		for (Outbox outbox : outboxes) {
+			outbox.offer(snapshot, broadcast, false);
+		}
+		return -1;   // The outboxes encode the updates while writing them
+	}
+
+	@Override
+	protected void resync(int player) {
+		GameSnapshot snapshot = game.getSnapshot();
+		UpdateBroadcast broadcast = new UpdateBroadcast(snapshot.hasEnded(), snapshot.getTopCard(), snapshot.getCardCount(), (short) snapshot.getStackSize());
+		Outbox outbox = outboxes.get(player);
+		outbox.requestFull();
+		outbox.offer(snapshot, broadcast, true);
+	}
+
+	@Override
+	protected void reply(int player, @NotNull CommandResult result) {
+		outboxes.get(player).reply(result);
 	}
 
 	@Override
 	public void kill() {
 		boolean lock = false;
-		try {
-			lock = game.gameLock.tryLock(5, TimeUnit.SECONDS);
-		} catch (InterruptedException ignored) {
-		}
-		if (lock) this.end();
-		outputs.parallelStream().forEach(stream -> {
+		Game game = this.game;
+		if (game != null) {
 			try {
-				stream.close();
-			} catch (IOException e) {
-				throw new UncheckedIOException(e);
-			}
-		});
-		receivers.parallelStream().forEach(receiver -> {
-			try {
-				receiver.input.close();
-			} catch (IOException e) {
-				throw new UncheckedIOException(e);
+				lock = game.gameLock.tryLock(5, TimeUnit.SECONDS);
+			} catch (InterruptedException ignored) {
 			}
-		});
+			if (lock) this.end();
+		}
+		super.kill();
+		closeQuietly(serverSocket);
+		for (Outbox outbox : outboxes) outbox.finish();
+		for (Receiver receiver : receivers) closeQuietly(receiver.input);
+		startLock.lock();
+		try {
+			startWaiter.signalAll();
+		} finally {
+			startLock.unlock();
+		}
 		if (lock) game.gameLock.unlock();
 	}
 
 	/**
-	 * Informs all the clients that the game has ended
-	 * and shuts down the threads.
+	 * Informs all the clients that the game has ended and stops accepting connections.
+	 * The outboxes shut down the connections once the final update has been written.
 	 */
 	private void end() {
-		game.gameLock.lock();
-		short[] cardCount = game.getCardCount();
-		IntStream.range(0, outputs.size()).parallel().forEach(id -> {
-			Update update;
-			update = new Update(false, true, game.getPlayer(id), game.getTopCard(), cardCount, (short) game.getStackSize());
-			try {
-				synchronized (outputs.get(id)) {
-					outputs.get(id).reset();
-					outputs.get(id).writeObject(update);
-				}
-				receivers.get(id).input.close();
-			} catch (IOException e) {
-				throw new UncheckedIOException(e);
-			}
-		});
-		game.gameLock.unlock();
+		closeQuietly(serverSocket);
+		GameSnapshot snapshot = game.getSnapshot();
+		UpdateBroadcast broadcast = new UpdateBroadcast(true, snapshot.getTopCard(), snapshot.getCardCount(), (short) snapshot.getStackSize());
+		for (Outbox outbox : outboxes) {
+			outbox.offer(snapshot, broadcast, true);
+		}
 	}
 
+	/**
+	 * Accepts new connections until the game ends.
+	 * Before the start, new clients get seated, afterwards only seats can be reclaimed.
+	 */
 	@Override
 	public void run() {
-		waitForClients();
-
-		startLock.lock();
-		startWaiter.signalAll();
-		startLock.unlock();
+		while (!kill && !serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				Thread.ofVirtual().name("Host-Handshake").start(() -> handshake(socket));
+			} catch (SocketException e) {
+				if (!kill && !serverSocket.isClosed()) handleException(e);
+			} catch (IOException e) {
+				handleException(e);
+			}
+		}
 	}
 
 	/**
@@ -162,34 +274,84 @@ public class SocketServer extends Server implements Runnable {
 	 */
 	private void awaitStart() {
 		startLock.lock();
-		startWaiter.awaitUninterruptibly();
-		startLock.unlock();
+		try {
+			while (!start && !kill) startWaiter.awaitUninterruptibly();
+		} finally {
+			startLock.unlock();
+		}
 	}
 
-
 	/**
-	 * Accepts new clients until interrupted.
+	 * Exchanges the session token with a new connection and gives it a new or its previous seat.
+	 *
+	 * @param socket The new connection.
 	 */
-	private void waitForClients() {
-		int currentID = 0;  // Used to get the ID for each new connection
-		do {
-			try {
-				Socket socket = serverSocket.accept();
-				if (!start) {
-					Receiver receiver = new Receiver(new ObjectInputStream(socket.getInputStream()), currentID);
-					Thread.ofVirtual().name("Host-Receiver " + currentID).start(receiver);
-					currentID++;
-					outputs.add(new ObjectOutputStream(socket.getOutputStream()));
-					this.receivers.add(receiver);
-				}
-			} catch (SocketException e) {
-				if (!start) {
-					handleException(e);
+	private void handshake(@NotNull Socket socket) {
+		try {
+			long token = new DataInputStream(socket.getInputStream()).readLong();
+			DataOutputStream raw = new DataOutputStream(socket.getOutputStream());
+			int seat = token == 0 ? -1 : tokens.indexOf(token);
+			if ((token != 0 && seat < 0) || (token == 0 && start)) {  // Unknown session or too late to join
+				raw.writeLong(0);
+				socket.close();
+				return;
+			}
+			if (token == 0) token = newToken();
+			raw.writeLong(token);
+			raw.flush();
+			WireFormat.Writer writer = format.writer(socket.getOutputStream());
+			WireFormat.Reader reader = format.reader(socket.getInputStream());
+
+			Receiver receiver;
+			if (seat < 0) {
+				synchronized (outboxes) {
+					if (start) {    // The game started during the handshake
+						socket.close();
+						return;
+					}
+					seat = outboxes.size();
+					receiver = new Receiver(reader, writer, seat);
+					tokens.add(token);
+					receivers.add(receiver);
+					outboxes.add(new Outbox(seat, writer));
 				}
-			} catch (IOException e) {
-				handleException(e);
+			} else {
+				receiver = new Receiver(reader, writer, seat);
+				Receiver previous = receivers.set(seat, receiver);
+				closeQuietly(previous.input);
+				outboxes.get(seat).attach(writer);
+				if (start) resync(seat);
 			}
-		} while (!start && !kill);
+			Thread.ofVirtual().name("Host-Receiver " + seat).start(receiver);
+		} catch (IOException e) {
+			closeQuietly(socket);
+			if (!kill) handleException(e);
+		}
+	}
+
+	/**
+	 * Creates a new session token.
+	 *
+	 * @return A random token that isn't 0.
+	 */
+	private static long newToken() {
+		long token;
+		do {
+			token = TOKENS.nextLong();
+		} while (token == 0);
+		return token;
+	}
+
+	/**
+	 * Closes something without caring about failures.
+	 *
+	 * @param closeable What to close.
+	 */
+	private static void closeQuietly(@NotNull Closeable closeable) {
+		try {
+			closeable.close();
+		} catch (IOException ignored) {
+		}
 	}
 
 	/**
@@ -202,41 +364,403 @@ public class SocketServer extends Server implements Runnable {
 		 */
 		private final int id;
 		/**
-		 * The input stream for receiving commands from the client.
+		 * The reader for receiving commands from the client.
+		 */
+		private final WireFormat.Reader input;
+		/**
+		 * The writer of the same connection, detached from the outbox once the connection breaks.
 		 */
-		private final ObjectInputStream input;
+		private final WireFormat.Writer output;
 
 		/**
 		 * Creates a new receiver.
 		 *
-		 * @param input The input stream this receiver receives updates on.
-		 * @param id    The ID of the player this receiver is responsible for.d.
+		 * @param input  The reader this receiver receives commands on.
+		 * @param output The writer of the same connection.
+		 * @param id     The ID of the player this receiver is responsible for.
 		 */
-		public Receiver(@NotNull ObjectInputStream input, int id) {
+		public Receiver(@NotNull WireFormat.Reader input, @NotNull WireFormat.Writer output, int id) {
 			this.id = id;
 			this.input = input;
+			this.output = output;
 		}
 
 		@Override
 		public void run() {
 
-			// Wait until the game starts
+			// Wait until the game starts, commands only get read from then on
 			awaitStart();
+			Liveness liveness = watch(this::idle);
 
-			while (!game.hasEnded() && !kill) {
+			while (!kill && !game.hasEnded()) {
 				// Read orders and process them
 				try {
-					Command order = (Command) input.readObject();
-					System.out.println("Received command from player " + this.id + " \"" + order.toString() + "\"");
+					Command order = (Command) input.read();
+					liveness.heard();
+					log.log(Level.DEBUG, "Received command from player {}: {}", this.id, order);
 					executeCommand(this.id, order);
+				} catch (IOException e) {
+					// The connection broke, the seat stays reserved until the client reconnects
+					outboxes.get(id).detach(output);
+					break;
 				} catch (Exception e) {
 					handleException(e);
 				}
 			}
-			if (!kill) {
+			liveness.stop();
+			if (!kill && game.hasEnded()) {
 				SocketServer.this.end();
 			}
-			System.out.println("Shutting down host thread");
+			log.log(Level.DEBUG, "Shutting down host thread of player {}", this.id);
+		}
+
+		/**
+		 * Drops the connection of a client which stayed silent for too long, so it has to reconnect.
+		 */
+		private void idle() {
+			closeQuietly(input);
+			if (!kill) handleException(new SocketTimeoutException("Player " + id + " stayed silent for too long"));
+		}
+	}
+
+	/**
+	 * The outgoing updates of a single client, written by a thread of its own,
+	 * so a client with a full TCP window never holds up the game.
+	 * Only the newest update matters, so an update that hasn't been written yet
+	 * simply gets replaced by a newer one. Results of commands all get written, before the update.
+	 * Deltas get calculated when writing, against what the client actually received.
+	 * <p>
+	 * If a write blocks for too long, the client only gets full updates until it catches up again,
+	 * and if it still doesn't proceed it gets disconnected.
+	 * While the client is disconnected, the outbox only keeps the newest update,
+	 * until the client reconnects and gets attached again.
+	 */
+	private class Outbox implements Runnable {
+
+		/**
+		 * The ID of the client.
+		 */
+		private final int id;
+		/**
+		 * The thread writing the updates.
+		 */
+		private final Thread thread;
+		/**
+		 * The lock guarding the state of this outbox.
+		 * Not a monitor, as waiting in a monitor would pin the carrier of the virtual writing thread.
+		 */
+		private final Lock lock = new ReentrantLock();
+		/**
+		 * Signalled whenever something got queued or the connection changed.
+		 */
+		private final Condition changed = lock.newCondition();
+		/**
+		 * The writer updates get sent through, null while the client is disconnected.
+		 * Guarded by lock.
+		 */
+		private WireFormat.Writer writer;
+		/**
+		 * The update waiting to be written.
+		 * Guarded by lock.
+		 */
+		private Pending pending;
+		/**
+		 * The results of commands waiting to be written.
+		 * Guarded by lock.
+		 */
+		private final Queue<CommandResult> results = new ArrayDeque<>();
+		/**
+		 * The version of the newest snapshot queued in this outbox.
+		 * Guarded by lock.
+		 */
+		private long queuedVersion = -1;
+		/**
+		 * Whether the next update has to be a full one.
+		 * Guarded by lock.
+		 */
+		private boolean full = false;
+		/**
+		 * Whether the final update has been queued.
+		 * Guarded by lock.
+		 */
+		private boolean finished = false;
+		/**
+		 * Whether this outbox has been closed.
+		 * Guarded by lock.
+		 */
+		private boolean closed = false;
+		/**
+		 * When the current write started, 0 when not writing.
+		 */
+		private volatile long writingSince = 0;
+		/**
+		 * The last update written, which deltas get calculated against.
+		 * Only used by the writing thread.
+		 */
+		private Update sent;
+
+		/**
+		 * Creates a new outbox and starts its writing thread.
+		 *
+		 * @param id     The ID of the client.
+		 * @param writer The writer to send the updates through.
+		 */
+		private Outbox(int id, @NotNull WireFormat.Writer writer) {
+			this.id = id;
+			this.writer = writer;
+			this.thread = Thread.ofVirtual().name("Host-Writer " + id).unstarted(this);
+			this.thread.start();
+		}
+
+		/**
+		 * Queues the update of a snapshot, replacing the one that hasn't been written yet.
+		 * Never blocks on the connection.
+		 *
+		 * @param snapshot  The snapshot the update belongs to.
+		 * @param broadcast The public part of the update.
+		 * @param force     Whether to queue the update even if its snapshot has already been queued.
+		 */
+		private void offer(@NotNull GameSnapshot snapshot, @NotNull UpdateBroadcast broadcast, boolean force) {
+			lock.lock();
+			try {
+				if (closed || finished || (!force && snapshot.version() <= queuedVersion)) return;
+				queuedVersion = Math.max(queuedVersion, snapshot.version());
+				pending = new Pending(broadcast, snapshot.getCurrentPlayer() == id, snapshot.getPlayer(id));
+				finished = broadcast.ended;
+				changed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+			checkProgress();
+		}
+
+		/**
+		 * Queues the result of a command.
+		 * Results for a disconnected client get dropped, if too many are waiting the client gets disconnected.
+		 *
+		 * @param result The result to queue.
+		 */
+		private void reply(@NotNull CommandResult result) {
+			WireFormat.Writer writer;
+			lock.lock();
+			try {
+				if (closed || this.writer == null) return;
+				if (results.size() < MAX_QUEUED_RESULTS) {
+					results.add(result);
+					changed.signalAll();
+					return;
+				}
+				writer = this.writer;
+			} finally {
+				lock.unlock();
+			}
+			detach(writer);
+			if (!kill) handleException(new IOException("Disconnected player " + id + ", who didn't receive results for too long"));
+		}
+
+		/**
+		 * Whether the client is currently connected.
+		 *
+		 * @return Whether updates can be sent to the client.
+		 */
+		private boolean isConnected() {
+			lock.lock();
+			try {
+				return writer != null;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Makes the next update a full one.
+		 */
+		private void requestFull() {
+			lock.lock();
+			try {
+				full = true;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		/**
+		 * Checks whether the client keeps up,
+		 * switching it to full updates or disconnecting it if the current write blocks for too long.
+		 */
+		private void checkProgress() {
+			long since = writingSince;
+			if (since == 0) return;
+			long blocked = System.nanoTime() - since;
+			if (blocked > DISCONNECT_NANOS) {
+				WireFormat.Writer writer;
+				lock.lock();
+				try {
+					writer = this.writer;
+				} finally {
+					lock.unlock();
+				}
+				if (writer == null) return;
+				detach(writer);
+				if (!kill) handleException(new IOException("Disconnected player " + id + ", who didn't receive updates for too long"));
+			} else if (blocked > SLOW_CLIENT_NANOS) {
+				requestFull();
+			}
+		}
+
+		/**
+		 * Sends the updates through a new connection of the client.
+		 * The next update will be a full one.
+		 *
+		 * @param writer The writer of the new connection.
+		 */
+		private void attach(@NotNull WireFormat.Writer writer) {
+			WireFormat.Writer previous;
+			lock.lock();
+			try {
+				if (closed) {
+					closeQuietly(writer);
+					return;
+				}
+				previous = this.writer;
+				this.writer = writer;
+				results.clear();
+				full = true;
+				changed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+			if (previous != null) closeQuietly(previous);
+		}
+
+		/**
+		 * Stops sending through a broken connection and closes it.
+		 * Does nothing if the client already reconnected.
+		 *
+		 * @param writer The writer of the broken connection.
+		 */
+		private void detach(@NotNull WireFormat.Writer writer) {
+			lock.lock();
+			try {
+				if (this.writer == writer) {
+					this.writer = null;
+					results.clear();
+				}
+			} finally {
+				lock.unlock();
+			}
+			closeQuietly(writer);
+		}
+
+		/**
+		 * Waits a moment for the queued updates to be written and closes this outbox.
+		 */
+		private void finish() {
+			boolean busy;
+			lock.lock();
+			try {
+				busy = writer != null && (pending != null || !results.isEmpty() || writingSince != 0);
+			} finally {
+				lock.unlock();
+			}
+			if (busy) {
+				try {
+					thread.join(SHUTDOWN_GRACE);
+				} catch (InterruptedException ignored) {
+				}
+			}
+			close();
+		}
+
+		/**
+		 * Closes this outbox and the connection to the client, dropping the update that hasn't been written yet.
+		 */
+		private void close() {
+			WireFormat.Writer writer;
+			lock.lock();
+			try {
+				if (closed) return;
+				closed = true;
+				writer = this.writer;
+				this.writer = null;
+				pending = null;
+				results.clear();
+				changed.signalAll();
+			} finally {
+				lock.unlock();
+			}
+			if (writer != null) closeQuietly(writer);
+			closeQuietly(receivers.get(id).input);
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				WireFormat.Writer writer;
+				Pending next;
+				CommandResult[] answers;
+				boolean full;
+				lock.lock();
+				try {
+					while ((this.writer == null || (pending == null && results.isEmpty())) && !closed) {
+						changed.awaitUninterruptibly();
+					}
+					if (closed) return;
+					writer = this.writer;
+					next = pending;
+					answers = results.toArray(new CommandResult[0]);
+					results.clear();
+					full = this.full && next != null;
+					if (next != null) this.full = false;
+					pending = null;
+					writingSince = Math.max(1, System.nanoTime());
+				} finally {
+					lock.unlock();
+				}
+				try {
+					for (CommandResult answer : answers) writer.write(answer);
+					if (next != null) write(writer, next, full);
+				} catch (IOException e) {
+					detach(writer);   // The client may reconnect and gets a full update then
+					continue;
+				} finally {
+					writingSince = 0;
+				}
+				if (next != null && next.broadcast.ended) {
+					close();
+					return;
+				}
+			}
 		}
+
+		/**
+		 * Writes an update, as delta if possible.
+		 *
+		 * @param writer The writer to send the update through.
+		 * @param update The update to write.
+		 * @param full   Whether a full update is required.
+		 * @throws IOException When an error occurs during transmission.
+		 */
+		private void write(@NotNull WireFormat.Writer writer, @NotNull Pending update, boolean full) throws IOException {
+			long written = writer.written();
+			if (deltas) {
+				Update current = update.broadcast.forPlayer(update.turn, update.player);
+				UpdateDelta delta = !full && sent != null ? UpdateDelta.diff(sent, current) : null;
+				if (delta != null) writer.write(delta);
+				else writer.write(update.broadcast, update.turn, update.player);
+				sent = current;
+			} else writer.write(update.broadcast, update.turn, update.player);
+			ServerMetrics.UPDATE_BYTES.record(writer.written() - written);
+		}
+	}
+
+	/**
+	 * An update waiting to be written.
+	 *
+	 * @param broadcast The public part of the update.
+	 * @param turn      Whether it's the turn of the recipient.
+	 * @param player    The hand of the recipient.
+	 */
+	private record Pending(@NotNull UpdateBroadcast broadcast, boolean turn, @NotNull Player player) {
 	}
 }
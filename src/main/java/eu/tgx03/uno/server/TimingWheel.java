@@ -0,0 +1,330 @@
+package eu.tgx03.uno.server;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel, running timeouts of any amount of games on a single thread.
+ * <p>
+ * Time gets split into ticks, and every timeout gets put into the slot of the tick it expires in,
+ * together with how many full rotations of the wheel it still has to wait.
+ * Scheduling and cancelling only queue the request, so they never block and cost the same no matter how many timeouts exist.
+ * The thread of the wheel adds and removes them at the next tick and hands expired tasks to an executor,
+ * so a slow task never delays the others.
+ * Timeouts may expire up to a tick late, but never early.
+ */
+public final class TimingWheel {
+
+	/**
+	 * How many new timeouts get moved into the wheel per tick at most, so a burst can't stall a tick.
+	 */
+	private static final int MAX_ADDS_PER_TICK = 100_000;
+
+	/**
+	 * The length of a tick in nanoseconds.
+	 */
+	private final long tick;
+	/**
+	 * The slots of the wheel, each holding a list of timeouts.
+	 * Only used by the thread of the wheel.
+	 */
+	private final Timeout[] slots;
+	/**
+	 * The mask to find the slot of a tick, as the amount of slots is a power of two.
+	 */
+	private final int mask;
+	/**
+	 * The executor the tasks of expired timeouts get run on.
+	 */
+	private final Executor executor;
+	/**
+	 * The timeouts waiting to be put into the wheel.
+	 */
+	private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+	/**
+	 * The timeouts waiting to be taken out of the wheel.
+	 */
+	private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+	/**
+	 * When the wheel started turning, in nanoseconds.
+	 */
+	private final long startTime;
+	/**
+	 * The thread turning the wheel.
+	 */
+	private final Thread worker;
+	/**
+	 * Whether the wheel has been stopped.
+	 */
+	private volatile boolean stopped = false;
+
+	/**
+	 * Creates a new timing wheel and starts its thread.
+	 *
+	 * @param tick     How precise the timeouts are.
+	 * @param slots    How many ticks a rotation of the wheel has, rounded up to a power of two.
+	 *                 Timeouts within a rotation don't need to be looked at before they expire.
+	 * @param executor The executor to run the tasks of expired timeouts on.
+	 * @throws IllegalArgumentException When the tick isn't positive or there are less than 1 or more than 2^30 slots.
+	 */
+	public TimingWheel(@NotNull Duration tick, int slots, @NotNull Executor executor) {
+		if (tick.isNegative() || tick.isZero()) throw new IllegalArgumentException("The tick has to be positive");
+		if (slots <= 0 || slots > 1 << 30) throw new IllegalArgumentException("Invalid amount of slots: " + slots);
+		int size = 1;
+		while (size < slots) size <<= 1;
+		this.tick = tick.toNanos();
+		this.slots = new Timeout[size];
+		this.mask = this.slots.length - 1;
+		this.executor = executor;
+		this.startTime = System.nanoTime();
+		this.worker = new Thread(this::run, "TimingWheel");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	/**
+	 * Returns the wheel shared by all the servers of this process,
+	 * ticking every 100 milliseconds and running the tasks on virtual threads.
+	 *
+	 * @return The shared timing wheel.
+	 */
+	@NotNull
+	public static TimingWheel shared() {
+		return Shared.WHEEL;
+	}
+
+	/**
+	 * Schedules a task to run once after a delay.
+	 *
+	 * @param task  The task to run. It has to handle its own exceptions.
+	 * @param delay How long to wait.
+	 * @return The timeout, which can be used to cancel the task.
+	 * @throws IllegalStateException When the wheel has been stopped.
+	 */
+	@NotNull
+	public Timeout schedule(@NotNull Runnable task, @NotNull Duration delay) {
+		if (stopped) throw new IllegalStateException("The timing wheel has been stopped");
+		long deadline = System.nanoTime() - startTime + Math.max(0, delay.toNanos());
+		Timeout timeout = new Timeout(task, deadline);
+		added.add(timeout);
+		return timeout;
+	}
+
+	/**
+	 * Stops the thread of this wheel, dropping all the timeouts that haven't expired yet.
+	 * Must not be called on the shared wheel.
+	 *
+	 * @throws IllegalStateException When trying to stop the shared wheel.
+	 */
+	public void stop() {
+		if (this == Shared.WHEEL) throw new IllegalStateException("The shared timing wheel can't be stopped");
+		stopped = true;
+		LockSupport.unpark(worker);
+	}
+
+	/**
+	 * Turns the wheel one slot per tick until stopped.
+	 */
+	private void run() {
+		long ticks = 0;
+		while (!stopped) {
+			long deadline = (ticks + 1) * tick;
+			long sleep;
+			while ((sleep = deadline - (System.nanoTime() - startTime)) > 0 && !stopped) {
+				LockSupport.parkNanos(this, sleep);
+			}
+			if (stopped) break;
+			removeCancelled();
+			transferAdded(ticks);
+			expire(ticks & mask, deadline);
+			ticks++;
+		}
+	}
+
+	/**
+	 * Takes the cancelled timeouts out of their slots.
+	 */
+	private void removeCancelled() {
+		Timeout timeout;
+		while ((timeout = cancelled.poll()) != null) {
+			if (timeout.slot >= 0) unlink(timeout);
+		}
+	}
+
+	/**
+	 * Puts the newly scheduled timeouts into their slots.
+	 *
+	 * @param current The current tick.
+	 */
+	private void transferAdded(long current) {
+		Timeout timeout;
+		for (int i = 0; i < MAX_ADDS_PER_TICK && (timeout = added.poll()) != null; i++) {
+			if (timeout.state != Timeout.WAITING) continue;
+			long expiry = Math.max(timeout.deadline / tick, current);  // Already late ones go into the current slot
+			timeout.rounds = (expiry - current) / slots.length;
+			int slot = (int) (expiry & mask);
+			timeout.slot = slot;
+			timeout.next = slots[slot];
+			if (slots[slot] != null) slots[slot].previous = timeout;
+			slots[slot] = timeout;
+		}
+	}
+
+	/**
+	 * Runs the tasks of the timeouts in a slot which are due,
+	 * the others wait for another rotation.
+	 *
+	 * @param slot The slot of the current tick.
+	 * @param now  The end of the current tick, relative to the start of the wheel.
+	 */
+	private void expire(long slot, long now) {
+		Timeout timeout = slots[(int) slot];
+		while (timeout != null) {
+			Timeout next = timeout.next;
+			if (timeout.rounds <= 0 && timeout.deadline <= now) {
+				unlink(timeout);
+				if (timeout.expire()) {
+					try {
+						executor.execute(timeout.task);
+					} catch (RuntimeException ignored) {   // The executor has been shut down
+					}
+				}
+			} else if (timeout.state != Timeout.WAITING) unlink(timeout);
+			else timeout.rounds--;
+			timeout = next;
+		}
+	}
+
+	/**
+	 * Takes a timeout out of its slot.
+	 *
+	 * @param timeout The timeout to remove.
+	 */
+	private void unlink(@NotNull Timeout timeout) {
+		if (timeout.previous != null) timeout.previous.next = timeout.next;
+		else slots[timeout.slot] = timeout.next;
+		if (timeout.next != null) timeout.next.previous = timeout.previous;
+		timeout.previous = null;
+		timeout.next = null;
+		timeout.slot = -1;
+	}
+
+	/**
+	 * A task waiting in the wheel.
+	 * The links and counters are only used by the thread of the wheel.
+	 */
+	public final class Timeout {
+
+		/**
+		 * The state of a timeout that hasn't expired or been cancelled.
+		 */
+		private static final int WAITING = 0;
+		/**
+		 * The state of a timeout whose task has been handed to the executor.
+		 */
+		private static final int EXPIRED = 1;
+		/**
+		 * The state of a cancelled timeout.
+		 */
+		private static final int CANCELLED = 2;
+
+		/**
+		 * The task to run.
+		 */
+		private final Runnable task;
+		/**
+		 * When the timeout expires, relative to the start of the wheel.
+		 */
+		private final long deadline;
+		/**
+		 * The state of this timeout.
+		 * Only changed while holding this timeout.
+		 */
+		private volatile int state = WAITING;
+		/**
+		 * How many rotations this timeout still has to wait.
+		 */
+		private long rounds;
+		/**
+		 * The slot this timeout is in, or -1.
+		 */
+		private int slot = -1;
+		/**
+		 * The previous timeout in the same slot.
+		 */
+		private Timeout previous;
+		/**
+		 * The next timeout in the same slot.
+		 */
+		private Timeout next;
+
+		/**
+		 * Creates a new timeout.
+		 *
+		 * @param task     The task to run.
+		 * @param deadline When the timeout expires, relative to the start of the wheel.
+		 */
+		private Timeout(@NotNull Runnable task, long deadline) {
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		/**
+		 * Makes sure the task won't run, unless it already has been handed to the executor.
+		 *
+		 * @return Whether the task got cancelled by this call.
+		 */
+		public boolean cancel() {
+			synchronized (this) {
+				if (state != WAITING) return false;
+				state = CANCELLED;
+			}
+			cancelled.add(this);
+			return true;
+		}
+
+		/**
+		 * Whether the task has been handed to the executor.
+		 *
+		 * @return Whether this timeout expired.
+		 */
+		public boolean isExpired() {
+			return state == EXPIRED;
+		}
+
+		/**
+		 * Marks this timeout as expired, unless it has been cancelled.
+		 *
+		 * @return Whether the task shall run.
+		 */
+		private synchronized boolean expire() {
+			if (state != WAITING) return false;
+			state = EXPIRED;
+			return true;
+		}
+	}
+
+	/**
+	 * Holds the shared wheel, so it only gets created when needed.
+	 */
+	private static final class Shared {
+
+		/**
+		 * The wheel shared by all the servers.
+		 */
+		private static final TimingWheel WHEEL = new TimingWheel(Duration.ofMillis(100), 512, Executors.newVirtualThreadPerTaskExecutor());
+
+		/**
+		 * This is a holder class, which shall not be instantiated.
+		 */
+		private Shared() {
+			throw new IllegalAccessError("Holder class");
+		}
+	}
+}
@@ -1,37 +1,65 @@
 package eu.tgx03.uno.server;
 
-import eu.tgx03.uno.game.Game;
+import eu.tgx03.uno.game.GameSnapshot;
 import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.messaging.BufferPool;
+import eu.tgx03.uno.messaging.DatagramProtocol;
 import eu.tgx03.uno.messaging.Command;
-import eu.tgx03.uno.messaging.Update;
+import eu.tgx03.uno.messaging.CommandResult;
+import eu.tgx03.uno.messaging.UpdateBroadcast;
+import eu.tgx03.uno.messaging.WireFormat;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.*;
-import java.net.DatagramPacket;
-import java.net.DatagramSocket;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
 import java.net.SocketAddress;
+import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Random;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * A server implementation for UNO using UDP.
+ * A single receiver thread drains all waiting datagrams in batches and decodes them,
+ * the decoded commands then get executed one after another in the order they arrived.
+ * Lost datagrams get handled as described in {@link DatagramProtocol}.
+ * A client sending from a new address only gets rebound to it after resuming with its session token.
  */
 public class UDPServer extends Server implements Runnable {
 
 	/**
-	 * The default size for a buffer for receiving commands.
+	 * The largest datagram that can be received.
 	 */
-	private static final int DEFAULT_RECEIVE_SIZE = 200;
+	private static final int MAX_DATAGRAM_SIZE = 1 << 16;
+	/**
+	 * How many datagrams get received at most before the decoded commands get handed over for execution.
+	 */
+	private static final int BATCH_SIZE = 64;
+	/**
+	 * How long to keep repeating the final update after the game ended, until all clients acknowledged it.
+	 */
+	private static final long LINGER_NANOS = 5_000_000_000L;
+	/**
+	 * How many clients can register at most.
+	 * Well below the amount of IDs, so finding a free one never takes long.
+	 */
+	private static final int MAX_PLAYERS = 256;
 
 	/**
 	 * This Random gets used to generate the IDs for the clients.
 	 */
 	private static final Random RANDOM = new Random();
+	/**
+	 * The source of the session tokens.
+	 */
+	private static final SecureRandom TOKENS = new SecureRandom();
 	/**
 	 * Used to signal that a new client wants to register.
 	 */
@@ -42,28 +70,55 @@ public class UDPServer extends Server implements Runnable {
 	 */
 	private final Rules rules;
 	/**
-	 * The socket used for sending and receiving UDP packets.
+	 * The format commands and updates get encoded in.
 	 */
-	private final DatagramSocket socket;
+	private final WireFormat format;
 	/**
-	 * The list holding the IDs and addresses of all the clients.
+	 * The channel used for sending and receiving UDP packets.
 	 */
-	private final ArrayList<Client> clients = new ArrayList<>(5);
+	private final DatagramChannel channel;
 	/**
-	 * The lock for reading from the client list.
+	 * The selector the receiver waits on for new datagrams.
 	 */
-	private final Lock idReaderLock;
+	private final Selector selector;
 	/**
-	 * The lock for writing to the client list.
+	 * The pool of direct buffers outgoing datagrams get encoded into.
 	 */
-	private final Lock idWriterLock;
-
-	// Creating the locks.
-	{
-		ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-		idReaderLock = lock.readLock();
-		idWriterLock = lock.writeLock();
-	}
+	private final BufferPool pool = new BufferPool(2048, 64, true);
+	/**
+	 * All the registered clients, indexed by their seat in the game.
+	 */
+	private final List<Client> clients = new CopyOnWriteArrayList<>();
+	/**
+	 * The client of every ID, indexed by the ID as unsigned short.
+	 * Only written by the receiver thread.
+	 */
+	private final Client[] byID = new Client[1 << 16];
+	/**
+	 * The client registered from each address, so repeated registrations get the same ID.
+	 * Only used by the receiver thread.
+	 */
+	private final Map<SocketAddress, Client> byAddress = new HashMap<>();
+	/**
+	 * The executor running the received commands in order.
+	 */
+	private final SerialExecutor commands;
+	/**
+	 * Whether the update announcing the end of the game has been sent.
+	 */
+	private volatile boolean finalSent = false;
+	/**
+	 * The threads running the received commands.
+	 */
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+	/**
+	 * Repeats the parts of updates that haven't been acknowledged.
+	 */
+	private final ScheduledExecutorService retransmitter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "UDPHost-Retransmit");
+		thread.setDaemon(true);
+		return thread;
+	});
 
 	/**
 	 * Create a new UDP server.
@@ -73,22 +128,37 @@ public class UDPServer extends Server implements Runnable {
 	 * @throws IOException When the socket couldn't be set up.
 	 */
 	public UDPServer(int port, @Nullable Rules rules) throws IOException {
+		this(port, rules, WireFormat.JAVA);
+	}
+
+	/**
+	 * Create a new UDP server exchanging messages in the given format.
+	 *
+	 * @param port   The port to listen on for packages.
+	 * @param rules  The rules to be used in the game later.
+	 * @param format The format the clients send and receive messages in.
+	 * @throws IOException When the socket couldn't be set up.
+	 */
+	public UDPServer(int port, @Nullable Rules rules, @NotNull WireFormat format) throws IOException {
 		this.rules = rules;
-		this.socket = new DatagramSocket(port);
+		this.format = format;
+		this.channel = DatagramChannel.open().bind(new InetSocketAddress(port));
+		this.channel.configureBlocking(false);
+		this.selector = Selector.open();
+		this.channel.register(selector, SelectionKey.OP_READ);
+		this.commands = new SerialExecutor(executor);
+		long period = DatagramProtocol.RETRANSMIT_NANOS / 2;
+		retransmitter.scheduleAtFixedRate(this::retransmit, period, period, TimeUnit.NANOSECONDS);
 	}
 
 	@Override
 	public void start() {
+		game = createGame(getPlayerCount(), rules);
 		start = true;
-		game = new Game(getPlayerCount(), rules);
-		byte[] random = new byte[4];
-		RANDOM.nextBytes(random);
-		DatagramPacket packet = new DatagramPacket(random, 4, socket.getLocalSocketAddress());
-		try {
-			socket.send(packet);
-		} catch (IOException e) {
-			throw new UncheckedIOException(e);
-		}
+		commands.execute(() -> {
+			update();
+			armTurnTimer();
+		});
 	}
 
 	@Override
@@ -96,143 +166,447 @@ public class UDPServer extends Server implements Runnable {
 		return clients.size();
 	}
 
+	@Override
+	protected int getConnectionCount() {
+		if (kill) return 0;
+		int count = 0;
+		for (Client client : clients) {
+			if (!client.silent) count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the port this server listens on, useful when it got bound to port 0.
+	 *
+	 * @return The local port.
+	 */
+	public int getPort() {
+		return channel.socket().getLocalPort();
+	}
+
 	@Override
 	public void kill() {
 		super.kill();
-		socket.close();
+		for (Client client : clients) client.liveness.stop();
+		selector.wakeup();
+		executor.shutdown();
+		retransmitter.shutdown();
 	}
 
 	@Override
-	protected void update() {
-		game.gameLock.lock();
-		short[] cardCount = game.getCardCount();
-		idReaderLock.lock();
-		clients.parallelStream().forEach(client -> {
-			boolean turn = game.getCurrentPlayer() == client.id;
-			Update update = new Update(turn, game.hasEnded(), game.getPlayer(client.id), game.getTopCard(), cardCount, (short) game.getStackSize());
-			ByteArrayOutputStream out = new ByteArrayOutputStream();
+	protected long update() {
+		GameSnapshot snapshot = game.getSnapshot();
+		UpdateBroadcast broadcast = new UpdateBroadcast(snapshot.hasEnded(), snapshot.getTopCard(), snapshot.getCardCount(), (short) snapshot.getStackSize());
+		long bytes = 0;
+		for (Client client : clients) {
 			try {
-				ObjectOutputStream objects = new ObjectOutputStream(out);
-				objects.writeObject(update);
-				DatagramPacket packet = new DatagramPacket(out.toByteArray(), out.size(), client.address);
-				socket.send(packet);
+				ByteBuffer message = format.encode(broadcast, snapshot.getCurrentPlayer() == client.seat, snapshot.getPlayer(client.seat), pool);
+				bytes += message.remaining();
+				ServerMetrics.UPDATE_BYTES.record(message.remaining());
+				client.publish(message);
 			} catch (IOException e) {
-				throw new UncheckedIOException(e);
+				handleException(e);
 			}
-		});
-		idReaderLock.unlock();
-		game.gameLock.unlock();
+		}
+		if (snapshot.hasEnded()) finalSent = true;
+		return bytes;
 	}
 
 	@Override
-	public void run() {
-		while (!start && !kill) {
+	protected void execute(@NotNull Runnable task) {
+		commands.execute(task);
+	}
+
+	@Override
+	protected void reply(int player, @NotNull CommandResult result) {
+		try {
+			clients.get(player).reply(result);
+		} catch (IOException e) {
+			if (!kill) handleException(e);
+		}
+	}
 
-			// Wait for new clients and give them IDs
-			byte[] buffer = new byte[8];
-			DatagramPacket packet = new DatagramPacket(buffer, 8);
+	/**
+	 * Repeats the missing fragments of updates which haven't been acknowledged in time.
+	 */
+	private void retransmit() {
+		if (!channel.isOpen()) return;
+		long now = System.nanoTime();
+		for (Client client : clients) {
 			try {
-				socket.receive(packet);
-				Thread.ofVirtual().start(() -> allocateID(packet));
+				client.retransmit(now);
 			} catch (IOException e) {
-				throw new UncheckedIOException(e);
+				if (!kill) handleException(e);
 			}
 		}
+	}
 
-		// Receive commands from clients
-		while (!kill && !game.hasEnded()) {
-			byte[] buffer = new byte[DEFAULT_RECEIVE_SIZE];
-			DatagramPacket packet = new DatagramPacket(buffer, DEFAULT_RECEIVE_SIZE);
-			Thread.ofVirtual().start(() -> decodeCommand(packet));
-		}
+	@Override
+	public void run() {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+		Received[] batch = new Received[BATCH_SIZE];
+		long end = 0;
+		try (channel; selector) {
+			while (!kill) {
+				if (game != null && game.hasEnded()) {
+					// Keep receiving acknowledgements of the final update for a while
+					if (end == 0) end = System.nanoTime() + LINGER_NANOS;
+					else if (System.nanoTime() > end || (finalSent && clients.stream().allMatch(Client::upToDate))) break;
+					selector.select(DatagramProtocol.RETRANSMIT_NANOS / 1_000_000);
+				} else selector.select();
+				selector.selectedKeys().clear();
 
-		// After game end, send out a final update.
-		update();
-		socket.close();
+				// Drain the waiting datagrams
+				int count = 0;
+				SocketAddress sender;
+				while (!kill && (sender = channel.receive(buffer.clear())) != null) {
+					buffer.flip();
+					Received received = decode(buffer, sender);
+					if (received != null) batch[count++] = received;
+					if (count == BATCH_SIZE) {
+						dispatch(batch, count);
+						count = 0;
+					}
+				}
+				dispatch(batch, count);
+			}
+		} catch (IOException e) {
+			if (!kill) handleException(e);
+		} finally {
+			retransmitter.shutdown();
+		}
 	}
 
 	/**
-	 * Create a new ID for a client and give that ID to the client, while storing the address.
+	 * Decodes a received datagram and processes its acknowledgements.
+	 * Registration requests get handled right away.
 	 *
-	 * @param packet The packet of the client to store the address of.
+	 * @param buffer The content of the datagram.
+	 * @param sender The address of the sender.
+	 * @return The decoded command or null if the datagram didn't hold the next command of a known client.
 	 */
-	private void allocateID(DatagramPacket packet) {
-		if (!Arrays.equals(packet.getData(), REGISTER)) return;
+	@Nullable
+	private Received decode(@NotNull ByteBuffer buffer, @NotNull SocketAddress sender) {
+		if (buffer.remaining() == REGISTER.length && buffer.equals(ByteBuffer.wrap(REGISTER))) {
+			register(sender);
+			return null;
+		}
+		try {
+			Client client = byID[buffer.getShort() & 0xFFFF];
+			if (client == null) return null;
+			byte kind = buffer.get();
+			int sequence = buffer.getInt();
+			long fragments = buffer.getLong();
+			if (kind == DatagramProtocol.RESUME) {
+				if (buffer.getLong() == client.token) {
+					client.heard();
+					resume(client, sender);
+				}
+				return null;
+			}
 
-		// Generate a new ID for the new user.
-		Client client = new Client((short) RANDOM.nextInt(), packet.getSocketAddress());
-		idWriterLock.lock();
-		clients.add(client);
-		idWriterLock.unlock();
+			// Only a resuming client may move to a new address
+			if (!client.address.equals(sender)) return null;
+			client.heard();
+			client.acknowledge(sequence, fragments);
+			if (kind != DatagramProtocol.COMMAND) return null;
 
-		// Create and send the answer.
-		ByteBuffer buffer = ByteBuffer.allocate(2);
-		buffer.putShort(client.id);
-		DatagramPacket answer = new DatagramPacket(buffer.array(), 2, client.address);
-		try {
-			socket.send(answer);
-		} catch (IOException e) {
-			throw new UncheckedIOException(e);
+			// Only accept commands in order, but acknowledge duplicates again
+			Received received = null;
+			if (buffer.getInt() == client.expected) {
+				received = new Received(client.seat, (Command) format.decode(buffer));
+				client.expected++;
+			}
+			client.acknowledgeCommands();
+			return received;
+		} catch (IOException | ClassNotFoundException | ClassCastException | BufferUnderflowException ignored) {
+			return null;    // Probably means an invalid packet was received
+		}
+	}
+
+	/**
+	 * Hands a batch of decoded commands over for execution.
+	 * Consecutive commands of the same player get executed together, with a single update afterwards.
+	 *
+	 * @param batch The decoded commands.
+	 * @param count How many entries of the batch are used.
+	 */
+	private void dispatch(@NotNull Received @NotNull [] batch, int count) {
+		if (count == 0 || !start) return;
+		Received[] commands = Arrays.copyOf(batch, count);
+		this.commands.execute(() -> {
+			List<Command> run = new ArrayList<>();
+			for (int i = 0; i < commands.length; i++) {
+				run.add(commands[i].command);
+				if (i + 1 < commands.length && commands[i + 1].seat == commands[i].seat) continue;
+				try {
+					if (run.size() == 1) executeCommand(commands[i].seat, run.getFirst());
+					else executeCommands(commands[i].seat, run);
+				} catch (RuntimeException e) {
+					handleException(e);
+				}
+				run = new ArrayList<>();
+			}
+		});
+	}
+
+	/**
+	 * Binds a client to the address it resumed its session from
+	 * and repeats everything it might have missed.
+	 *
+	 * @param client The resuming client.
+	 * @param sender The address the client now uses.
+	 * @throws IOException When sending failed.
+	 */
+	private void resume(@NotNull Client client, @NotNull SocketAddress sender) throws IOException {
+		if (!client.address.equals(sender)) {
+			byAddress.remove(client.address);
+			byAddress.put(sender, client);
+			client.address = sender;
 		}
+		client.resend();
+		client.acknowledgeCommands();
 	}
 
 	/**
-	 * Decode a packet containing a command.
+	 * Create a new ID and session token for a client and give them to the client, while storing the address.
+	 * New clients get ignored once the game started or the server is full.
 	 *
-	 * @param packet The packet to decode.
+	 * @param address The address of the new client.
 	 */
-	private void decodeCommand(DatagramPacket packet) {
-		ByteArrayInputStream buffer = new ByteArrayInputStream(packet.getData(), 0, packet.getLength());
+	private void register(@NotNull SocketAddress address) {
+		Client client = byAddress.get(address);   // The answer to an earlier request might have gotten lost
+		if (client == null) {
+			if (start || clients.size() >= MAX_PLAYERS) return;   // Like a lost answer, the client gives up after a few attempts
+
+			// Generate a new ID for the new user.
+			short id;
+			do {
+				id = (short) RANDOM.nextInt();
+			} while (byID[id & 0xFFFF] != null);
+			long token;
+			do {
+				token = TOKENS.nextLong();
+			} while (token == 0);
+			client = new Client(id, token, clients.size(), address);
+			byID[id & 0xFFFF] = client;
+			byAddress.put(address, client);
+			clients.add(client);
+		}
 
+		// Create and send the answer.
 		try {
-			ObjectInputStream input = new ObjectInputStream(buffer);
-			short id = input.readShort();
-			Command command = (Command) input.readObject();
-
-			int player = -1;
-			idReaderLock.lock();
-			for (int i = 0; i < clients.size(); i++) if (clients.get(i).id == id) player = i;
-
-			// If a new address got used, update it internally.
-			if (!clients.get(id).address.equals(packet.getSocketAddress())) {
-				idReaderLock.unlock();
-				idWriterLock.lock();
-				clients.get(id).address = packet.getSocketAddress();
-				idWriterLock.unlock();
-			} else idReaderLock.unlock();
-
-			if (player >= 0) super.executeCommand(player, command);
-			else throw new IllegalArgumentException("Unknown player");
+			channel.send(ByteBuffer.allocate(2 + 8).putShort(client.id).putLong(client.token).flip(), address);
 		} catch (IOException e) {
-			throw new UncheckedIOException(e);
-		} catch (ClassNotFoundException ignored) {  // Probably means an invalid packet was received
+			handleException(e);
 		}
 	}
 
 	/**
-	 * A data class used for storing the ID and address of a client.
+	 * A command decoded by the receiver thread.
+	 *
+	 * @param seat    The seat of the player who sent the command.
+	 * @param command The received command.
 	 */
-	private static class Client {
+	private record Received(int seat, @NotNull Command command) {
+	}
+
+	/**
+	 * A data class used for storing the ID and address of a client
+	 * and the state of the reliability layer towards it.
+	 */
+	private class Client {
 
 		/**
 		 * The ID of the corresponding client.
 		 */
 		private final short id;
+		/**
+		 * The token the client needs to resume its session from a new address.
+		 */
+		private final long token;
+		/**
+		 * The seat of the client in the game.
+		 */
+		private final int seat;
 
 		/**
 		 * The address of the corresponding client.
 		 */
-		private SocketAddress address;
+		private volatile SocketAddress address;
+		/**
+		 * The sequence number of the next command to execute.
+		 * Only written by the receiver thread.
+		 */
+		private volatile int expected = 0;
+		/**
+		 * Watches whether the client is still there.
+		 * Only replaced by the receiver thread.
+		 */
+		private volatile Liveness liveness;
+		/**
+		 * Whether the client stayed silent for too long, the latest update then doesn't get repeated anymore.
+		 */
+		private volatile boolean silent = false;
+		/**
+		 * The sequence number of the latest update.
+		 */
+		private int sequence = -1;
+		/**
+		 * The latest update, which gets repeated until acknowledged.
+		 */
+		private ByteBuffer latest;
+		/**
+		 * The fragments of the latest update the client acknowledged.
+		 */
+		private long acknowledged;
+		/**
+		 * When fragments of the latest update have last been sent.
+		 */
+		private long sentAt;
 
 		/**
 		 * Create a new container for a client.
 		 *
 		 * @param id      The ID of the client.
+		 * @param token   The session token of the client.
+		 * @param seat    The seat of the client in the game.
 		 * @param address The address of the client.
 		 */
-		public Client(short id, SocketAddress address) {
+		public Client(short id, long token, int seat, SocketAddress address) {
 			this.id = id;
+			this.token = token;
+			this.seat = seat;
 			this.address = address;
+			this.liveness = watch(this::idle);
+		}
+
+		/**
+		 * Records that something has been received from the client,
+		 * starting to watch it again if it went idle before.
+		 */
+		private void heard() {
+			if (silent) {
+				silent = false;
+				liveness = watch(this::idle);
+			}
+			liveness.heard();
+		}
+
+		/**
+		 * Stops repeating updates to the client as it stayed silent for too long, until it shows up again.
+		 */
+		private void idle() {
+			silent = true;
+			if (!kill) handleException(new SocketTimeoutException("Player " + seat + " stayed silent for too long"));
+		}
+
+		/**
+		 * Replaces the latest update of this client and sends it.
+		 *
+		 * @param message The encoded update, taken from the pool.
+		 * @throws IOException When sending failed.
+		 */
+		private synchronized void publish(@NotNull ByteBuffer message) throws IOException {
+			if (latest != null) pool.release(latest);
+			latest = message;
+			sequence++;
+			acknowledged = 0;
+			sendMissing();
+		}
+
+		/**
+		 * Processes the acknowledgement of an update.
+		 *
+		 * @param sequence  The sequence number of the acknowledged update.
+		 * @param fragments The fragments of that update the client holds.
+		 */
+		private synchronized void acknowledge(int sequence, long fragments) {
+			if (sequence == this.sequence) acknowledged |= fragments;
+		}
+
+		/**
+		 * Sends the latest update completely again, as the client might have lost track of it.
+		 *
+		 * @throws IOException When sending failed.
+		 */
+		private synchronized void resend() throws IOException {
+			if (latest == null) return;
+			acknowledged = 0;
+			sendMissing();
+		}
+
+		/**
+		 * Repeats the missing fragments of the latest update, if it hasn't been acknowledged in time.
+		 *
+		 * @param now The current time in nanoseconds.
+		 * @throws IOException When sending failed.
+		 */
+		private synchronized void retransmit(long now) throws IOException {
+			if (!silent && !upToDate() && now - sentAt >= DatagramProtocol.RETRANSMIT_NANOS) sendMissing();
+		}
+
+		/**
+		 * Whether the client acknowledged the latest update.
+		 *
+		 * @return Whether nothing needs to be repeated.
+		 */
+		private synchronized boolean upToDate() {
+			return latest == null || acknowledged == DatagramProtocol.complete(DatagramProtocol.fragments(latest.remaining()));
+		}
+
+		/**
+		 * Sends all the fragments of the latest update the client didn't acknowledge yet.
+		 *
+		 * @throws IOException When sending failed.
+		 */
+		private void sendMissing() throws IOException {
+			int fragments = DatagramProtocol.fragments(latest.remaining());
+			for (int i = 0; i < fragments; i++) {
+				if ((acknowledged & (1L << i)) != 0) continue;
+				ByteBuffer buffer = pool.acquire(DatagramProtocol.UPDATE_HEADER + DatagramProtocol.MAX_PAYLOAD);
+				try {
+					DatagramProtocol.writeFragment(latest, sequence, expected - 1, i, buffer);
+					channel.send(buffer.flip(), address);
+				} finally {
+					pool.release(buffer);
+				}
+			}
+			sentAt = System.nanoTime();
+		}
+
+		/**
+		 * Sends the result of a command once.
+		 *
+		 * @param result The result to send.
+		 * @throws IOException When encoding or sending failed.
+		 */
+		private void reply(@NotNull CommandResult result) throws IOException {
+			ByteBuffer message = format.encode(result, pool);
+			ByteBuffer buffer = pool.acquire(1 + 4 + message.remaining());
+			try {
+				buffer.put(DatagramProtocol.RESULT).putInt(expected - 1).put(message);
+				channel.send(buffer.flip(), address);
+			} finally {
+				pool.release(buffer);
+				pool.release(message);
+			}
+		}
+
+		/**
+		 * Tells the client which command has last been accepted.
+		 *
+		 * @throws IOException When sending failed.
+		 */
+		private void acknowledgeCommands() throws IOException {
+			ByteBuffer buffer = pool.acquire(1 + 4);
+			try {
+				buffer.put(DatagramProtocol.ACK).putInt(expected - 1);
+				channel.send(buffer.flip(), address);
+			} finally {
+				pool.release(buffer);
+			}
 		}
 
 		@Override
@@ -246,4 +620,4 @@ public class UDPServer extends Server implements Runnable {
 			return Short.hashCode(this.id);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,206 @@
+package eu.tgx03.uno.simulation;
+
+import eu.tgx03.uno.game.Game;
+import eu.tgx03.uno.game.Move;
+import eu.tgx03.uno.game.Player;
+import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.game.cards.ChooseColor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serial;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays large amounts of games without any clients or servers involved,
+ * for example to find out how rules and strategies influence the outcome.
+ * The games get split across the workers of a fork join pool, each of them using its own number generator.
+ * As the generators get split from the provided seed, a run with the same seed always has the same outcome.
+ */
+public class Simulator {
+
+	/**
+	 * Below how many games a task doesn't get split any further.
+	 */
+	private static final int BATCH_SIZE = 256;
+	/**
+	 * The default limit of turns per game.
+	 */
+	private static final int DEFAULT_MAX_TURNS = 10_000;
+
+	/**
+	 * The rules of the simulated games.
+	 */
+	private final Rules rules;
+	/**
+	 * The strategy of each seat.
+	 */
+	private final Strategy[] seats;
+	/**
+	 * After how many turns a game gets aborted.
+	 */
+	private final int maxTurns;
+
+	/**
+	 * Creates a new simulator.
+	 * If null rules are supplied, everything is disabled.
+	 *
+	 * @param rules The rules of the simulated games.
+	 * @param seats The strategy of each player, which also determines how many players each game has.
+	 */
+	public Simulator(@Nullable Rules rules, @NotNull Strategy @NotNull ... seats) {
+		this(rules, DEFAULT_MAX_TURNS, seats);
+	}
+
+	/**
+	 * Creates a new simulator.
+	 * If null rules are supplied, everything is disabled.
+	 *
+	 * @param rules    The rules of the simulated games.
+	 * @param maxTurns After how many turns a game gets aborted without a winner.
+	 * @param seats    The strategy of each player, which also determines how many players each game has.
+	 */
+	public Simulator(@Nullable Rules rules, int maxTurns, @NotNull Strategy @NotNull ... seats) {
+		if (seats.length < 1 || maxTurns < 1) throw new IllegalArgumentException();
+		this.rules = rules != null ? rules : new Rules();
+		this.seats = seats.clone();
+		this.maxTurns = maxTurns;
+	}
+
+	/**
+	 * Simulates games on the common pool.
+	 *
+	 * @param games How many games to play.
+	 * @param seed  The seed all the randomness gets derived from.
+	 * @return The statistics of the run.
+	 */
+	@NotNull
+	public Statistics run(long games, long seed) {
+		return run(games, seed, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Simulates games on the given pool.
+	 *
+	 * @param games How many games to play.
+	 * @param seed  The seed all the randomness gets derived from.
+	 * @param pool  The pool to run the games on.
+	 * @return The statistics of the run.
+	 */
+	@NotNull
+	public Statistics run(long games, long seed, @NotNull ForkJoinPool pool) {
+		long start = System.nanoTime();
+		Statistics result = pool.invoke(new Batch(0, games, new SplittableRandom(seed)));
+		result.setDuration(System.nanoTime() - start);
+		return result;
+	}
+
+	/**
+	 * Plays a single game until somebody wins or the turn limit is reached.
+	 *
+	 * @param game       The game to play.
+	 * @param random     The number generator of the current worker.
+	 * @param moves      The buffer for the legal moves.
+	 * @param statistics Where to record the outcome.
+	 */
+	private void play(@NotNull Game game, @NotNull SplittableRandom random, int @NotNull [] moves, @NotNull Statistics statistics) {
+		for (int turn = 1; turn <= maxTurns; turn++) {
+			int player = game.getCurrentPlayer();
+			Strategy strategy = seats[player];
+			int count = game.legalMoves(player, moves);
+			int move = strategy.chooseMove(game, player, moves, count, random);
+
+			// Wildcards need their color before they can be played
+			if (Move.needsColor(move)) {
+				Player hand = game.getPlayer(player);
+				ChooseColor colored = ((ChooseColor) Move.card(move)).withColor(strategy.chooseColor(hand, random));
+				game.selectColor(player, Move.cardNumber(move), colored.color());
+				move = Move.encode(Move.kind(move), colored.code(), Move.cardNumber(move));
+			}
+
+			if (!game.apply(player, move)) {
+				throw new IllegalStateException("Strategy " + strategy + " chose an illegal move: " + Move.toString(move));
+			}
+			if (game.getPlayer(player).finished()) {
+				statistics.recordWin(player, turn);
+				return;
+			}
+		}
+		statistics.recordAbort(maxTurns);
+	}
+
+	/**
+	 * A range of games to simulate, which splits itself until it's small enough.
+	 */
+	private class Batch extends RecursiveTask<Statistics> {
+
+		@Serial
+		private static final long serialVersionUID = 4817219340552371906L;
+
+		/**
+		 * The index of the first game of this batch.
+		 */
+		private final long from;
+		/**
+		 * The index after the last game of this batch.
+		 */
+		private final long to;
+		/**
+		 * The number generator of this batch, which only lives as long as the batch runs.
+		 */
+		private final transient SplittableRandom random;
+
+		/**
+		 * Creates a new batch.
+		 *
+		 * @param from   The first game of this batch.
+		 * @param to     The index after the last game of this batch.
+		 * @param random The number generator of this batch.
+		 */
+		private Batch(long from, long to, @NotNull SplittableRandom random) {
+			this.from = from;
+			this.to = to;
+			this.random = random;
+		}
+
+		@Override
+		@NotNull
+		protected Statistics compute() {
+			if (to - from <= BATCH_SIZE) {
+				Statistics statistics = new Statistics(seats.length);
+				int[] moves = new int[Game.MAX_MOVES];
+				for (long i = from; i < to; i++) {
+					play(new Game(seats.length, rules, random.nextLong()), random, moves, statistics);
+				}
+				return statistics;
+			}
+			long middle = (from + to) >>> 1;
+			Batch left = new Batch(from, middle, random.split());
+			Batch right = new Batch(middle, to, random.split());
+			left.fork();
+			return right.compute().merge(left.join());
+		}
+	}
+
+	/**
+	 * Runs a simulation from the command line.
+	 * Expects the amount of games followed by the strategy of each seat,
+	 * for example "100000 GREEDY RANDOM PENALTIES_FIRST".
+	 *
+	 * @param args The amount of games and the strategies.
+	 */
+	public static void main(@NotNull String @NotNull [] args) {
+		if (args.length < 2) {
+			System.err.println("Usage: Simulator <games> <strategy> [strategy...]");
+			return;
+		}
+		Strategy[] seats = new Strategy[args.length - 1];
+		for (int i = 1; i < args.length; i++) {
+			seats[i - 1] = Strategies.valueOf(args[i]);
+		}
+		Simulator simulator = new Simulator(new Rules(), seats);
+		System.out.println(simulator.run(Long.parseLong(args[0]), System.nanoTime()));
+	}
+}
@@ -0,0 +1,168 @@
+package eu.tgx03.uno.simulation;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The results of a simulation run.
+ * Each worker collects its own statistics, which get merged afterwards.
+ */
+public class Statistics {
+
+	/**
+	 * How many times each seat won a game by getting rid of all its cards first.
+	 */
+	private final long[] wins;
+	/**
+	 * How many games were played.
+	 */
+	private long games = 0;
+	/**
+	 * How many games were aborted as nobody won before the turn limit.
+	 */
+	private long aborted = 0;
+	/**
+	 * How many turns were played across all games.
+	 */
+	private long turns = 0;
+	/**
+	 * The most turns a single won game took.
+	 */
+	private long longestGame = 0;
+	/**
+	 * How long the simulation took in nanoseconds.
+	 */
+	private long nanos = 0;
+
+	/**
+	 * Creates empty statistics.
+	 *
+	 * @param seats How many players each game has.
+	 */
+	public Statistics(int seats) {
+		this.wins = new long[seats];
+	}
+
+	/**
+	 * Records a game that has been won.
+	 *
+	 * @param winner The seat of the winning player.
+	 * @param turns  How many turns the game took.
+	 */
+	void recordWin(int winner, int turns) {
+		this.games++;
+		this.wins[winner]++;
+		this.turns += turns;
+		this.longestGame = Math.max(this.longestGame, turns);
+	}
+
+	/**
+	 * Records a game that reached the turn limit.
+	 *
+	 * @param turns How many turns the game took.
+	 */
+	void recordAbort(int turns) {
+		this.games++;
+		this.aborted++;
+		this.turns += turns;
+	}
+
+	/**
+	 * Adds the results of another worker to these statistics.
+	 *
+	 * @param other The statistics to add.
+	 * @return These statistics.
+	 */
+	@NotNull
+	Statistics merge(@NotNull Statistics other) {
+		this.games += other.games;
+		this.aborted += other.aborted;
+		this.turns += other.turns;
+		this.longestGame = Math.max(this.longestGame, other.longestGame);
+		for (int i = 0; i < wins.length; i++) {
+			this.wins[i] += other.wins[i];
+		}
+		return this;
+	}
+
+	/**
+	 * Sets how long the simulation took.
+	 *
+	 * @param nanos The duration in nanoseconds.
+	 */
+	void setDuration(long nanos) {
+		this.nanos = nanos;
+	}
+
+	/**
+	 * @return How many games were played.
+	 */
+	public long games() {
+		return games;
+	}
+
+	/**
+	 * @return How many games were aborted at the turn limit.
+	 */
+	public long aborted() {
+		return aborted;
+	}
+
+	/**
+	 * @return How many turns were played in total.
+	 */
+	public long turns() {
+		return turns;
+	}
+
+	/**
+	 * @return The most turns a won game took.
+	 */
+	public long longestGame() {
+		return longestGame;
+	}
+
+	/**
+	 * Returns how often a seat has won.
+	 *
+	 * @param seat The requested seat.
+	 * @return How many games that seat has won.
+	 */
+	public long wins(int seat) {
+		return wins[seat];
+	}
+
+	/**
+	 * @return How long the simulation took in nanoseconds.
+	 */
+	public long nanos() {
+		return nanos;
+	}
+
+	/**
+	 * @return How many games were simulated per second.
+	 */
+	public double gamesPerSecond() {
+		return nanos == 0 ? 0 : games * 1e9 / nanos;
+	}
+
+	/**
+	 * @return How many turns were simulated per second.
+	 */
+	public double turnsPerSecond() {
+		return nanos == 0 ? 0 : turns * 1e9 / nanos;
+	}
+
+	@Override
+	@NotNull
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append("Games:\t").append(games).append(" (").append(aborted).append(" aborted)").append(System.lineSeparator());
+		builder.append("Turns:\t").append(turns).append(" (longest game ").append(longestGame).append(')').append(System.lineSeparator());
+		builder.append("Time:\t").append(nanos / 1_000_000).append(" ms").append(System.lineSeparator());
+		builder.append("Speed:\t").append(String.format("%.0f games/s, %.0f turns/s", gamesPerSecond(), turnsPerSecond())).append(System.lineSeparator());
+		builder.append("Wins:\t").append(Arrays.toString(wins));
+		return builder.toString();
+	}
+}
@@ -0,0 +1,98 @@
+package eu.tgx03.uno.simulation;
+
+import eu.tgx03.uno.game.Game;
+import eu.tgx03.uno.game.Move;
+import eu.tgx03.uno.game.cards.Card;
+import eu.tgx03.uno.game.cards.ChooseColor;
+import eu.tgx03.uno.game.cards.Default;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.SplittableRandom;
+
+/**
+ * The strategies available for simulations out of the box.
+ * All of them play a card whenever they can and only pick up cards otherwise.
+ */
+public enum Strategies implements Strategy {
+
+	/**
+	 * Plays a random card.
+	 */
+	RANDOM {
+		@Override
+		public int chooseMove(@NotNull Game game, int player, int @NotNull [] moves, int count, @NotNull SplittableRandom random) {
+			int cardMoves = 0;
+			for (int i = 0; i < count; i++) {
+				if (Move.hasCard(moves[i])) cardMoves++;
+			}
+			if (cardMoves == 0) return fallback(moves, count);
+			int selected = random.nextInt(cardMoves);
+			for (int i = 0; i < count; i++) {
+				if (Move.hasCard(moves[i]) && selected-- == 0) return moves[i];
+			}
+			throw new AssertionError();
+		}
+	},
+	/**
+	 * Gets rid of the card worth the most points first.
+	 */
+	GREEDY {
+		@Override
+		public int chooseMove(@NotNull Game game, int player, int @NotNull [] moves, int count, @NotNull SplittableRandom random) {
+			int best = -1;
+			for (int i = 0; i < count; i++) {
+				if (Move.hasCard(moves[i]) && (best < 0 || points(Move.card(moves[i])) > points(Move.card(moves[best])))) {
+					best = i;
+				}
+			}
+			return best < 0 ? fallback(moves, count) : moves[best];
+		}
+	},
+	/**
+	 * Plays the card with the highest penalty first, otherwise behaves like {@link #GREEDY}.
+	 */
+	PENALTIES_FIRST {
+		@Override
+		public int chooseMove(@NotNull Game game, int player, int @NotNull [] moves, int count, @NotNull SplittableRandom random) {
+			int best = -1;
+			for (int i = 0; i < count; i++) {
+				if (Move.hasCard(moves[i]) && (best < 0 || Move.card(moves[i]).penalty() > Move.card(moves[best]).penalty())) {
+					best = i;
+				}
+			}
+			if (best < 0 || Move.card(moves[best]).penalty() == 0) {
+				return GREEDY.chooseMove(game, player, moves, count, random);
+			}
+			return moves[best];
+		}
+	};
+
+	/**
+	 * Returns the move to make when no card can be played.
+	 * That is accepting the penalty if there is one, otherwise picking up a card.
+	 *
+	 * @param moves The legal moves.
+	 * @param count How many moves are legal.
+	 * @return The move to make.
+	 */
+	private static int fallback(int @NotNull [] moves, int count) {
+		int result = moves[count - 1];
+		for (int i = 0; i < count; i++) {
+			if (Move.kind(moves[i]) == Move.ACCEPT) return moves[i];
+			else if (Move.kind(moves[i]) == Move.TAKE) result = moves[i];
+		}
+		return result;
+	}
+
+	/**
+	 * How many points a card is worth at the end of a round.
+	 *
+	 * @param card The card to rate.
+	 * @return The points of that card.
+	 */
+	private static int points(@NotNull Card card) {
+		if (card instanceof Default d) return d.value;
+		else if (card instanceof ChooseColor) return 50;
+		else return 20;
+	}
+}
@@ -0,0 +1,58 @@
+package eu.tgx03.uno.simulation;
+
+import eu.tgx03.uno.game.Game;
+import eu.tgx03.uno.game.Move;
+import eu.tgx03.uno.game.Player;
+import eu.tgx03.uno.game.cards.Card;
+import eu.tgx03.uno.game.cards.Color;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.SplittableRandom;
+
+/**
+ * A policy deciding which move a simulated player makes.
+ * Implementations get called for every turn of every simulated game, so they shouldn't allocate.
+ */
+public interface Strategy {
+
+	/**
+	 * Selects one of the legal moves of a player.
+	 *
+	 * @param game   The game being played.
+	 * @param player The number of the player to move.
+	 * @param moves  The legal moves of the player, encoded as described in {@link Move}.
+	 * @param count  How many moves are in the buffer, always at least one.
+	 * @param random The number generator of the current worker.
+	 * @return The selected move.
+	 */
+	int chooseMove(@NotNull Game game, int player, int @NotNull [] moves, int count, @NotNull SplittableRandom random);
+
+	/**
+	 * Selects the color for a wildcard the player is about to play.
+	 * By default, the color the player holds the most cards of.
+	 *
+	 * @param hand   The player about to play the wildcard.
+	 * @param random The number generator of the current worker.
+	 * @return The color to select.
+	 */
+	@NotNull
+	default Color chooseColor(@NotNull Player hand, @NotNull SplittableRandom random) {
+		int red = 0, yellow = 0, green = 0, blue = 0;
+		long held = hand.heldCards();
+		while (held != 0) {
+			Card card = Card.byCode(Long.numberOfTrailingZeros(held));
+			held &= held - 1;
+			switch (card.color()) {
+				case RED -> red += hand.count(card);
+				case YELLOW -> yellow += hand.count(card);
+				case GREEN -> green += hand.count(card);
+				case BLUE -> blue += hand.count(card);
+			}
+		}
+		int max = Math.max(Math.max(red, yellow), Math.max(green, blue));
+		if (red == max) return Color.RED;
+		else if (yellow == max) return Color.YELLOW;
+		else if (green == max) return Color.GREEN;
+		else return Color.BLUE;
+	}
+}
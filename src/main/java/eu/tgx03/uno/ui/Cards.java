@@ -59,9 +59,8 @@ public final class Cards {
 		// Translate the normal wildcard
 		BufferedImageTranscoder transcoder = new BufferedImageTranscoder();
 		String filename = "/cards/WILD.svg";
-		TranscoderInput in = new TranscoderInput(Cards.class.getResourceAsStream(filename));
 		try {
-			transcoder.transcode(in, null);
+			transcoder.transcode(filename);
 		} catch (TranscoderException e) {
 			ExceptionDialog.showException(e);
 		}
@@ -69,9 +68,8 @@ public final class Cards {
 
 		// Translate the wild take four card
 		filename = "/cards/WILD_TAKEFOUR.svg";
-		in = new TranscoderInput(Cards.class.getResourceAsStream(filename));
 		try {
-			transcoder.transcode(in, null);
+			transcoder.transcode(filename);
 		} catch (TranscoderException e) {
 			ExceptionDialog.showException(e);
 		}
@@ -152,9 +150,8 @@ public final class Cards {
 			// Transcode the normal number
 			for (int i = 0; i < 10; i++) {
 				String filename = "/cards/" + color + i + ".svg";
-				TranscoderInput in = new TranscoderInput(getClass().getResourceAsStream(filename));
 				try {
-					transcoder.transcode(in, null);
+					transcoder.transcode(filename);
 					target[i] = SwingFXUtils.toFXImage(transcoder.img, null);
 				} catch (TranscoderException e) {
 					ExceptionDialog.showException(e);
@@ -163,9 +160,8 @@ public final class Cards {
 
 			// Transcode the reverse card
 			String filename = "/cards/" + color + "_REVERSE.svg";
-			TranscoderInput in = new TranscoderInput(getClass().getResourceAsStream(filename));
 			try {
-				transcoder.transcode(in, null);
+				transcoder.transcode(filename);
 				target[10] = SwingFXUtils.toFXImage(transcoder.img, null);
 			} catch (TranscoderException e) {
 				ExceptionDialog.showException(e);
@@ -173,9 +169,8 @@ public final class Cards {
 
 			// Transcode the skip card
 			filename = "/cards/" + color + "_SKIP.svg";
-			in = new TranscoderInput(getClass().getResourceAsStream(filename));
 			try {
-				transcoder.transcode(in, null);
+				transcoder.transcode(filename);
 				target[11] = SwingFXUtils.toFXImage(transcoder.img, null);
 
 			} catch (TranscoderException e) {
@@ -184,9 +179,8 @@ public final class Cards {
 
 			// Transcode the take two card
 			filename = "/cards/" + color + "_TAKETWO.svg";
-			in = new TranscoderInput(getClass().getResourceAsStream(filename));
 			try {
-				transcoder.transcode(in, null);
+				transcoder.transcode(filename);
 				target[12] = SwingFXUtils.toFXImage(transcoder.img, null);
 
 			} catch (TranscoderException e) {
@@ -215,5 +209,24 @@ public final class Cards {
 		public void writeImage(@NotNull BufferedImage bufferedImage, @Nullable TranscoderOutput transcoderOutput) {
 			this.img = bufferedImage;
 		}
+
+		/**
+		 * Transcodes one of the bundled SVG files into {@link #img}.
+		 *
+		 * @param filename The path of the file within the resources.
+		 * @throws TranscoderException When the file couldn't be transcoded.
+		 */
+		private void transcode(@NotNull String filename) throws TranscoderException {
+			TranscodeEvent event = new TranscodeEvent();
+			event.begin();
+			transcode(new TranscoderInput(Cards.class.getResourceAsStream(filename)), null);
+			event.end();
+			if (event.shouldCommit()) {
+				event.file = filename;
+				event.width = img.getWidth();
+				event.height = img.getHeight();
+				event.commit();
+			}
+		}
 	}
 }
@@ -0,0 +1,33 @@
+package eu.tgx03.uno.ui;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The image of a card got transcoded from its SVG file.
+ */
+@Name("eu.tgx03.uno.Transcode")
+@Label("Card Transcode")
+@Category({"UNO", "UI"})
+@Description("The image of a card got transcoded from its SVG file")
+final class TranscodeEvent extends Event {
+
+	/**
+	 * The transcoded file.
+	 */
+	@Label("File")
+	String file;
+	/**
+	 * The width of the image in pixels.
+	 */
+	@Label("Width")
+	int width;
+	/**
+	 * The height of the image in pixels.
+	 */
+	@Label("Height")
+	int height;
+}
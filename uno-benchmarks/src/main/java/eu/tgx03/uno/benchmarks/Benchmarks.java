@@ -0,0 +1,37 @@
+package eu.tgx03.uno.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled,
+ * so every result also states how much gets allocated per operation.
+ */
+public final class Benchmarks {
+
+	/**
+	 * Utility class.
+	 */
+	private Benchmarks() {
+		throw new IllegalAccessError("Utility class");
+	}
+
+	/**
+	 * Runs the benchmarks.
+	 * Accepts the same options as the JMH command line, for example a regular expression
+	 * selecting the benchmarks or "-rf json -rff baseline.json" to write the results to a file.
+	 *
+	 * @param args The JMH options.
+	 * @throws CommandLineOptionException When the options are invalid.
+	 * @throws RunnerException            When a benchmark failed.
+	 */
+	public static void main(@NotNull String @NotNull [] args) throws CommandLineOptionException, RunnerException {
+		CommandLineOptions options = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder().parent(options).addProfiler(GCProfiler.class).build()).run();
+	}
+}
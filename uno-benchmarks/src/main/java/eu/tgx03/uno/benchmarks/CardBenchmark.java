@@ -0,0 +1,71 @@
+package eu.tgx03.uno.benchmarks;
+
+import eu.tgx03.uno.game.cards.Card;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generating cards and checking which cards may be placed on each other.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardBenchmark {
+
+	/**
+	 * The canonical instance of every card, including each color of the wildcards.
+	 */
+	private Card[] cards;
+
+	/**
+	 * Collects all the cards.
+	 */
+	@Setup
+	public void setup() {
+		cards = new Card[Card.CARD_TYPES];
+		for (int code = 0; code < Card.CARD_TYPES; code++) {
+			cards[code] = Card.byCode(code);
+		}
+	}
+
+	/**
+	 * Draws a random card the way a new hand does.
+	 *
+	 * @return The generated card.
+	 */
+	@Benchmark
+	@NotNull
+	public Card generateCard() {
+		return Card.generateCard();
+	}
+
+	/**
+	 * Checks every card against every other card.
+	 *
+	 * @return How many pairs may be placed on each other.
+	 */
+	@Benchmark
+	public int placeAllPairs() {
+		int legal = 0;
+		for (Card below : cards) {
+			for (Card card : cards) {
+				if (card.place(below)) legal++;
+			}
+		}
+		return legal;
+	}
+}
@@ -0,0 +1,107 @@
+package eu.tgx03.uno.benchmarks;
+
+import eu.tgx03.uno.game.Game;
+import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.messaging.BufferPool;
+import eu.tgx03.uno.messaging.Command;
+import eu.tgx03.uno.messaging.Update;
+import eu.tgx03.uno.messaging.WireFormat;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encoding a message and decoding it again in each wire format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+	/**
+	 * The format to encode the messages in.
+	 */
+	@Param({"JAVA", "BINARY"})
+	public WireFormat format;
+
+	/**
+	 * The pool the buffers are taken from, like a server would.
+	 */
+	private final BufferPool pool = new BufferPool(4096, 16, false);
+	/**
+	 * An update from the start of a game with 4 players.
+	 */
+	private Update update;
+	/**
+	 * A command playing a card.
+	 */
+	private Command command;
+
+	/**
+	 * Creates the messages.
+	 */
+	@Setup
+	public void setup() {
+		Game game = new Game(4, new Rules(), 0);
+		update = new Update(true, game.getPlayer(0), game.getTopCard(), game.getCardCount(), (short) game.getStackSize());
+		command = new Command(Command.CommandType.NORMAL, 3).withId(42);
+	}
+
+	/**
+	 * Encodes and decodes an update.
+	 *
+	 * @return The decoded update.
+	 * @throws IOException            Never.
+	 * @throws ClassNotFoundException Never.
+	 */
+	@Benchmark
+	@NotNull
+	public Object updateRoundTrip() throws IOException, ClassNotFoundException {
+		return roundTrip(update);
+	}
+
+	/**
+	 * Encodes and decodes a command.
+	 *
+	 * @return The decoded command.
+	 * @throws IOException            Never.
+	 * @throws ClassNotFoundException Never.
+	 */
+	@Benchmark
+	@NotNull
+	public Object commandRoundTrip() throws IOException, ClassNotFoundException {
+		return roundTrip(command);
+	}
+
+	/**
+	 * Encodes and decodes a message and gives the buffer back to the pool.
+	 *
+	 * @param message The message to encode.
+	 * @return The decoded message.
+	 * @throws IOException            Never.
+	 * @throws ClassNotFoundException Never.
+	 */
+	@NotNull
+	private Object roundTrip(@NotNull Object message) throws IOException, ClassNotFoundException {
+		ByteBuffer buffer = format.encode(message, pool);
+		Object result = format.decode(buffer);
+		pool.release(buffer);
+		return result;
+	}
+}
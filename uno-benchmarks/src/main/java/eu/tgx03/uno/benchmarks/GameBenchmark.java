@@ -0,0 +1,109 @@
+package eu.tgx03.uno.benchmarks;
+
+import eu.tgx03.uno.game.Game;
+import eu.tgx03.uno.game.Move;
+import eu.tgx03.uno.game.Rules;
+import eu.tgx03.uno.game.cards.ChooseColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the moves of a game with different amounts of players.
+ * Moving on to the next player and applying penalties happen inside the moves,
+ * so they are measured through them.
+ * Whenever a game is over, the next one starts from a new seed during the measurement,
+ * which is rare enough not to matter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+	/**
+	 * The rules all games are played with.
+	 */
+	private static final Rules RULES = new Rules();
+	/**
+	 * How many cards a hand may hold before {@link #takeCard()} starts a new game.
+	 */
+	private static final int MAX_HAND = 64;
+
+	/**
+	 * How many players take part in the game.
+	 */
+	@Param({"2", "10", "100"})
+	public int players;
+
+	/**
+	 * The game being played.
+	 */
+	private Game game;
+	/**
+	 * The seed of the current game.
+	 */
+	private long seed;
+	/**
+	 * The buffer for the legal moves.
+	 */
+	private final int[] moves = new int[Game.MAX_MOVES];
+
+	/**
+	 * Starts every iteration with the same game.
+	 */
+	@Setup(Level.Iteration)
+	public void setup() {
+		seed = 0;
+		game = new Game(players, RULES, seed);
+	}
+
+	/**
+	 * Makes the move of the current player, playing the first fitting card,
+	 * accepting a penalty or taking a card.
+	 * Wildcards get the color of the card on top.
+	 *
+	 * @return Whether the move was executed.
+	 */
+	@Benchmark
+	public boolean playTurn() {
+		int player = game.getCurrentPlayer();
+		game.legalMoves(player, moves);
+		int move = moves[0];   // Cards come first, then accepting the penalty, then taking a card
+		if (Move.needsColor(move)) {
+			ChooseColor colored = ((ChooseColor) Move.card(move)).withColor(game.getTopCard().color());
+			game.selectColor(player, Move.cardNumber(move), colored.color());
+			move = Move.encode(Move.kind(move), colored.code(), Move.cardNumber(move));
+		}
+		boolean result = game.apply(player, move);
+		if (game.getPlayer(player).finished()) game = new Game(players, RULES, ++seed);
+		return result;
+	}
+
+	/**
+	 * Lets the current player take a card, which only draws and moves on to the next player.
+	 * Once the hands grow too large, a new game starts.
+	 *
+	 * @return Whether the card has been taken.
+	 */
+	@Benchmark
+	public boolean takeCard() {
+		int player = game.getCurrentPlayer();
+		boolean result = game.takeCard(player);
+		if (game.getPlayer(player).cardCount() > MAX_HAND) game = new Game(players, RULES, ++seed);
+		return result;
+	}
+}
@@ -0,0 +1,60 @@
+package eu.tgx03.uno.benchmarks;
+
+import eu.tgx03.uno.game.Player;
+import eu.tgx03.uno.game.cards.Card;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures listing the cards of a hand, which every update of the user interface does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+
+	/**
+	 * How many cards the hand holds.
+	 */
+	@Param({"7", "30", "108"})
+	public int cards;
+
+	/**
+	 * The hand to list.
+	 */
+	private Player player;
+
+	/**
+	 * Creates the hand.
+	 */
+	@Setup
+	public void setup() {
+		player = new Player(cards);
+	}
+
+	/**
+	 * Lists all the cards of the hand.
+	 *
+	 * @return The cards of the hand.
+	 */
+	@Benchmark
+	@NotNull
+	public Card @NotNull [] getCards() {
+		return player.getCards();
+	}
+}